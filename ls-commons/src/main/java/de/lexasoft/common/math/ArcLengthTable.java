@@ -0,0 +1,137 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+/**
+ * Maps arc length to t and vice versa for a Bezier curve.
+ * <p>
+ * The curve is divided into {@link #SEGMENTS} equal parts of t. The length of
+ * each part is calculated with Gauss-Legendre quadrature of the speed |B'(t)|
+ * and accumulated in a table, which is monotone increasing. A length is mapped
+ * to t by binary search in the table and a few Newton steps within the part
+ * found.
+ * <p>
+ * The table is immutable after construction.
+ * 
+ * @author nierax
+ *
+ */
+final class ArcLengthTable {
+
+	/**
+	 * Number of parts of the curve.
+	 */
+	static final int SEGMENTS = 64;
+
+	/**
+	 * Number of Newton steps to find t for a length within a part.
+	 */
+	private static final int NEWTON_STEPS = 3;
+
+	/**
+	 * Nodes of the 5 point Gauss-Legendre quadrature on [-1, 1].
+	 */
+	private static final double[] NODES = { 0, -0.5384693101056831, 0.5384693101056831, -0.9061798459386640,
+	    0.9061798459386640 };
+
+	/**
+	 * Weights of the 5 point Gauss-Legendre quadrature.
+	 */
+	private static final double[] WEIGHTS = { 0.5688888888888889, 0.4786286704993665, 0.4786286704993665,
+	    0.2369268850561891, 0.2369268850561891 };
+
+	private final Bezier bezier;
+	/**
+	 * Length from t = 0 to the start of each part, one more entry for the total
+	 * length.
+	 */
+	private final double[] lengths;
+
+	ArcLengthTable(Bezier bezier) {
+		this.bezier = bezier;
+		this.lengths = new double[SEGMENTS + 1];
+		for (int i = 0; i < SEGMENTS; i++) {
+			lengths[i + 1] = lengths[i] + integrate((double) i / SEGMENTS, (double) (i + 1) / SEGMENTS);
+		}
+	}
+
+	private double speed(double t) {
+		double dx = bezier.dxAt(t);
+		double dy = bezier.dyAt(t);
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/**
+	 * Length of the curve between from and to with Gauss-Legendre quadrature.
+	 */
+	private double integrate(double from, double to) {
+		double half = (to - from) / 2;
+		double middle = (from + to) / 2;
+		double sum = 0;
+		for (int i = 0; i < NODES.length; i++) {
+			sum += WEIGHTS[i] * speed(middle + half * NODES[i]);
+		}
+		return sum * half;
+	}
+
+	/**
+	 * @return The length of the whole curve.
+	 */
+	double length() {
+		return lengths[SEGMENTS];
+	}
+
+	/**
+	 * @param t The parameter between 0 and 1.
+	 * @return The length of the curve from 0 to t.
+	 */
+	double length(double t) {
+		int segment = Math.min((int) (t * SEGMENTS), SEGMENTS - 1);
+		double start = (double) segment / SEGMENTS;
+		return lengths[segment] + integrate(start, t);
+	}
+
+	/**
+	 * Index of the part, which contains the given length.
+	 */
+	private int findSegment(double length) {
+		int low = 0;
+		int high = SEGMENTS;
+		while (high - low > 1) {
+			int middle = (low + high) >>> 1;
+			if (lengths[middle] <= length) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param length The length between 0 and {@link #length()}.
+	 * @return The t, where the curve reaches the given length.
+	 */
+	double t(double length) {
+		int segment = findSegment(length);
+		double start = (double) segment / SEGMENTS;
+		double end = (double) (segment + 1) / SEGMENTS;
+		double segmentLength = lengths[segment + 1] - lengths[segment];
+		double remaining = length - lengths[segment];
+		if (segmentLength <= 0) {
+			return start;
+		}
+		double t = start + remaining / segmentLength * (end - start);
+		for (int i = 0; i < NEWTON_STEPS; i++) {
+			double newton = t - (integrate(start, t) - remaining) / speed(t);
+			if (!(newton >= start && newton <= end)) {
+				// Speed of 0 or overshooting, keep the last approximation.
+				break;
+			}
+			t = newton;
+		}
+		return t;
+	}
+
+}
@@ -0,0 +1,308 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.Arrays;
+
+/**
+ * A B-spline curve of a given degree with a uniform or non-uniform knot
+ * vector, optionally with weights (then it is a NURBS curve).
+ * <p>
+ * For n control points and degree p the knot vector holds n + p + 1
+ * non-decreasing knots, the curve is defined for t between knot p and knot n.
+ * The knot span containing t is found by binary search, the point within the
+ * span with de Boor's algorithm in homogeneous coordinates. Only the p + 1
+ * control points of the span are involved, so evaluation does not depend on
+ * the number of control points. Both coordinates are evaluated in one pass in
+ * a buffer per thread, so evaluation and sampling don't create any objects.
+ * <p>
+ * The curve is immutable and can be shared between threads.
+ * 
+ * @author nierax
+ *
+ */
+public class BSpline implements ParametricCurve {
+
+	/**
+	 * Buffer for de Boor's algorithm, one per thread, so that the evaluation
+	 * doesn't create any objects. It grows with the highest degree used.
+	 */
+	private static final ThreadLocal<double[]> DE_BOOR = ThreadLocal.withInitial(() -> new double[3 * 4]);
+
+	private final int degree;
+	private final PointBuffer controlPoints;
+	private final double[] knots;
+	private final double[] weights;
+
+	private BSpline(int degree, PointBuffer controlPoints, double[] knots, double[] weights) {
+		int count = controlPoints.size();
+		if (degree < 1 || degree >= count) {
+			throw new IllegalArgumentException(String.format(
+			    "Degree was %s, but must be between 1 and the number of control points minus 1 (%s).", degree,
+			    count - 1));
+		}
+		if (knots.length != count + degree + 1) {
+			throw new IllegalArgumentException(String.format("There are %s knots, but %s are needed.", knots.length,
+			    count + degree + 1));
+		}
+		for (int i = 1; i < knots.length; i++) {
+			if (!(knots[i] >= knots[i - 1])) {
+				throw new IllegalArgumentException(String.format("Knot %s (%s) is lower than its predecessor (%s).", i,
+				    knots[i], knots[i - 1]));
+			}
+		}
+		if (!(knots[count] > knots[degree])) {
+			throw new IllegalArgumentException("The knots must span a non empty interval.");
+		}
+		if (weights.length != count) {
+			throw new IllegalArgumentException(
+			    String.format("There are %s weights, but %s control points.", weights.length, count));
+		}
+		for (int k = 0; k < count; k++) {
+			if (!(weights[k] > 0)) {
+				throw new IllegalArgumentException(
+				    String.format("Weight %s was %s, but must be positive.", k, weights[k]));
+			}
+		}
+		this.degree = degree;
+		this.controlPoints = controlPoints;
+		this.knots = knots;
+		this.weights = weights;
+	}
+
+	/**
+	 * @return The degree of the curve.
+	 */
+	public int degree() {
+		return degree;
+	}
+
+	/**
+	 * @return The control points of the curve.
+	 */
+	public PointBuffer controlPoints() {
+		return controlPoints;
+	}
+
+	/**
+	 * @param i Index of the knot.
+	 * @return The knot.
+	 */
+	public double knot(int i) {
+		return knots[i];
+	}
+
+	/**
+	 * @param k Index of the control point.
+	 * @return The weight of the control point, 1 for non rational curves.
+	 */
+	public double weight(int k) {
+		return weights[k];
+	}
+
+	@Override
+	public double startT() {
+		return knots[degree];
+	}
+
+	@Override
+	public double endT() {
+		return knots[controlPoints.size()];
+	}
+
+	private void checkT(double t) {
+		if (!(t >= startT() && t <= endT())) {
+			throw new IllegalArgumentException(
+			    String.format("Parameter t was %s, but must be between %s and %s.", t, startT(), endT()));
+		}
+	}
+
+	/**
+	 * Finds the knot span of t by binary search: The index i between degree and
+	 * the number of control points - 1 with knot i <= t < knot i + 1. The end of
+	 * the curve belongs to the last non empty span.
+	 */
+	int span(double t) {
+		int last = controlPoints.size() - 1;
+		if (t >= knots[last + 1]) {
+			int i = last;
+			while (knots[i] == knots[i + 1]) {
+				i--;
+			}
+			return i;
+		}
+		int low = degree;
+		int high = last;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (knots[middle] <= t) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return The buffer of this thread for de Boor's algorithm, with at least 3
+	 *         * (degree + 1) elements.
+	 */
+	private double[] deBoorBuffer() {
+		double[] buffer = DE_BOOR.get();
+		if (buffer.length < 3 * (degree + 1)) {
+			buffer = new double[3 * (degree + 1)];
+			DE_BOOR.set(buffer);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Evaluates the curve at t with de Boor's algorithm in the given buffer. x
+	 * and y of the curve are then at index 0 and 1 of the buffer.
+	 */
+	private void evaluate(double t, double[] buffer) {
+		int span = span(t);
+		int size = degree + 1;
+		int offset = span - degree;
+		double[] xs = controlPoints.xValues();
+		double[] ys = controlPoints.yValues();
+		for (int j = 0; j < size; j++) {
+			double w = weights[offset + j];
+			buffer[j] = xs[offset + j] * w;
+			buffer[size + j] = ys[offset + j] * w;
+			buffer[2 * size + j] = w;
+		}
+		for (int r = 1; r <= degree; r++) {
+			for (int j = degree; j >= r; j--) {
+				double left = knots[offset + j];
+				double alpha = (t - left) / (knots[offset + j + 1 + degree - r] - left);
+				double beta = 1 - alpha;
+				buffer[j] = beta * buffer[j - 1] + alpha * buffer[j];
+				buffer[size + j] = beta * buffer[size + j - 1] + alpha * buffer[size + j];
+				buffer[2 * size + j] = beta * buffer[2 * size + j - 1] + alpha * buffer[2 * size + j];
+			}
+		}
+		double w = buffer[2 * size + degree];
+		double x = buffer[degree] / w;
+		double y = buffer[size + degree] / w;
+		buffer[0] = x;
+		buffer[1] = y;
+	}
+
+	/**
+	 * @param t The parameter between {@link #startT()} and {@link #endT()}.
+	 * @return The point of the curve at t.
+	 */
+	public Point point(double t) {
+		checkT(t);
+		double[] buffer = deBoorBuffer();
+		evaluate(t, buffer);
+		return Point.of(buffer[0], buffer[1]);
+	}
+
+	@Override
+	public double x(double t) {
+		checkT(t);
+		double[] buffer = deBoorBuffer();
+		evaluate(t, buffer);
+		return buffer[0];
+	}
+
+	@Override
+	public double y(double t) {
+		checkT(t);
+		double[] buffer = deBoorBuffer();
+		evaluate(t, buffer);
+		return buffer[1];
+	}
+
+	/**
+	 * Samples the curve at count equidistant values of t from from to to (both
+	 * included) and writes the coordinates into the given arrays. No objects are
+	 * created.
+	 * 
+	 * @param from  The first t, between {@link #startT()} and {@link #endT()}.
+	 * @param to    The last t, between {@link #startT()} and {@link #endT()}.
+	 * @param count The number of samples, at least 1.
+	 * @param xs    Receives the x values. Must have at least count elements.
+	 * @param ys    Receives the y values. Must have at least count elements.
+	 */
+	@Override
+	public void sample(double from, double to, int count, double[] xs, double[] ys) {
+		checkT(from);
+		checkT(to);
+		if (count < 1 || xs.length < count || ys.length < count) {
+			throw new IllegalArgumentException(String.format(
+			    "Count was %s, but must be at least 1 and fit into arrays of length %s and %s.", count, xs.length,
+			    ys.length));
+		}
+		double step = (count > 1) ? (to - from) / (count - 1) : 0;
+		double[] buffer = deBoorBuffer();
+		for (int i = 0; i < count; i++) {
+			// The last sample exactly at to, free of rounding.
+			double t = (i == count - 1) ? to : from + i * step;
+			evaluate(t, buffer);
+			xs[i] = buffer[0];
+			ys[i] = buffer[1];
+		}
+	}
+
+	/**
+	 * Creates a NURBS curve.
+	 * 
+	 * @param degree        The degree, at least 1 and lower than the number of
+	 *                      control points.
+	 * @param controlPoints The control points.
+	 * @param knots         The non-decreasing knots, number of control points +
+	 *                      degree + 1 of them.
+	 * @param weights       The weights of the control points, all positive.
+	 * @return The curve.
+	 */
+	public static BSpline of(int degree, PointBuffer controlPoints, double[] knots, double[] weights) {
+		return new BSpline(degree, controlPoints, knots.clone(), weights.clone());
+	}
+
+	/**
+	 * Creates a non rational B-spline curve (all weights 1).
+	 * 
+	 * @param degree        The degree, at least 1 and lower than the number of
+	 *                      control points.
+	 * @param controlPoints The control points.
+	 * @param knots         The non-decreasing knots, number of control points +
+	 *                      degree + 1 of them.
+	 * @return The curve.
+	 */
+	public static BSpline of(int degree, PointBuffer controlPoints, double[] knots) {
+		double[] weights = new double[controlPoints.size()];
+		Arrays.fill(weights, 1);
+		return new BSpline(degree, controlPoints, knots.clone(), weights);
+	}
+
+	/**
+	 * Creates a non rational B-spline curve with a clamped uniform knot vector:
+	 * The curve starts at the first and ends at the last control point, t runs
+	 * from 0 to 1.
+	 * 
+	 * @param degree        The degree, at least 1 and lower than the number of
+	 *                      control points.
+	 * @param controlPoints The control points.
+	 * @return The curve.
+	 */
+	public static BSpline uniform(int degree, PointBuffer controlPoints) {
+		int count = controlPoints.size();
+		if (degree < 1 || degree >= count) {
+			throw new IllegalArgumentException(String.format(
+			    "Degree was %s, but must be between 1 and the number of control points minus 1 (%s).", degree,
+			    count - 1));
+		}
+		double[] knots = new double[count + degree + 1];
+		int inner = count - degree;
+		for (int i = 0; i < knots.length; i++) {
+			knots[i] = Math.min(1, Math.max(0, (double) (i - degree) / inner));
+		}
+		return of(degree, controlPoints, knots);
+	}
+
+}
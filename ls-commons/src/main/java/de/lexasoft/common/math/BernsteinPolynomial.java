@@ -0,0 +1,473 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.Arrays;
+
+/**
+ * A one dimensional polynomial in Bernstein form, as used for each coordinate
+ * of a Bezier curve.
+ * <p>
+ * The binomial coefficients are calculated once under construction and
+ * multiplied into the coefficients, so the evaluation needs neither factorials
+ * nor calls to {@link Math#pow(double, double)}. The evaluation uses a Horner
+ * like scheme in the ratio t/(1-t) (or (1-t)/t), which is numerically stable
+ * and does not allocate any memory (up to {@link #MAX_HORNER_DEGREE}).
+ * <p>
+ * Objects of this class are immutable.
+ * 
+ * @author nierax
+ *
+ */
+final class BernsteinPolynomial {
+
+	/**
+	 * Above this degree the binomial coefficients do not fit into a double any
+	 * more, so de Casteljau's algorithm is used instead.
+	 */
+	static final int MAX_HORNER_DEGREE = 1000;
+
+	/**
+	 * Above this degree sampling evaluates each point directly, because the
+	 * forward differences lose too much precision.
+	 */
+	static final int MAX_FORWARD_DIFFERENCE_DEGREE = 6;
+
+	/**
+	 * Number of forward difference steps, after which the difference table is
+	 * seeded again.
+	 */
+	static final int FORWARD_DIFFERENCE_BLOCK = 256;
+
+	/**
+	 * Binomial coefficients C(m, j) up to {@link #MAX_FORWARD_DIFFERENCE_DEGREE}.
+	 */
+	private static final double[][] BINOMIALS = new double[MAX_FORWARD_DIFFERENCE_DEGREE + 1][];
+
+	/**
+	 * k! * S(j, k) (Stirling numbers of the second kind), which is the k-th
+	 * forward difference of i^j at i = 0.
+	 */
+	private static final double[][] STIRLING_DIFFERENCES = new double[MAX_FORWARD_DIFFERENCE_DEGREE + 1][];
+
+	/**
+	 * Forward difference table for {@link #sample}, one per thread, so that
+	 * sampling doesn't create any objects.
+	 */
+	private static final ThreadLocal<double[]> DIFFERENCES = ThreadLocal
+	    .withInitial(() -> new double[MAX_FORWARD_DIFFERENCE_DEGREE + 1]);
+
+	static {
+		for (int m = 0; m <= MAX_FORWARD_DIFFERENCE_DEGREE; m++) {
+			BINOMIALS[m] = new double[m + 1];
+			STIRLING_DIFFERENCES[m] = new double[m + 1];
+			for (int j = 0; j <= m; j++) {
+				BINOMIALS[m][j] = (j == 0 || j == m) ? 1 : BINOMIALS[m - 1][j - 1] + BINOMIALS[m - 1][j];
+				if (m == 0) {
+					STIRLING_DIFFERENCES[m][j] = 1;
+				} else if (j == 0) {
+					STIRLING_DIFFERENCES[m][j] = 0;
+				} else {
+					// k! S(m,k) = k * (k! S(m-1,k) + (k-1)! S(m-1,k-1))
+					double previous = (j < m) ? STIRLING_DIFFERENCES[m - 1][j] : 0;
+					STIRLING_DIFFERENCES[m][j] = j * (previous + STIRLING_DIFFERENCES[m - 1][j - 1]);
+				}
+			}
+		}
+	}
+
+	private final double[] coefficients;
+	private final double[] weighted;
+	private final double[] power;
+	private final int degree;
+
+	/**
+	 * @param coefficients The Bernstein coefficients (the control values). The
+	 *                     array is taken over and must not be changed afterwards.
+	 */
+	BernsteinPolynomial(double[] coefficients) {
+		if (coefficients.length == 0) {
+			throw new IllegalArgumentException("At least one coefficient is needed.");
+		}
+		this.coefficients = coefficients;
+		this.degree = coefficients.length - 1;
+		this.weighted = (degree <= MAX_HORNER_DEGREE) ? weight(coefficients) : null;
+		this.power = (degree <= MAX_FORWARD_DIFFERENCE_DEGREE) ? toPowerBasis(coefficients) : null;
+	}
+
+	/**
+	 * Converts the Bernstein coefficients into the coefficients of the power
+	 * basis 1, t, t^2, ... The conversion is only numerically sensible for small
+	 * degrees.
+	 */
+	private static double[] toPowerBasis(double[] coefficients) {
+		int n = coefficients.length - 1;
+		double[] power = new double[n + 1];
+		for (int j = 0; j <= n; j++) {
+			double sum = 0;
+			for (int i = 0; i <= j; i++) {
+				double term = BINOMIALS[j][i] * coefficients[i];
+				sum += ((j - i) % 2 == 0) ? term : -term;
+			}
+			power[j] = BINOMIALS[n][j] * sum;
+		}
+		return power;
+	}
+
+	/**
+	 * Multiplies each coefficient with the binomial coefficient C(n,k). The
+	 * binomial coefficients are calculated iteratively in double precision, so
+	 * there is no overflow as with long factorials.
+	 */
+	private static double[] weight(double[] coefficients) {
+		int n = coefficients.length - 1;
+		double[] weighted = new double[coefficients.length];
+		double binomial = 1;
+		for (int k = 0; k <= n; k++) {
+			weighted[k] = binomial * coefficients[k];
+			binomial = binomial * (n - k) / (k + 1);
+		}
+		return weighted;
+	}
+
+	int degree() {
+		return degree;
+	}
+
+	double coefficient(int k) {
+		return coefficients[k];
+	}
+
+	/**
+	 * The coefficients in power basis 1, t, t^2, ..., only available up to
+	 * {@link #MAX_FORWARD_DIFFERENCE_DEGREE}.
+	 * 
+	 * @return The power basis coefficients (must not be changed) or null for
+	 *         higher degrees.
+	 */
+	double[] powerCoefficients() {
+		return power;
+	}
+
+	/**
+	 * Calculates the derivative, which is again a polynomial in Bernstein form
+	 * with one degree less (the hodograph).
+	 * 
+	 * @return The derivative of this polynomial.
+	 */
+	BernsteinPolynomial derivative() {
+		if (degree == 0) {
+			return new BernsteinPolynomial(new double[] { 0 });
+		}
+		double[] derived = new double[degree];
+		for (int k = 0; k < degree; k++) {
+			derived[k] = degree * (coefficients[k + 1] - coefficients[k]);
+		}
+		return new BernsteinPolynomial(derived);
+	}
+
+	/**
+	 * Maximal number of bisection steps to find a root in an isolating interval.
+	 */
+	private static final int MAX_ROOT_ITERATIONS = 100;
+
+	/**
+	 * Width of an interval, below which the subdivision of {@link #roots()}
+	 * stops and takes the middle as a (multiple) root.
+	 */
+	private static final double ROOT_RESOLUTION = 1e-12;
+
+	/**
+	 * Finds all roots of the polynomial in [0, 1].
+	 * <p>
+	 * The roots are isolated by subdivision: The number of sign changes of the
+	 * Bernstein coefficients is an upper bound of the number of roots in the
+	 * interval (variation diminishing property). Without a change there is no
+	 * root (convex hull property), with exactly one there is exactly one, which
+	 * is found with Newton's method, safeguarded by bisection. Otherwise the
+	 * interval is split in the middle with de Casteljau's algorithm. Unlike
+	 * repeated derivatives, the subdivision keeps the size of the coefficients,
+	 * so it works for high degrees, too.
+	 * <p>
+	 * A polynomial, which is 0 everywhere, has no roots in the sense of this
+	 * method.
+	 * 
+	 * @return The roots in ascending order.
+	 */
+	double[] roots() {
+		if (hasConstantSign()) {
+			return new double[0];
+		}
+		if (degree == 1) {
+			// Sign change between both coefficients, so the root is in [0, 1].
+			return new double[] { coefficients[0] / (coefficients[0] - coefficients[1]) };
+		}
+		// Each isolating interval contributes one root at most, and there are at
+		// most as many as sign changes, plus the roots at both ends.
+		double[] roots = new double[degree + 2];
+		int count = isolateRoots(coefficients.clone(), 0, 1, derivative(), roots, 0);
+		return Arrays.copyOf(roots, count);
+	}
+
+	/**
+	 * Adds the roots within [from, to] of the polynomial, whose coefficients on
+	 * this interval are given in part. part is overwritten.
+	 * 
+	 * @return The new number of roots.
+	 */
+	private int isolateRoots(double[] part, double from, double to, BernsteinPolynomial derivative, double[] roots,
+	    int count) {
+		int last = part.length - 1;
+		if (part[0] == 0) {
+			count = addRoot(from, roots, count);
+		}
+		int variations = signVariations(part);
+		if (variations > 0) {
+			double middle = (from + to) / 2;
+			if (to - from < ROOT_RESOLUTION) {
+				count = addRoot(middle, roots, count);
+			} else if (variations == 1 && part[0] != 0 && part[last] != 0) {
+				count = addRoot(rootInInterval(derivative, from, to), roots, count);
+			} else {
+				double[] left = new double[part.length];
+				subdivide(part, 0, part.length, 0.5, left, 0);
+				count = isolateRoots(left, from, middle, derivative, roots, count);
+				count = isolateRoots(part, middle, to, derivative, roots, count);
+			}
+		}
+		if (part[last] == 0) {
+			count = addRoot(to, roots, count);
+		}
+		return count;
+	}
+
+	private static int addRoot(double root, double[] roots, int count) {
+		if (!Double.isNaN(root) && count < roots.length && (count == 0 || root > roots[count - 1])) {
+			roots[count++] = root;
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the changes of sign between the coefficients, ignoring zeros.
+	 */
+	private static int signVariations(double[] part) {
+		int variations = 0;
+		double previous = 0;
+		for (double coefficient : part) {
+			if (coefficient != 0) {
+				if ((previous < 0 && coefficient > 0) || (previous > 0 && coefficient < 0)) {
+					variations++;
+				}
+				previous = coefficient;
+			}
+		}
+		return variations;
+	}
+
+	/**
+	 * Checks, whether all coefficients are strictly positive or strictly
+	 * negative, which means the polynomial has no root in [0, 1].
+	 */
+	private boolean hasConstantSign() {
+		boolean positive = true;
+		boolean negative = true;
+		for (double coefficient : coefficients) {
+			positive &= coefficient > 0;
+			negative &= coefficient < 0;
+		}
+		return positive || negative || isZero();
+	}
+
+	private boolean isZero() {
+		for (double coefficient : coefficients) {
+			if (coefficient != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the root in an interval, which contains exactly one.
+	 * 
+	 * @return The root or {@link Double#NaN}, if there is no change of sign.
+	 */
+	private double rootInInterval(BernsteinPolynomial derivative, double from, double to) {
+		double lower = from;
+		double upper = to;
+		double lowerValue = value(lower);
+		double upperValue = value(upper);
+		if (lowerValue == 0) {
+			return lower;
+		}
+		if (upperValue == 0) {
+			return upper;
+		}
+		if ((lowerValue < 0) == (upperValue < 0)) {
+			return Double.NaN;
+		}
+		double t = (lower + upper) / 2;
+		for (int i = 0; i < MAX_ROOT_ITERATIONS && upper - lower > Math.ulp(t); i++) {
+			double value = value(t);
+			if (value == 0) {
+				return t;
+			}
+			if ((value < 0) == (lowerValue < 0)) {
+				lower = t;
+			} else {
+				upper = t;
+			}
+			double newton = t - value / derivative.value(t);
+			if (newton > lower && newton < upper) {
+				if (Math.abs(newton - t) <= 4 * Math.ulp(t)) {
+					// Newton's method converged.
+					return newton;
+				}
+				t = newton;
+			} else {
+				t = (lower + upper) / 2;
+			}
+		}
+		return t;
+	}
+
+	/**
+	 * Evaluates the polynomial at t.
+	 * 
+	 * @param t The parameter, normally between 0 and 1.
+	 * @return The value of the polynomial at t.
+	 */
+	double value(double t) {
+		if (weighted == null) {
+			return deCasteljau(t);
+		}
+		double s = 1 - t;
+		double result;
+		double power = 1;
+		if (t <= 0.5) {
+			// Horner in u = t / (1-t), reversed order
+			double u = t / s;
+			result = weighted[degree];
+			for (int k = degree - 1; k >= 0; k--) {
+				result = result * u + weighted[k];
+				power *= s;
+			}
+		} else {
+			// Horner in u = (1-t) / t
+			double u = s / t;
+			result = weighted[0];
+			for (int k = 1; k <= degree; k++) {
+				result = result * u + weighted[k];
+				power *= t;
+			}
+		}
+		return result * power;
+	}
+
+	/**
+	 * Samples the polynomial at count equidistant parameters, starting with from,
+	 * using forward differencing. Each sample then only needs degree additions.
+	 * <p>
+	 * To limit the accumulation of rounding errors, the difference table is
+	 * seeded again after {@link #FORWARD_DIFFERENCE_BLOCK} steps. Polynomials with
+	 * a degree above {@link #MAX_FORWARD_DIFFERENCE_DEGREE} are evaluated directly.
+	 * The difference table is kept per thread, so no objects are created.
+	 * 
+	 * @param from   The first parameter.
+	 * @param step   The distance between two parameters.
+	 * @param count  The number of samples.
+	 * @param out    The array to write the samples to.
+	 * @param offset The index of the first sample in out.
+	 * @param stride The distance between two samples in out.
+	 */
+	void sample(double from, double step, int count, double[] out, int offset, int stride) {
+		if (degree > MAX_FORWARD_DIFFERENCE_DEGREE) {
+			for (int i = 0; i < count; i++) {
+				out[offset + i * stride] = value(from + i * step);
+			}
+			return;
+		}
+		double[] differences = DIFFERENCES.get();
+		int index = offset;
+		for (int i = 0; i < count; i++) {
+			if (i % FORWARD_DIFFERENCE_BLOCK == 0) {
+				seedDifferences(from + i * step, step, differences);
+			}
+			out[index] = differences[0];
+			index += stride;
+			for (int k = 0; k < degree; k++) {
+				differences[k] += differences[k + 1];
+			}
+		}
+	}
+
+	/**
+	 * Fills the forward difference table for the parameter t and the given step.
+	 * <p>
+	 * The differences are calculated analytically from the power basis: The
+	 * polynomial g(i) = p(t + i * step) is expanded at t and the k-th difference
+	 * of i^j at 0 is k! * S(j,k) with the Stirling numbers of the second kind.
+	 * Differencing the sampled values instead would lose most of the precision
+	 * due to cancellation.
+	 */
+	private void seedDifferences(double t, double step, double[] differences) {
+		// Taylor coefficients at t, scaled with step^j
+		double scale = 1;
+		for (int j = 0; j <= degree; j++) {
+			double c = 0;
+			for (int m = degree; m >= j; m--) {
+				c = c * t + power[m] * BINOMIALS[m][j];
+			}
+			differences[j] = c * scale;
+			scale *= step;
+		}
+		// Convert to forward differences
+		for (int k = 1; k <= degree; k++) {
+			double d = 0;
+			for (int j = k; j <= degree; j++) {
+				d += differences[j] * STIRLING_DIFFERENCES[j][k];
+			}
+			differences[k] = d;
+		}
+		differences[0] = value(t);
+	}
+
+	/**
+	 * Subdivides the coefficients at t with de Casteljau's algorithm without
+	 * allocating memory.
+	 * <p>
+	 * The coefficients in points are replaced by the ones of the part from t to
+	 * 1, the ones of the part from 0 to t are written to left.
+	 * 
+	 * @param points     Holds the coefficients, receives the right part.
+	 * @param offset     Index of the first coefficient in points.
+	 * @param count      Number of coefficients (degree + 1).
+	 * @param t          Parameter to subdivide at.
+	 * @param left       Receives the left part.
+	 * @param leftOffset Index of the first coefficient in left.
+	 */
+	static void subdivide(double[] points, int offset, int count, double t, double[] left, int leftOffset) {
+		double s = 1 - t;
+		left[leftOffset] = points[offset];
+		for (int r = 1; r < count; r++) {
+			for (int k = offset; k < offset + count - r; k++) {
+				points[k] = s * points[k] + t * points[k + 1];
+			}
+			left[leftOffset + r] = points[offset];
+		}
+	}
+
+	private double deCasteljau(double t) {
+		double[] work = coefficients.clone();
+		double s = 1 - t;
+		for (int r = degree; r > 0; r--) {
+			for (int k = 0; k < r; k++) {
+				work[k] = s * work[k] + t * work[k + 1];
+			}
+		}
+		return work[0];
+	}
+
+}
@@ -19,24 +19,72 @@ import java.util.List;
  * @author nierax
  *
  */
-public class Bezier {
+public class Bezier implements ParametricCurve {
 
 	/**
 	 * The minimum iteration step to find t from x
+	 * 
+	 * @deprecated Not read any more, as changes affected all threads. The
+	 *             methods without configuration use
+	 *             {@link BezierSolverConfig#BALANCED}, use
+	 *             {@link BezierSolverConfig#threshold()} instead.
 	 */
+	@Deprecated
 	public static double THRESHOLD = 1e-6;
 
 	/**
 	 * The default accuracy (maximal difference) between the found x from the x,
 	 * expected.
+	 * 
+	 * @deprecated Not read any more, as changes affected all threads. The
+	 *             methods without configuration use
+	 *             {@link BezierSolverConfig#BALANCED}, use
+	 *             {@link BezierSolverConfig#accuracy()} instead.
 	 */
+	@Deprecated
 	public static double DEF_ACCURACY = 1e-5;
 
 	/**
 	 * Default iteration step to start from searching t for x.
+	 * 
+	 * @deprecated Not read any more, as changes affected all threads. The
+	 *             methods without configuration use
+	 *             {@link BezierSolverConfig#BALANCED}, use
+	 *             {@link BezierSolverConfig#startDT()} instead.
 	 */
+	@Deprecated
 	public static double DEF_DT = 0.1;
 
+	/**
+	 * Default for the maximal number of iterations in
+	 * {@link #solveTFromX(double, double, int)}. Enough for bisection to reach
+	 * the full double precision on [0, 1].
+	 */
+	public static final int DEF_MAX_ITERATIONS = 64;
+
+	/**
+	 * Default accuracy (distance on the curve) for
+	 * {@link #project(double, double, double[])}.
+	 */
+	public static final double PROJECTION_ACCURACY = 1e-12;
+
+	/**
+	 * Number of seed samples for the projection per control point.
+	 */
+	private static final int PROJECTION_SEEDS_PER_POINT = 8;
+
+	/**
+	 * Relative tolerance for rounding errors in {@link #isIncreasingInX()}.
+	 */
+	private static final double MONOTONY_TOLERANCE = 1e-12;
+
+	/**
+	 * Smallest start step of {@link #tFromX2(double, BezierSolverConfig)}. Each
+	 * try scans [0, 1] with the start step, so a smaller one would take ages to
+	 * give up on an x outside of the curve.
+	 */
+	private static final double MIN_START_DT = 1e-5;
+
 	@SuppressWarnings("serial")
 	class NotFoundInBezierCurveException extends MathException {
 
@@ -50,26 +98,148 @@ public class Bezier {
 
 	}
 
-	private List<Point> controlPoints;
+	private final PointBuffer controlPoints;
+	private final BernsteinPolynomial xPolynomial;
+	private final BernsteinPolynomial yPolynomial;
+	private final BernsteinPolynomial xDerivative;
+	private final BernsteinPolynomial yDerivative;
+	private final BernsteinPolynomial xSecondDerivative;
+	private final BernsteinPolynomial ySecondDerivative;
+	private volatile BezierLookupTable lookupTable;
+	private volatile ArcLengthTable arcLengthTable;
+	private volatile Bezier hodograph;
+	private volatile BoundingBox bounds;
+	private volatile PointBuffer projectionSeeds;
 
+	/**
+	 * @param controlPoints The control points of the curve, at least one.
+	 * @throws IllegalArgumentException If there is no control point.
+	 */
 	protected Bezier(List<Point> controlPoints) {
+		this(PointBuffer.of(controlPoints));
+	}
+
+	/**
+	 * @param controlPoints The control points of the curve, at least one.
+	 * @throws IllegalArgumentException If there is no control point.
+	 */
+	protected Bezier(PointBuffer controlPoints) {
+		if (controlPoints.size() == 0) {
+			throw new IllegalArgumentException("A Bezier curve needs at least one control point.");
+		}
 		this.controlPoints = controlPoints;
+		// Both, buffer and polynomials, are immutable, so they can share the arrays.
+		this.xPolynomial = new BernsteinPolynomial(controlPoints.xValues());
+		this.yPolynomial = new BernsteinPolynomial(controlPoints.yValues());
+		this.xDerivative = xPolynomial.derivative();
+		this.yDerivative = yPolynomial.derivative();
+		this.xSecondDerivative = xDerivative.derivative();
+		this.ySecondDerivative = yDerivative.derivative();
+	}
+
+	BernsteinPolynomial xPolynomial() {
+		return xPolynomial;
 	}
 
-	private double bernstein(int n, int k, double t) {
-		return choose(n, k) * Math.pow(1 - t, n - k) * Math.pow(t, k);
+	BernsteinPolynomial yPolynomial() {
+		return yPolynomial;
 	}
 
-	private long choose(int n, int k) {
-		return fact(n) / (fact(k) * fact(n - k));
+	/**
+	 * x value at t without checking the range of t.
+	 */
+	double xAt(double t) {
+		return xPolynomial.value(t);
 	}
 
-	private long fact(int n) {
-		if (n > 1) {
-			return fact(n - 1) * n;
+	/**
+	 * y value at t without checking the range of t.
+	 */
+	double yAt(double t) {
+		return yPolynomial.value(t);
+	}
+
+	/**
+	 * Derivative of x at t without checking the range of t.
+	 */
+	double dxAt(double t) {
+		return xDerivative.value(t);
+	}
+
+	/**
+	 * Derivative of y at t without checking the range of t.
+	 */
+	double dyAt(double t) {
+		return yDerivative.value(t);
+	}
+
+	/**
+	 * Second derivative of x at t without checking the range of t.
+	 */
+	double ddxAt(double t) {
+		return xSecondDerivative.value(t);
+	}
+
+	/**
+	 * Second derivative of y at t without checking the range of t.
+	 */
+	double ddyAt(double t) {
+		return ySecondDerivative.value(t);
+	}
+
+	/**
+	 * Improves a t for x found analytically with one Newton step, as long as the
+	 * step stays within [0, 1].
+	 */
+	double polishTFromX(double t, double x) {
+		double newton = t - (xAt(t) - x) / dxAt(t);
+		return (newton >= 0 && newton <= 1) ? newton : t;
+	}
+
+	private void checkT(double t) {
+		if ((t > 1) || t < 0) {
+			throw new IllegalArgumentException(String.format("Parameter t was %s, but must be between 0 and 1.", t));
 		}
+	}
 
-		return 1;
+	/**
+	 * @return The control points of the curve.
+	 */
+	public PointBuffer controlPoints() {
+		return controlPoints;
+	}
+
+	/**
+	 * The degree of the curve, which is the number of control points minus one.
+	 * 
+	 * @return The degree of the curve.
+	 */
+	public int degree() {
+		return xPolynomial.degree();
+	}
+
+	/**
+	 * Calculates the x value of the curve at t without creating a {@link Point}.
+	 * 
+	 * @param t The t parameter to calculate from
+	 * @return The x value of the Bezier curve at t.
+	 */
+	@Override
+	public double x(double t) {
+		checkT(t);
+		return xAt(t);
+	}
+
+	/**
+	 * Calculates the y value of the curve at t without creating a {@link Point}.
+	 * 
+	 * @param t The t parameter to calculate from
+	 * @return The y value of the Bezier curve at t.
+	 */
+	@Override
+	public double y(double t) {
+		checkT(t);
+		return yAt(t);
 	}
 
 	/**
@@ -80,17 +250,452 @@ public class Bezier {
 	 * @return The point with x and y on the Bezier curve.
 	 */
 	public Point bezier(double t) {
-		if ((t > 1) || t < 0) {
-			throw new IllegalArgumentException(String.format("Parameter t was %s, but must be between 0 and 1.", t));
+		checkT(t);
+		return Point.of(xAt(t), yAt(t));
+	}
+
+	private void checkSampleArguments(double from, double to, int count, int length, int needed) {
+		checkT(from);
+		checkT(to);
+		if (count < 1) {
+			throw new IllegalArgumentException(String.format("Count was %s, but must be at least 1.", count));
+		}
+		if (length < needed) {
+			throw new IllegalArgumentException(
+			    String.format("Array with length %s is too small for %s samples.", length, count));
+		}
+	}
+
+	private static double step(double from, double to, int count) {
+		return (count > 1) ? (to - from) / (count - 1) : 0;
+	}
+
+	/**
+	 * Samples the curve at count equidistant values of t from from to to (both
+	 * included) and writes the coordinates into the given arrays.
+	 * <p>
+	 * No objects are created, so the arrays can be reused for every call. The
+	 * samples are calculated with forward differencing, so each point costs only
+	 * a few additions.
+	 * 
+	 * @param from  The first t, between 0 and 1.
+	 * @param to    The last t, between 0 and 1.
+	 * @param count The number of samples, at least 1.
+	 * @param xs    Receives the x values. Must have at least count elements.
+	 * @param ys    Receives the y values. Must have at least count elements.
+	 */
+	@Override
+	public void sample(double from, double to, int count, double[] xs, double[] ys) {
+		checkSampleArguments(from, to, count, Math.min(xs.length, ys.length), count);
+		double step = step(from, to, count);
+		xPolynomial.sample(from, step, count, xs, 0, 1);
+		yPolynomial.sample(from, step, count, ys, 0, 1);
+	}
+
+	/**
+	 * Samples the curve at count equidistant values of t from from to to (both
+	 * included) and writes the coordinates interleaved (x0, y0, x1, y1, ...) into
+	 * the given array.
+	 * <p>
+	 * No objects are created, so the array can be reused for every call.
+	 * 
+	 * @param from  The first t, between 0 and 1.
+	 * @param to    The last t, between 0 and 1.
+	 * @param count The number of samples, at least 1.
+	 * @param xy    Receives the coordinates. Must have at least 2 * count
+	 *              elements.
+	 */
+	public void sample(double from, double to, int count, double[] xy) {
+		checkSampleArguments(from, to, count, xy.length, 2 * count);
+		double step = step(from, to, count);
+		xPolynomial.sample(from, step, count, xy, 0, 2);
+		yPolynomial.sample(from, step, count, xy, 1, 2);
+	}
+
+	/**
+	 * The exact bounding box of the curve (not of its control points).
+	 * <p>
+	 * The extrema are found analytically as roots of the derivative, no sampling
+	 * is needed. The box is calculated with the first call and reused
+	 * afterwards.
+	 * 
+	 * @return The smallest axis parallel box containing the curve.
+	 */
+	public BoundingBox bounds() {
+		BoundingBox result = bounds;
+		if (result == null) {
+			double minX = Math.min(xAt(0), xAt(1));
+			double maxX = Math.max(xAt(0), xAt(1));
+			for (double t : xDerivative.roots()) {
+				minX = Math.min(minX, xAt(t));
+				maxX = Math.max(maxX, xAt(t));
+			}
+			double minY = Math.min(yAt(0), yAt(1));
+			double maxY = Math.max(yAt(0), yAt(1));
+			for (double t : yDerivative.roots()) {
+				minY = Math.min(minY, yAt(t));
+				maxY = Math.max(maxY, yAt(t));
+			}
+			// Calculating it twice in a race does no harm, it's immutable.
+			result = BoundingBox.of(minX, minY, maxX, maxY);
+			bounds = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Between two roots of the derivative, x is monotone. So x never decreases,
+	 * if it doesn't decrease from one root to the next, starting at t = 0 and
+	 * ending at t = 1. Tiny decreases by rounding, e.g. at a saddle point, are
+	 * ignored.
+	 * 
+	 * @return true, if x never decreases from t = 0 to t = 1.
+	 */
+	boolean isIncreasingInX() {
+		double last = xAt(0);
+		for (double t : xDerivative.roots()) {
+			double x = xAt(t);
+			if (x < last - MONOTONY_TOLERANCE * Math.max(1, Math.abs(last))) {
+				return false;
+			}
+			last = x;
+		}
+		return xAt(1) >= last - MONOTONY_TOLERANCE * Math.max(1, Math.abs(last));
+	}
+
+	/**
+	 * Splits the curve at t with de Casteljau's algorithm into two curves of the
+	 * same degree.
+	 * 
+	 * @param t The t parameter to split at, between 0 and 1.
+	 * @return Two curves: The first one covers the part from 0 to t, the second
+	 *         one the part from t to 1 of this curve.
+	 */
+	public Bezier[] split(double t) {
+		checkT(t);
+		int count = controlPoints.size();
+		double[] leftX = new double[count];
+		double[] leftY = new double[count];
+		double[] rightX = controlPoints.xValues().clone();
+		double[] rightY = controlPoints.yValues().clone();
+		BernsteinPolynomial.subdivide(rightX, 0, count, t, leftX, 0);
+		BernsteinPolynomial.subdivide(rightY, 0, count, t, leftY, 0);
+		return new Bezier[] { of(PointBuffer.wrap(leftX, leftY)), of(PointBuffer.wrap(rightX, rightY)) };
+	}
+
+	/**
+	 * Gets the part of the curve between t0 and t1 as a curve of its own with the
+	 * same degree. The part starts with t = 0 at t0 of this curve and ends with t
+	 * = 1 at t1.
+	 * 
+	 * @param t0 Start of the part, between 0 and 1.
+	 * @param t1 End of the part, between t0 and 1.
+	 * @return The part of the curve.
+	 */
+	public Bezier subCurve(double t0, double t1) {
+		checkT(t0);
+		checkT(t1);
+		if (t0 > t1) {
+			throw new IllegalArgumentException(String.format("t0 (%s) must not be greater than t1 (%s).", t0, t1));
+		}
+		int count = controlPoints.size();
+		double[] xs = new double[count];
+		double[] ys = new double[count];
+		double[] work = controlPoints.xValues().clone();
+		BernsteinPolynomial.subdivide(work, 0, count, t1, xs, 0);
+		work = controlPoints.yValues().clone();
+		BernsteinPolynomial.subdivide(work, 0, count, t1, ys, 0);
+		// xs and ys now hold the part [0, t1], cut off the part [0, t0] of it.
+		double u = (t1 > 0) ? t0 / t1 : 0;
+		BernsteinPolynomial.subdivide(xs, 0, count, u, work, 0);
+		BernsteinPolynomial.subdivide(ys, 0, count, u, work, 0);
+		return of(PointBuffer.wrap(xs, ys));
+	}
+
+	/**
+	 * Raises the degree of the curve by one without changing its shape.
+	 * 
+	 * @return The same curve with one control point more.
+	 */
+	public Bezier elevate() {
+		int n = degree();
+		double[] xs = controlPoints.xValues();
+		double[] ys = controlPoints.yValues();
+		double[] elevatedX = new double[n + 2];
+		double[] elevatedY = new double[n + 2];
+		elevatedX[0] = xs[0];
+		elevatedY[0] = ys[0];
+		for (int k = 1; k <= n; k++) {
+			double a = (double) k / (n + 1);
+			elevatedX[k] = a * xs[k - 1] + (1 - a) * xs[k];
+			elevatedY[k] = a * ys[k - 1] + (1 - a) * ys[k];
+		}
+		elevatedX[n + 1] = xs[n];
+		elevatedY[n + 1] = ys[n];
+		return of(PointBuffer.wrap(elevatedX, elevatedY));
+	}
+
+	/**
+	 * Approximates the curve by a curve with one degree less. Start and end
+	 * point are kept.
+	 * <p>
+	 * The control points are calculated by inverting the degree elevation from
+	 * the start and from the end and blending both results linearly. For curves,
+	 * which have been created by {@link #elevate()}, the result is exact.
+	 * 
+	 * @return The approximation with one control point less.
+	 * @throws IllegalStateException If the curve has only one control point.
+	 */
+	public Bezier reduce() {
+		int n = degree();
+		if (n == 0) {
+			throw new IllegalStateException("A curve with one control point can't be reduced.");
+		}
+		return of(PointBuffer.wrap(reduce(controlPoints.xValues()), reduce(controlPoints.yValues())));
+	}
+
+	private static double[] reduce(double[] values) {
+		int n = values.length - 1;
+		int m = n - 1;
+		double[] forward = new double[n];
+		double[] backward = new double[n];
+		forward[0] = values[0];
+		for (int k = 1; k <= m; k++) {
+			forward[k] = (n * values[k] - k * forward[k - 1]) / (n - k);
+		}
+		backward[m] = values[n];
+		for (int k = m; k >= 1; k--) {
+			backward[k - 1] = (n * values[k] - (n - k) * backward[k]) / k;
+		}
+		double[] reduced = new double[n];
+		for (int k = 0; k <= m; k++) {
+			double blend = (m > 0) ? (double) k / m : 0.5;
+			reduced[k] = (1 - blend) * forward[k] + blend * backward[k];
+		}
+		return reduced;
+	}
+
+	/**
+	 * Samples of the curve to seed the projection with. Built with the first call
+	 * and reused afterwards.
+	 */
+	private PointBuffer projectionSeeds() {
+		PointBuffer seeds = projectionSeeds;
+		if (seeds == null) {
+			int count = PROJECTION_SEEDS_PER_POINT * (degree() + 1) + 1;
+			double[] xs = new double[count];
+			double[] ys = new double[count];
+			sample(0, 1, count, xs, ys);
+			seeds = PointBuffer.wrap(xs, ys);
+			projectionSeeds = seeds;
+		}
+		return seeds;
+	}
+
+	/**
+	 * Projects the point (px, py) onto the curve, i.e. finds the point on the
+	 * curve, which is closest to it.
+	 * <p>
+	 * Starts with the closest of some cached equidistant samples and refines t
+	 * with Newton's method on the derivative of the squared distance, (B(t) - P)
+	 * * B'(t). Nothing is allocated, except the sample table with the first call.
+	 * 
+	 * @param px            x of the point.
+	 * @param py            y of the point.
+	 * @param accuracy      The iteration stops, when the point on the curve moves
+	 *                      less than this distance in one step.
+	 * @param maxIterations Maximal number of Newton steps.
+	 * @param out           Receives t of the closest point at index 0 and its
+	 *                      distance to (px, py) at index 1.
+	 */
+	public void project(double px, double py, double accuracy, int maxIterations, double[] out) {
+		if (out.length < 2) {
+			throw new IllegalArgumentException(
+			    String.format("Array with length %s is too small for the projection, needs 2.", out.length));
+		}
+		PointBuffer seeds = projectionSeeds();
+		int last = seeds.size() - 1;
+		int bestIndex = 0;
+		double bestDistance = Double.MAX_VALUE;
+		for (int i = 0; i <= last; i++) {
+			double dx = seeds.x(i) - px;
+			double dy = seeds.y(i) - py;
+			double distance = dx * dx + dy * dy;
+			if (distance < bestDistance) {
+				bestDistance = distance;
+				bestIndex = i;
+			}
+		}
+		double bestT = (double) bestIndex / last;
+		double t = bestT;
+		for (int i = 0; i < maxIterations; i++) {
+			double dx = xAt(t) - px;
+			double dy = yAt(t) - py;
+			double d1x = dxAt(t);
+			double d1y = dyAt(t);
+			double speedSquare = d1x * d1x + d1y * d1y;
+			double denominator = speedSquare + dx * ddxAt(t) + dy * ddyAt(t);
+			if (denominator == 0) {
+				break;
+			}
+			double next = Math.min(1, Math.max(0, t - (dx * d1x + dy * d1y) / denominator));
+			double step = Math.abs(next - t);
+			t = next;
+			if (step * Math.sqrt(speedSquare) <= accuracy) {
+				break;
+			}
+		}
+		// Newton may have walked away from the seed, keep the better one.
+		double dx = xAt(t) - px;
+		double dy = yAt(t) - py;
+		double distance = dx * dx + dy * dy;
+		if (distance > bestDistance) {
+			t = bestT;
+			distance = bestDistance;
+		}
+		out[0] = t;
+		out[1] = Math.sqrt(distance);
+	}
+
+	/**
+	 * Projects the point (px, py) onto the curve with an accuracy of
+	 * {@link #PROJECTION_ACCURACY} and at most {@link #DEF_MAX_ITERATIONS}
+	 * Newton steps.
+	 * 
+	 * @param px  x of the point.
+	 * @param py  y of the point.
+	 * @param out Receives t of the closest point at index 0 and its distance to
+	 *            (px, py) at index 1.
+	 * @see #project(double, double, double, int, double[])
+	 */
+	public void project(double px, double py, double[] out) {
+		project(px, py, PROJECTION_ACCURACY, DEF_MAX_ITERATIONS, out);
+	}
+
+	/**
+	 * Projects the point (px, py) onto the curve with the accuracy and maximal
+	 * iterations of the given configuration.
+	 * 
+	 * @param px     x of the point.
+	 * @param py     y of the point.
+	 * @param config The accuracy settings.
+	 * @param out    Receives t of the closest point at index 0 and its distance
+	 *               to (px, py) at index 1.
+	 * @see #project(double, double, double, int, double[])
+	 */
+	public void project(double px, double py, BezierSolverConfig config, double[] out) {
+		project(px, py, config.accuracy(), config.maxIterations(), out);
+	}
+
+	private static void checkVector(double[] out) {
+		if (out.length < 2) {
+			throw new IllegalArgumentException(
+			    String.format("Array with length %s is too small for a vector, needs 2.", out.length));
 		}
-		double x = 0;
-		double y = 0;
-		for (int i = 0; i < controlPoints.size(); i++) {
-			Point p = controlPoints.get(i);
-			x += p.x() * bernstein(controlPoints.size() - 1, i, t);
-			y += p.y() * bernstein(controlPoints.size() - 1, i, t);
+	}
+
+	/**
+	 * The hodograph is the curve of the first derivative. It is a Bezier curve
+	 * with one degree less, its control points are degree * (P[k+1] - P[k]).
+	 * <p>
+	 * The hodograph is calculated with the first call and reused afterwards.
+	 * 
+	 * @return The hodograph of this curve.
+	 */
+	public Bezier hodograph() {
+		Bezier result = hodograph;
+		if (result == null) {
+			int count = xDerivative.degree() + 1;
+			double[] xs = new double[count];
+			double[] ys = new double[count];
+			for (int k = 0; k < count; k++) {
+				xs[k] = xDerivative.coefficient(k);
+				ys[k] = yDerivative.coefficient(k);
+			}
+			// Calculating it twice in a race does no harm, it's immutable.
+			result = of(PointBuffer.wrap(xs, ys));
+			hodograph = result;
 		}
-		return Point.of(x, y);
+		return result;
+	}
+
+	/**
+	 * Calculates the first derivative B'(t) of the curve.
+	 * 
+	 * @param t   The t parameter, between 0 and 1.
+	 * @param out Receives the derivative of x in out[0] and of y in out[1].
+	 */
+	public void derivative(double t, double[] out) {
+		checkT(t);
+		checkVector(out);
+		out[0] = dxAt(t);
+		out[1] = dyAt(t);
+	}
+
+	/**
+	 * Calculates the second derivative B''(t) of the curve.
+	 * 
+	 * @param t   The t parameter, between 0 and 1.
+	 * @param out Receives the second derivative of x in out[0] and of y in
+	 *            out[1].
+	 */
+	public void secondDerivative(double t, double[] out) {
+		checkT(t);
+		checkVector(out);
+		out[0] = ddxAt(t);
+		out[1] = ddyAt(t);
+	}
+
+	/**
+	 * Calculates the tangent of the curve at t as unit vector in the direction of
+	 * increasing t.
+	 * 
+	 * @param t   The t parameter, between 0 and 1.
+	 * @param out Receives x of the tangent in out[0] and y in out[1]. Both are 0,
+	 *            if the derivative is 0 at t.
+	 */
+	public void tangent(double t, double[] out) {
+		checkT(t);
+		checkVector(out);
+		double dx = dxAt(t);
+		double dy = dyAt(t);
+		double length = Math.sqrt(dx * dx + dy * dy);
+		out[0] = (length > 0) ? dx / length : 0;
+		out[1] = (length > 0) ? dy / length : 0;
+	}
+
+	/**
+	 * Calculates the normal of the curve at t as unit vector. The normal is the
+	 * tangent, rotated by 90 degrees counterclockwise.
+	 * 
+	 * @param t   The t parameter, between 0 and 1.
+	 * @param out Receives x of the normal in out[0] and y in out[1]. Both are 0,
+	 *            if the derivative is 0 at t.
+	 */
+	public void normal(double t, double[] out) {
+		tangent(t, out);
+		double x = out[0];
+		out[0] = -out[1];
+		out[1] = x;
+	}
+
+	/**
+	 * Calculates the signed curvature of the curve at t. The curvature is
+	 * positive, where the curve turns counterclockwise. Its absolute value is the
+	 * reciprocal of the radius of the osculating circle.
+	 * 
+	 * @param t The t parameter, between 0 and 1.
+	 * @return The curvature or {@link Double#NaN}, if the derivative is 0 at t.
+	 */
+	public double curvature(double t) {
+		checkT(t);
+		double dx = dxAt(t);
+		double dy = dyAt(t);
+		double speedSquare = dx * dx + dy * dy;
+		if (speedSquare == 0) {
+			return Double.NaN;
+		}
+		return (dx * ddyAt(t) - dy * ddxAt(t)) / (speedSquare * Math.sqrt(speedSquare));
 	}
 
 	/**
@@ -120,8 +725,9 @@ public class Bezier {
 		return t;
 	}
 
-	private double findMin(double x, double from, double dt, double accuracy) throws MathException {
-		if (Math.abs(dt) < THRESHOLD) {
+	private double findMin(double x, double from, double dt, double accuracy, double threshold)
+	    throws MathException {
+		if (Math.abs(dt) < threshold) {
 			return from;
 		}
 		double d1 = 0;
@@ -129,12 +735,12 @@ public class Bezier {
 		double lastT = from;
 		double ti = from;
 		while ((ti >= 0) && (ti <= 1)) {
-			d1 = Math.abs(bezier(ti).x() - x);
+			d1 = Math.abs(xAt(ti) - x);
 			if (d1 < accuracy) {
 				return ti;
 			}
 			if (!Double.isNaN(d2) && (d1 > d2)) {
-				return findMin(x, lastT, dt *= -0.1, accuracy);
+				return findMin(x, lastT, dt *= -0.1, accuracy, threshold);
 			}
 			d2 = d1;
 			lastT = ti;
@@ -162,15 +768,25 @@ public class Bezier {
 	 *                 0.001). Calculation will become more accurate, but less
 	 *                 efficient.
 	 * @param accuracy Tolerance for the difference of the result to the expected
-	 *                 value. Default: 1e-6. Increasing the tolerance reduces the
+	 *                 value. Default: 1e-5. Increasing the tolerance reduces the
 	 *                 accuracy, but increases the efficiency.
 	 * @return First found t for x.
 	 * @throws MathException If no t was found for x.
 	 */
 	public double tFromX2(double x, double dt, double accuracy) throws MathException {
+		BezierSolverConfig config = BezierSolverConfig.BALANCED;
+		return tFromX2(x, dt, accuracy, config.threshold(), Math.max(config.accuracy(), MIN_START_DT));
+	}
+
+	/**
+	 * Searches t for x, starting with dt and decreasing dt down to minDT, if
+	 * nothing is found.
+	 */
+	private double tFromX2(double x, double dt, double accuracy, double threshold, double minDT)
+	    throws MathException {
 		// First check, whether the border values match.
 		for (double t = 0; t <= 1; t++) {
-			if (Math.abs(bezier(t).x() - x) <= THRESHOLD) {
+			if (Math.abs(xAt(t) - x) <= threshold) {
 				return t;
 			}
 		}
@@ -179,15 +795,15 @@ public class Bezier {
 		String msg = String.format("Could not find a value for x=%s with dt=%s and accuracy %s with points %s", x, dt,
 		    accuracy, controlPoints);
 		double startDT = dt;
-		while (startDT > DEF_ACCURACY) {
+		while (startDT > minDT) {
 			try {
-				return findMin(x, 0, startDT, accuracy);
+				return findMin(x, 0, startDT, accuracy, threshold);
 			} catch (NotFoundInBezierCurveException ex) {
-				if (startDT > DEF_ACCURACY) {
+				if (startDT > minDT) {
 					// Try again with smaller startDT if the calculation fails.
 					startDT *= 0.1d;
 				} else {
-					// DEF_ACCURACY reached, I'm giving up.
+					// minDT reached, I'm giving up.
 					throw new NotFoundInBezierCurveException(msg, ex);
 				}
 			}
@@ -217,7 +833,7 @@ public class Bezier {
 	 * @throws MathException If no t was found for x.
 	 */
 	public double tFromX2(double x, double dt) throws MathException {
-		return tFromX2(x, dt, DEF_ACCURACY);
+		return tFromX2(x, dt, BezierSolverConfig.BALANCED.accuracy());
 	}
 
 	/**
@@ -238,10 +854,269 @@ public class Bezier {
 	 * @throws MathException If no t was found for x.
 	 */
 	public double tFromX2(double x) throws MathException {
-		return tFromX2(x, DEF_DT, DEF_ACCURACY);
+		return tFromX2(x, BezierSolverConfig.BALANCED);
+	}
+
+	/**
+	 * Experimental
+	 * <p>
+	 * Gets the first t for a given x, like {@link #tFromX2(double)}, but with the
+	 * start step, accuracy and threshold of the given configuration instead of
+	 * {@link BezierSolverConfig#BALANCED}. The start step is decreased down to the accuracy, but
+	 * not below 1e-5.
+	 * 
+	 * @param x      x-value for which the t-value is wanted.
+	 * @param config The accuracy settings.
+	 * @return First found t for x.
+	 * @throws MathException If no t was found for x.
+	 */
+	public double tFromX2(double x, BezierSolverConfig config) throws MathException {
+		return tFromX2(x, config.startDT(), config.accuracy(), config.threshold(),
+		    Math.max(config.accuracy(), MIN_START_DT));
 	}
 
+	/**
+	 * Gets t for a given x with a combination of Newton's method and bisection.
+	 * <p>
+	 * The search keeps an interval [t0, t1], which contains the solution. Each
+	 * step tries a Newton step with the derivative of x(t). If the Newton step
+	 * leaves the interval, bisection is used instead. Therefore the method
+	 * converges quickly and is guaranteed to find the solution for curves, which
+	 * are monotone in x.
+	 * <p>
+	 * If the curve is not monotone in x and there is more than one t for x, one of
+	 * them is delivered.
+	 * 
+	 * @param x             x-value for which the t-value is wanted.
+	 * @param accuracy      Tolerance for the difference of x(t) to the expected
+	 *                      value.
+	 * @param maxIterations Maximal number of iterations.
+	 * @return t for x.
+	 * @throws MathException If x is outside the range of the curve or no t was
+	 *                       found within the given number of iterations.
+	 */
+	public double solveTFromX(double x, double accuracy, int maxIterations) throws MathException {
+		double lowerT = 0;
+		double upperT = 1;
+		double lowerDiff = xAt(lowerT) - x;
+		double upperDiff = xAt(upperT) - x;
+		if (Math.abs(lowerDiff) <= accuracy) {
+			return lowerT;
+		}
+		if (Math.abs(upperDiff) <= accuracy) {
+			return upperT;
+		}
+		if ((lowerDiff < 0) == (upperDiff < 0)) {
+			throw new NotFoundInBezierCurveException(
+			    String.format("Value %s is outside of the curve with points %s.", x, controlPoints));
+		}
+		// Start with linear interpolation between the borders.
+		double t = lowerDiff / (lowerDiff - upperDiff);
+		for (int i = 0; i < maxIterations; i++) {
+			double diff = xAt(t) - x;
+			if (Math.abs(diff) <= accuracy) {
+				return t;
+			}
+			if ((diff < 0) == (lowerDiff < 0)) {
+				lowerT = t;
+				lowerDiff = diff;
+			} else {
+				upperT = t;
+			}
+			double newton = t - diff / dxAt(t);
+			// Also catches NaN and infinity from a derivative of 0.
+			if (newton > lowerT && newton < upperT) {
+				t = newton;
+			} else {
+				t = (lowerT + upperT) / 2;
+			}
+		}
+		throw new NotFoundInBezierCurveException(String.format(
+		    "Could not find a value for x=%s with accuracy %s in %s iterations with points %s", x, accuracy,
+		    maxIterations, controlPoints));
+	}
+
+	/**
+	 * Gets t for a given x with a combination of Newton's method and bisection,
+	 * using the given accuracy and {@link #DEF_MAX_ITERATIONS}.
+	 * 
+	 * @param x        x-value for which the t-value is wanted.
+	 * @param accuracy Tolerance for the difference of x(t) to the expected value.
+	 * @return t for x.
+	 * @throws MathException If x is outside the range of the curve.
+	 * @see #solveTFromX(double, double, int)
+	 */
+	public double solveTFromX(double x, double accuracy) throws MathException {
+		return solveTFromX(x, accuracy, DEF_MAX_ITERATIONS);
+	}
+
+	/**
+	 * Gets t for a given x with a combination of Newton's method and bisection,
+	 * using {@link BezierSolverConfig#BALANCED}.
+	 * 
+	 * @param x x-value for which the t-value is wanted.
+	 * @return t for x.
+	 * @throws MathException If x is outside the range of the curve.
+	 * @see #solveTFromX(double, double, int)
+	 */
+	public double solveTFromX(double x) throws MathException {
+		return solveTFromX(x, BezierSolverConfig.BALANCED);
+	}
+
+	/**
+	 * Gets t for a given x with a combination of Newton's method and bisection,
+	 * using the accuracy and maximal iterations of the given configuration.
+	 * 
+	 * @param x      x-value for which the t-value is wanted.
+	 * @param config The accuracy settings.
+	 * @return t for x.
+	 * @throws MathException If x is outside the range of the curve or no t was
+	 *                       found within the maximal number of iterations.
+	 * @see #solveTFromX(double, double, int)
+	 */
+	public double solveTFromX(double x, BezierSolverConfig config) throws MathException {
+		return solveTFromX(x, config.accuracy(), config.maxIterations());
+	}
+
+	/**
+	 * Creates a new lookup table with the given number of samples for fast y for
+	 * x queries.
+	 * 
+	 * @param size Number of samples in the table, between
+	 *             {@link BezierLookupTable#MIN_SIZE} and
+	 *             {@link BezierLookupTable#MAX_SIZE}.
+	 * @return The lookup table for this curve.
+	 * @throws IllegalArgumentException If the curve is not monotone in x.
+	 */
+	public BezierLookupTable lookupTable(int size) {
+		return BezierLookupTable.of(this, size);
+	}
+
+	/**
+	 * Gets the lookup table with {@link BezierLookupTable#DEF_SIZE} samples. The
+	 * table is built with the first call and reused afterwards.
+	 * 
+	 * @return The lookup table for this curve.
+	 * @throws IllegalArgumentException If the curve is not monotone in x.
+	 */
+	public BezierLookupTable lookupTable() {
+		BezierLookupTable table = lookupTable;
+		if (table == null) {
+			// Building the table twice in a race does no harm, it's immutable.
+			table = BezierLookupTable.of(this, BezierLookupTable.DEF_SIZE);
+			lookupTable = table;
+		}
+		return table;
+	}
+
+	private ArcLengthTable arcLengthTable() {
+		ArcLengthTable table = arcLengthTable;
+		if (table == null) {
+			// Building the table twice in a race does no harm, it's immutable.
+			table = new ArcLengthTable(this);
+			arcLengthTable = table;
+		}
+		return table;
+	}
+
+	/**
+	 * The length of the whole curve.
+	 * <p>
+	 * The lengths are calculated with Gauss-Legendre quadrature and stored in a
+	 * table with the first call of one of the arc length methods. All further
+	 * calls reuse the table.
+	 * 
+	 * @return The length of the curve.
+	 */
+	public double length() {
+		return arcLengthTable().length();
+	}
+
+	/**
+	 * The length of the curve from the start to t.
+	 * 
+	 * @param t The t parameter, between 0 and 1.
+	 * @return The length of the curve from 0 to t.
+	 */
+	public double length(double t) {
+		checkT(t);
+		return arcLengthTable().length(t);
+	}
+
+	/**
+	 * Gets t, where the curve reaches the given length, measured from the start.
+	 * Moving the length in equal steps moves along the curve with constant
+	 * speed.
+	 * <p>
+	 * The part of the curve is found by binary search in the cached length table,
+	 * t within the part by Newton's method.
+	 * 
+	 * @param length The length between 0 and {@link #length()}.
+	 * @return t for the given length.
+	 */
+	public double tAtLength(double length) {
+		ArcLengthTable table = arcLengthTable();
+		if (length < 0 || length > table.length()) {
+			throw new IllegalArgumentException(
+			    String.format("Length was %s, but must be between 0 and %s.", length, table.length()));
+		}
+		return table.t(length);
+	}
+
+	/**
+	 * Samples the curve at count points with equal distances along the curve
+	 * (from start to end, both included).
+	 * 
+	 * @param count The number of samples, at least 1.
+	 * @param xs    Receives the x values. Must have at least count elements.
+	 * @param ys    Receives the y values. Must have at least count elements.
+	 */
+	public void sampleByLength(int count, double[] xs, double[] ys) {
+		checkSampleArguments(0, 1, count, Math.min(xs.length, ys.length), count);
+		ArcLengthTable table = arcLengthTable();
+		double step = step(0, table.length(), count);
+		for (int i = 0; i < count; i++) {
+			double t = table.t(Math.min(i * step, table.length()));
+			xs[i] = xAt(t);
+			ys[i] = yAt(t);
+		}
+	}
+
+	/**
+	 * Creates a Bezier curve from the given control points.
+	 * <p>
+	 * For 3 or 4 control points the specialized {@link QuadraticBezier} or
+	 * {@link CubicBezier} with closed form calculations is returned.
+	 * <p>
+	 * The coordinates are copied, later changes of the points don't affect the
+	 * curve.
+	 * 
+	 * @param controlPoints The control points of the curve.
+	 * @return The Bezier curve.
+	 * @throws IllegalArgumentException If there is no control point.
+	 */
 	public static Bezier of(List<Point> controlPoints) {
-		return new Bezier(controlPoints);
+		return of(PointBuffer.of(controlPoints));
+	}
+
+	/**
+	 * Creates a Bezier curve from the given control points.
+	 * <p>
+	 * For 3 or 4 control points the specialized {@link QuadraticBezier} or
+	 * {@link CubicBezier} with closed form calculations is returned.
+	 * 
+	 * @param controlPoints The control points of the curve.
+	 * @return The Bezier curve.
+	 * @throws IllegalArgumentException If there is no control point.
+	 */
+	public static Bezier of(PointBuffer controlPoints) {
+		switch (controlPoints.size()) {
+		case 3:
+			return new QuadraticBezier(controlPoints);
+		case 4:
+			return new CubicBezier(controlPoints);
+		default:
+			return new Bezier(controlPoints);
+		}
 	}
 }
@@ -0,0 +1,211 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Evaluates many independent Bezier curves at once, one parameter per curve.
+ * <p>
+ * The batch is split into chunks of at most the sequential threshold, which
+ * are evaluated in parallel in the common {@link ForkJoinPool}. Batches up to
+ * the threshold are evaluated in the calling thread. The results are written
+ * into primitive arrays, which can be reused for every call.
+ * <p>
+ * As Bezier curves are immutable, a batch can be used by several threads at
+ * the same time.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierBatch {
+
+	/**
+	 * Default for the number of curves, which are evaluated sequentially in one
+	 * task.
+	 */
+	public static final int DEF_THRESHOLD = 1024;
+
+	/**
+	 * Evaluates one curve of the batch.
+	 */
+	private interface Evaluation {
+		void evaluate(int index) throws MathException;
+	}
+
+	@SuppressWarnings("serial")
+	private class EvaluationTask extends RecursiveAction {
+
+		private final Evaluation evaluation;
+		private final int from;
+		private final int to;
+		private final AtomicReference<MathException> failure;
+
+		EvaluationTask(Evaluation evaluation, int from, int to, AtomicReference<MathException> failure) {
+			this.evaluation = evaluation;
+			this.from = from;
+			this.to = to;
+			this.failure = failure;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				evaluateRange(evaluation, from, to, failure);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new EvaluationTask(evaluation, from, middle, failure),
+				    new EvaluationTask(evaluation, middle, to, failure));
+			}
+		}
+	}
+
+	private final Bezier[] curves;
+	private final int threshold;
+
+	private BezierBatch(Bezier[] curves, int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException(String.format("Threshold was %s, but must be at least 1.", threshold));
+		}
+		this.curves = curves.clone();
+		this.threshold = threshold;
+	}
+
+	/**
+	 * @return The number of curves in the batch.
+	 */
+	public int size() {
+		return curves.length;
+	}
+
+	private void checkLength(double[] array) {
+		if (array.length < curves.length) {
+			throw new IllegalArgumentException(
+			    String.format("Array with length %s is too small for %s curves.", array.length, curves.length));
+		}
+	}
+
+	private static void evaluateRange(Evaluation evaluation, int from, int to,
+	    AtomicReference<MathException> failure) {
+		for (int i = from; i < to; i++) {
+			try {
+				evaluation.evaluate(i);
+			} catch (MathException ex) {
+				failure.compareAndSet(null, ex);
+			}
+		}
+	}
+
+	private void run(Evaluation evaluation, boolean parallel) throws MathException {
+		AtomicReference<MathException> failure = new AtomicReference<>();
+		if (parallel && curves.length > threshold) {
+			ForkJoinPool.commonPool().invoke(new EvaluationTask(evaluation, 0, curves.length, failure));
+		} else {
+			evaluateRange(evaluation, 0, curves.length, failure);
+		}
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+	}
+
+	private void evaluate(double[] ts, double[] xs, double[] ys, boolean parallel) {
+		checkLength(ts);
+		checkLength(xs);
+		checkLength(ys);
+		try {
+			run((i) -> {
+				xs[i] = curves[i].x(ts[i]);
+				ys[i] = curves[i].y(ts[i]);
+			}, parallel);
+		} catch (MathException ex) {
+			// Can't happen, evaluation by t doesn't throw MathException.
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Evaluates each curve at its t in parallel: xs[i] and ys[i] receive the
+	 * point of curve i at ts[i].
+	 * 
+	 * @param ts The parameters, one per curve, each between 0 and 1.
+	 * @param xs Receives the x values, one per curve.
+	 * @param ys Receives the y values, one per curve.
+	 */
+	public void evaluate(double[] ts, double[] xs, double[] ys) {
+		evaluate(ts, xs, ys, true);
+	}
+
+	/**
+	 * Same as {@link #evaluate(double[], double[], double[])}, but always in the
+	 * calling thread.
+	 * 
+	 * @param ts The parameters, one per curve, each between 0 and 1.
+	 * @param xs Receives the x values, one per curve.
+	 * @param ys Receives the y values, one per curve.
+	 */
+	public void evaluateSequential(double[] ts, double[] xs, double[] ys) {
+		evaluate(ts, xs, ys, false);
+	}
+
+	private void yFromX(double[] xs, double[] ys, boolean parallel) throws MathException {
+		checkLength(xs);
+		checkLength(ys);
+		run((i) -> {
+			Bezier curve = curves[i];
+			ys[i] = curve.yAt(curve.solveTFromX(xs[i], BezierSolverConfig.BALANCED));
+		}, parallel);
+	}
+
+	/**
+	 * Gets y for x of each curve in parallel: ys[i] receives y of curve i at
+	 * xs[i]. t is found with
+	 * {@link Bezier#solveTFromX(double, BezierSolverConfig)} with
+	 * {@link BezierSolverConfig#BALANCED}.
+	 * 
+	 * @param xs The x values, one per curve.
+	 * @param ys Receives the y values, one per curve.
+	 * @throws MathException If x is outside of its curve. The other curves are
+	 *                       evaluated anyway.
+	 */
+	public void yFromX(double[] xs, double[] ys) throws MathException {
+		yFromX(xs, ys, true);
+	}
+
+	/**
+	 * Same as {@link #yFromX(double[], double[])}, but always in the calling
+	 * thread.
+	 * 
+	 * @param xs The x values, one per curve.
+	 * @param ys Receives the y values, one per curve.
+	 * @throws MathException If x is outside of its curve.
+	 */
+	public void yFromXSequential(double[] xs, double[] ys) throws MathException {
+		yFromX(xs, ys, false);
+	}
+
+	/**
+	 * Creates a batch with the given curves and {@link #DEF_THRESHOLD}.
+	 * 
+	 * @param curves The curves to evaluate.
+	 * @return The batch.
+	 */
+	public static BezierBatch of(Bezier[] curves) {
+		return new BezierBatch(curves, DEF_THRESHOLD);
+	}
+
+	/**
+	 * Creates a batch with the given curves.
+	 * 
+	 * @param curves    The curves to evaluate.
+	 * @param threshold Number of curves, up to which a task evaluates them
+	 *                  sequentially instead of splitting.
+	 * @return The batch.
+	 */
+	public static BezierBatch of(Bezier[] curves, int threshold) {
+		return new BezierBatch(curves, threshold);
+	}
+
+}
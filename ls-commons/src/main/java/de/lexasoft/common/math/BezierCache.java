@@ -0,0 +1,328 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the results of x to t and x to y queries of one Bezier curve, for
+ * curves, which are asked for the same x values again and again (f.ex. easing
+ * curves, replayed with a fixed frame rate).
+ * <p>
+ * x is quantized to multiples of the quantum: All x within the same quantum
+ * share one result, which is calculated for the quantized x. The entries are
+ * kept in a hash table of its own with the quantized x as primitive key, so a
+ * hit creates no objects. Reads take no lock. When the cache grows beyond its
+ * capacity, the least recently used quarter of the entries is evicted at once,
+ * so eviction costs little per query.
+ * <p>
+ * The recency is only approximate: A hit stamps the entry with the tick of the
+ * last miss, so reading threads don't contend for a shared counter.
+ * <p>
+ * The cache can be shared between threads.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierCache {
+
+	/**
+	 * Default for the quantum x is rounded to.
+	 */
+	public static final double DEF_QUANTUM = 1e-6;
+
+	/**
+	 * Default for the maximal number of entries.
+	 */
+	public static final int DEF_CAPACITY = 1024;
+
+	/**
+	 * Entry in the chain of a bucket. The chains are never changed, but replaced
+	 * by new ones, so they can be read without lock.
+	 */
+	private static final class Entry {
+		private final long key;
+		private final double t;
+		private final double y;
+		private final Entry next;
+		/**
+		 * Written without synchronization, a lost update only makes the entry look
+		 * older.
+		 */
+		private long lastAccess;
+
+		private Entry(long key, double t, double y, Entry next, long lastAccess) {
+			this.key = key;
+			this.t = t;
+			this.y = y;
+			this.next = next;
+			this.lastAccess = lastAccess;
+		}
+
+		private Entry withNext(Entry next) {
+			return new Entry(key, t, y, next, lastAccess);
+		}
+	}
+
+	private final Bezier bezier;
+	private final int capacity;
+	private final double quantum;
+	private final BezierSolverConfig config;
+	private final AtomicReferenceArray<Entry> buckets;
+	private final int mask;
+	/**
+	 * size and tick are only written under the write lock.
+	 */
+	private final Object writeLock = new Object();
+	private volatile int size;
+	private volatile long tick;
+	/**
+	 * Number of entries with the access of the limit, which are still to be
+	 * evicted. Only used under the write lock.
+	 */
+	private int evictAtLimit;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final double minX;
+	private final double maxX;
+
+	private BezierCache(Bezier bezier, int capacity, double quantum, BezierSolverConfig config) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(String.format("Capacity was %s, but must be at least 1.", capacity));
+		}
+		if (!(quantum > 0)) {
+			throw new IllegalArgumentException(String.format("Quantum was %s, but must be positive.", quantum));
+		}
+		this.bezier = bezier;
+		this.capacity = capacity;
+		this.quantum = quantum;
+		this.config = config;
+		// Between one and two buckets per entry.
+		int bucketCount = Integer.highestOneBit(Math.min(capacity, 1 << 29)) << 1;
+		this.buckets = new AtomicReferenceArray<>(bucketCount);
+		this.mask = bucketCount - 1;
+		PointBuffer controlPoints = bezier.controlPoints();
+		double startX = controlPoints.x(0);
+		double endX = controlPoints.x(controlPoints.size() - 1);
+		this.minX = Math.min(startX, endX);
+		this.maxX = Math.max(startX, endX);
+	}
+
+	/**
+	 * @return The curve, whose results are cached.
+	 */
+	public Bezier bezier() {
+		return bezier;
+	}
+
+	/**
+	 * @return The maximal number of entries.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The current number of entries.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The number of queries answered from the cache.
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return The number of queries, which had to be calculated.
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return The part of the queries answered from the cache, 0 if there was no
+	 *         query yet.
+	 */
+	public double hitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return (total == 0) ? 0 : (double) hitCount / total;
+	}
+
+	/**
+	 * Removes all entries and resets the counters.
+	 */
+	public void clear() {
+		synchronized (writeLock) {
+			for (int i = 0; i < buckets.length(); i++) {
+				buckets.set(i, null);
+			}
+			size = 0;
+		}
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * Gets the quantized x for the key. If x is within the range of the curve,
+	 * the quantized x is kept within it, too.
+	 */
+	private double quantize(long key, double x) {
+		double quantized = key * quantum;
+		if (x >= minX && x <= maxX) {
+			quantized = Math.min(maxX, Math.max(minX, quantized));
+		}
+		return quantized;
+	}
+
+	private int bucket(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private Entry find(long key) {
+		for (Entry entry = buckets.get(bucket(key)); entry != null; entry = entry.next) {
+			if (entry.key == key) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	private Entry entry(double x) throws MathException {
+		long key = Math.round(x / quantum);
+		Entry entry = find(key);
+		if (entry != null) {
+			hits.increment();
+			long now = tick;
+			// Only write, if needed, to keep the cache line of hot entries shared.
+			if (entry.lastAccess != now) {
+				entry.lastAccess = now;
+			}
+			return entry;
+		}
+		misses.increment();
+		double t = bezier.solveTFromX(quantize(key, x), config);
+		double y = bezier.yAt(t);
+		synchronized (writeLock) {
+			// Another thread may have calculated the same entry meanwhile.
+			entry = find(key);
+			if (entry == null) {
+				int bucket = bucket(key);
+				entry = new Entry(key, t, y, buckets.get(bucket), ++tick);
+				buckets.set(bucket, entry);
+				if (++size > capacity) {
+					evict();
+				}
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Removes the least recently used entries, until a quarter of the capacity
+	 * is free. Must be called under the write lock.
+	 */
+	private void evict() {
+		long[] accesses = new long[size];
+		int count = 0;
+		for (int i = 0; i < buckets.length(); i++) {
+			for (Entry entry = buckets.get(i); entry != null && count < accesses.length; entry = entry.next) {
+				accesses[count++] = entry.lastAccess;
+			}
+		}
+		Arrays.sort(accesses, 0, count);
+		int remove = count - (capacity - capacity / 4);
+		long limit = accesses[remove - 1];
+		// Many entries may share the access of the limit, only remove enough.
+		int below = remove - 1;
+		while (below > 0 && accesses[below - 1] == limit) {
+			below--;
+		}
+		evictAtLimit = remove - below;
+		for (int i = 0; i < buckets.length(); i++) {
+			Entry chain = buckets.get(i);
+			Entry kept = evict(chain, limit);
+			if (kept != chain) {
+				buckets.set(i, kept);
+			}
+		}
+	}
+
+	/**
+	 * @return The chain without the evicted entries. Entries in front of an
+	 *         evicted one are copied, the rest of the chain is shared.
+	 */
+	private Entry evict(Entry entry, long limit) {
+		if (entry == null) {
+			return null;
+		}
+		long access = entry.lastAccess;
+		boolean remove = access < limit || (access == limit && evictAtLimit > 0);
+		if (access == limit && remove) {
+			evictAtLimit--;
+		}
+		Entry next = evict(entry.next, limit);
+		if (remove) {
+			size--;
+			return next;
+		}
+		return (next == entry.next) ? entry : entry.withNext(next);
+	}
+
+	/**
+	 * Gets t for x from the cache or calculates it with
+	 * {@link Bezier#solveTFromX(double, BezierSolverConfig)} for the quantized
+	 * x.
+	 * 
+	 * @param x x-value for which the t-value is wanted.
+	 * @return t for the quantized x.
+	 * @throws MathException If x is outside the range of the curve.
+	 */
+	public double tFromX(double x) throws MathException {
+		return entry(x).t;
+	}
+
+	/**
+	 * Gets y for x from the cache or calculates it for the quantized x.
+	 * 
+	 * @param x x-value for which the y-value is wanted.
+	 * @return y for the quantized x.
+	 * @throws MathException If x is outside the range of the curve.
+	 */
+	public double yFromX(double x) throws MathException {
+		return entry(x).y;
+	}
+
+	/**
+	 * Creates a cache for the given curve.
+	 * 
+	 * @param bezier   The curve.
+	 * @param capacity Maximal number of entries.
+	 * @param quantum  x is rounded to multiples of the quantum.
+	 * @param config   The accuracy settings for calculating t.
+	 * @return The cache.
+	 */
+	public static BezierCache of(Bezier bezier, int capacity, double quantum, BezierSolverConfig config) {
+		return new BezierCache(bezier, capacity, quantum, config);
+	}
+
+	/**
+	 * Creates a cache for the given curve with {@link #DEF_CAPACITY},
+	 * {@link #DEF_QUANTUM} and {@link BezierSolverConfig#BALANCED}.
+	 * 
+	 * @param bezier The curve.
+	 * @return The cache.
+	 */
+	public static BezierCache of(Bezier bezier) {
+		return of(bezier, DEF_CAPACITY, DEF_QUANTUM, BezierSolverConfig.BALANCED);
+	}
+
+}
@@ -3,33 +3,48 @@
  */
 package de.lexasoft.common.math;
 
-import java.awt.Color;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
-import javax.imageio.ImageIO;
 
 /**
  * Draws a Bezier curve in any image.
  * <p>
  * Can use either a given image or creates a new one with the given width and
  * height.
+ * <p>
+ * The curve is either drawn segment by segment in the calling thread with
+ * {@link #plotCurve()} or tile by tile in parallel with
+ * {@link #plotCurveTiled()}. Both modes produce the same pixels. For images
+ * of type {@link BufferedImage#TYPE_INT_RGB} or
+ * {@link BufferedImage#TYPE_INT_ARGB}, {@link #plotCurveRaster(boolean)}
+ * writes the pixels directly, optionally anti-aliased.
  * 
  * @author nierax
  *
  */
 public class BezierCurvePlotter {
 
+	/**
+	 * Number of points, calculated for the curve.
+	 */
+	private static final int CURVE_POINTS = 1001;
+
 	private Bezier bezier;
 	private BufferedImage image;
 	private Graphics graphics;
-	private Point lastPoint;
+	private final double[] curveX = new double[CURVE_POINTS];
+	private final double[] curveY = new double[CURVE_POINTS];
+	private final int[] pixelX = new int[CURVE_POINTS];
+	private final int[] pixelY = new int[CURVE_POINTS];
+	private final double[] exactX = new double[CURVE_POINTS];
+	private final double[] exactY = new double[CURVE_POINTS];
+	/**
+	 * Renderers of the image, created on first use and reused by every plot.
+	 */
+	private TiledLineRenderer tiledRenderer;
+	private RasterLineRenderer rasterRenderer;
 
 	/**
 	 * 
@@ -44,50 +59,22 @@ public class BezierCurvePlotter {
 		return (int) (value * factor);
 	}
 
-	private Point map2AWTPoint(de.lexasoft.common.math.Point p, de.lexasoft.common.math.Point factor) {
+	private Point map2AWTPoint(double x, double y, double factorX, double factorY) {
 		Point awtPoint = new Point();
 		// Centering in image
-		awtPoint.x = (int) (normToDim(p.x(), factor.x()) + (image.getWidth() * 0.1));
-		awtPoint.y = (int) (normToDim(p.y(), factor.y()) + (image.getHeight() * 0.1));
+		awtPoint.x = (int) (normToDim(x, factorX) + (image.getWidth() * 0.1));
+		awtPoint.y = (int) (normToDim(y, factorY) + (image.getHeight() * 0.1));
 		// Horizontally mirrored
 		awtPoint.y = image.getHeight() - awtPoint.y;
 		return awtPoint;
 	}
 
-	private List<de.lexasoft.common.math.Point> calculateCurve() {
-		List<de.lexasoft.common.math.Point> curve = new ArrayList<>();
-		for (double t = 0; t <= 1; t += 0.001) {
-			curve.add(bezier.bezier(t));
-		}
-		return curve;
+	private void calculateCurve() {
+		bezier.sample(0, 1, CURVE_POINTS, curveX, curveY);
 	}
 
-	private de.lexasoft.common.math.Point findMin(List<de.lexasoft.common.math.Point> list) {
-		double minX = Double.MAX_VALUE;
-		double minY = Double.MAX_VALUE;
-		for (de.lexasoft.common.math.Point point : list) {
-			minX = Math.min(point.x(), minX);
-			minY = Math.min(point.y(), minY);
-		}
-		return de.lexasoft.common.math.Point.of(minX, minY);
-	}
-
-	private de.lexasoft.common.math.Point findMax(List<de.lexasoft.common.math.Point> list) {
-		double maxX = Double.MIN_VALUE;
-		double maxY = Double.MIN_VALUE;
-		for (de.lexasoft.common.math.Point point : list) {
-			maxX = Math.max(point.x(), maxX);
-			maxY = Math.max(point.x(), maxY);
-		}
-		return de.lexasoft.common.math.Point.of(maxX, maxY);
-	}
-
-	private de.lexasoft.common.math.Point calcFactors(List<de.lexasoft.common.math.Point> curve) {
-		de.lexasoft.common.math.Point max = findMax(curve);
-		de.lexasoft.common.math.Point min = findMin(curve);
-		double dx = image.getWidth() / Math.abs(max.x() - min.x()) * 0.8;
-		double dy = image.getHeight() / Math.abs(max.y() - min.y()) * 0.8;
-		return de.lexasoft.common.math.Point.of(dx, dy);
+	private double calcFactor(double extent, int dimension) {
+		return dimension / extent * 0.8;
 	}
 
 	private void drawLine(Point from, Point to) {
@@ -96,22 +83,108 @@ public class BezierCurvePlotter {
 
 	/**
 	 * Plots the curve into the image, given or created under the creation of the
-	 * object.
+	 * object. Every call plots the curve on its own, it is not connected to
+	 * curves plotted before. To plot several curves with a shared scale, use
+	 * {@link BezierMultiCurvePlotter}.
 	 * 
 	 * @return Image with the curve plotted.
 	 */
 	public BufferedImage plotCurve() {
-		List<de.lexasoft.common.math.Point> curve = calculateCurve();
-		// First calculate the curve to be able to center it in the image.
-		de.lexasoft.common.math.Point factors = calcFactors(curve);
-		for (de.lexasoft.common.math.Point point : curve) {
-			Point p2d = map2AWTPoint(point, factors);
+		calculateCurve();
+		BoundingBox bounds = bezier.bounds();
+		double factorX = calcFactor(bounds.width(), image.getWidth());
+		double factorY = calcFactor(bounds.height(), image.getHeight());
+		Point lastPoint = null;
+		for (int i = 0; i < CURVE_POINTS; i++) {
+			Point p2d = map2AWTPoint(curveX[i], curveY[i], factorX, factorY);
 			drawLine((lastPoint == null ? p2d : lastPoint), p2d);
 			lastPoint = p2d;
 		}
 		return image;
 	}
 
+	/**
+	 * Maps the sampled curve into the pixel arrays, the same way as
+	 * {@link #plotCurve()} does. The exact arrays receive the same points without
+	 * rounding, with the centers of the pixels at integer coordinates.
+	 */
+	private void mapCurve() {
+		calculateCurve();
+		BoundingBox bounds = bezier.bounds();
+		double factorX = calcFactor(bounds.width(), image.getWidth());
+		double factorY = calcFactor(bounds.height(), image.getHeight());
+		for (int i = 0; i < CURVE_POINTS; i++) {
+			Point p2d = map2AWTPoint(curveX[i], curveY[i], factorX, factorY);
+			pixelX[i] = p2d.x;
+			pixelY[i] = p2d.y;
+			exactX[i] = curveX[i] * factorX + image.getWidth() * 0.1 - 0.5;
+			exactY[i] = image.getHeight() - (curveY[i] * factorY + image.getHeight() * 0.1) + 0.5;
+		}
+	}
+
+	/**
+	 * Plots the curve with tiles of {@link TiledLineRenderer#DEF_TILE_SIZE}
+	 * pixels.
+	 * 
+	 * @return Image with the curve plotted.
+	 * @see #plotCurveTiled(int)
+	 */
+	public BufferedImage plotCurveTiled() {
+		return plotCurveTiled(TiledLineRenderer.DEF_TILE_SIZE);
+	}
+
+	/**
+	 * Plots the curve into the image like {@link #plotCurve()}, but splits the
+	 * image into square tiles, which are drawn in parallel in the common
+	 * {@link java.util.concurrent.ForkJoinPool}. Every segment of the curve is
+	 * only drawn in the tiles, its bounding box overlaps. The image is pixel
+	 * identical to the one of {@link #plotCurve()}.
+	 * 
+	 * @param tileSize Edge length of a tile in pixels.
+	 * @return Image with the curve plotted.
+	 */
+	public BufferedImage plotCurveTiled(int tileSize) {
+		if (tiledRenderer == null || tiledRenderer.tileSize() != tileSize) {
+			tiledRenderer = TiledLineRenderer.of(image.getWidth(), image.getHeight(), tileSize);
+		} else {
+			tiledRenderer.clear();
+		}
+		mapCurve();
+		tiledRenderer.addPolyline(pixelX, pixelY, CURVE_POINTS);
+		tiledRenderer.render(graphics, true);
+		return image;
+	}
+
+	/**
+	 * Plots the curve into the image like {@link #plotCurve()}, but writes the
+	 * pixels directly into the pixel array of the image instead of going through
+	 * {@link Graphics}. Only the color of the graphics is used.
+	 * <p>
+	 * Without anti-aliasing, the image is pixel identical to the one of
+	 * {@link #plotCurve()}. With anti-aliasing, the curve is drawn through the
+	 * sampled points without rounding them to pixels, and the pixels next to the
+	 * exact line are blended with their coverage.
+	 * 
+	 * @param antiAliased True to draw anti-aliased lines.
+	 * @return Image with the curve plotted.
+	 * @throws IllegalArgumentException If the image is neither of type
+	 *                                  {@link BufferedImage#TYPE_INT_RGB} nor
+	 *                                  {@link BufferedImage#TYPE_INT_ARGB}.
+	 */
+	public BufferedImage plotCurveRaster(boolean antiAliased) {
+		if (rasterRenderer == null) {
+			rasterRenderer = RasterLineRenderer.of(image);
+		}
+		int argb = graphics.getColor().getRGB();
+		mapCurve();
+		if (antiAliased) {
+			rasterRenderer.drawPolylineAntiAliased(exactX, exactY, CURVE_POINTS, argb);
+		} else {
+			rasterRenderer.drawPolyline(pixelX, pixelY, CURVE_POINTS, argb);
+		}
+		return image;
+	}
+
 	/**
 	 * Saves the image, formerly plotted to the file system with the given file
 	 * name.
@@ -120,9 +193,7 @@ public class BezierCurvePlotter {
 	 * @throws IOException
 	 */
 	public void saveImageToFileSystem(String fileName) throws IOException {
-		File file = new File(fileName);
-		String filetype = fileName.substring(fileName.lastIndexOf(".") + 1);
-		ImageIO.write(image, filetype, file);
+		PlotterImages.save(image, fileName);
 	}
 
 	/**
@@ -147,12 +218,8 @@ public class BezierCurvePlotter {
 	 * @return A {@link BezierCurvePlotter} object ready to use.
 	 */
 	public static BezierCurvePlotter of(Bezier bezier, int width, int height) {
-		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-		Graphics2D g2d = image.createGraphics();
-		g2d.setBackground(Color.WHITE);
-		g2d.clearRect(0, 0, width, height);
-		g2d.setColor(Color.BLACK);
-		return new BezierCurvePlotter(bezier, image, g2d);
+		BufferedImage image = PlotterImages.create(width, height);
+		return new BezierCurvePlotter(bezier, image, PlotterImages.blackGraphics(image));
 	}
 
 }
@@ -0,0 +1,418 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fits a path of cubic Bezier curves through a sequence of points, f.ex. from
+ * a pen stroke or a measurement, with the algorithm of Philip J. Schneider
+ * ("An Algorithm for Automatically Fitting Digitized Curves", Graphics Gems,
+ * 1990).
+ * <p>
+ * A range of points is fitted by one cubic curve with least squares, the
+ * tangents at its ends being fixed. If the maximal distance of the points to
+ * the curve is too large, but not much too large, the parameters of the points
+ * are improved with Newton's method and the range is fitted again. Otherwise
+ * the range is split at the point with the maximal distance and both parts are
+ * fitted separately. The resulting path is continuous and has continuous
+ * tangents at the points, where it was split.
+ * <p>
+ * Points are added one by one or in blocks and fitted with {@link #fit()}. The
+ * internal buffers are reused for the next fit. Therefore this class is not
+ * thread safe, use one instance per thread.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierFitter {
+
+	/**
+	 * Maximal number of attempts to improve the parameters before a range is
+	 * split.
+	 */
+	public static final int MAX_REPARAMETERIZATIONS = 4;
+
+	/**
+	 * Ranges with a maximal error up to this factor times the tolerance are
+	 * improved by reparameterization instead of being split.
+	 */
+	private static final double REPARAMETERIZATION_FACTOR = 4;
+
+	/**
+	 * Ranges with more points are first fitted with about this number of points
+	 * only, to reject them cheaply.
+	 */
+	private static final int SAMPLES = 128;
+
+	private final double tolerance;
+	private double[] xs = new double[256];
+	private double[] ys = new double[256];
+	private int size;
+	private double[] parameters = new double[256];
+	private int[] stackFirst = new int[16];
+	private int[] stackLast = new int[16];
+	private double[] stackTangents = new double[64];
+	private final double[] curve = new double[8];
+	private final double[] center = new double[2];
+	private int splitIndex;
+
+	private BezierFitter(double tolerance) {
+		if (!(tolerance > 0)) {
+			throw new IllegalArgumentException(String.format("Tolerance was %s, but must be positive.", tolerance));
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * @return The maximal distance between the points and the fitted path.
+	 */
+	public double tolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * @return The number of points added since the last {@link #clear()}.
+	 *         Points equal to their predecessor are not counted.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all points. The buffers are kept for the next points.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Adds a point to the end of the sequence. A point equal to the last one is
+	 * ignored.
+	 * 
+	 * @param x x of the point.
+	 * @param y y of the point.
+	 */
+	public void add(double x, double y) {
+		if (size > 0 && xs[size - 1] == x && ys[size - 1] == y) {
+			return;
+		}
+		if (size == xs.length) {
+			xs = Arrays.copyOf(xs, 2 * size);
+			ys = Arrays.copyOf(ys, 2 * size);
+		}
+		xs[size] = x;
+		ys[size++] = y;
+	}
+
+	/**
+	 * Adds the first count points of the given arrays to the end of the
+	 * sequence.
+	 * 
+	 * @param xs    The x values.
+	 * @param ys    The y values.
+	 * @param count The number of points to add.
+	 */
+	public void add(double[] xs, double[] ys, int count) {
+		if (count < 0 || count > xs.length || count > ys.length) {
+			throw new IllegalArgumentException(String.format(
+			    "Count was %s, but must be between 0 and the length of the arrays (%s, %s).", count, xs.length,
+			    ys.length));
+		}
+		for (int i = 0; i < count; i++) {
+			add(xs[i], ys[i]);
+		}
+	}
+
+	/**
+	 * Adds the given points to the end of the sequence.
+	 * 
+	 * @param points The points.
+	 */
+	public void add(PointBuffer points) {
+		add(points.xValues(), points.yValues(), points.size());
+	}
+
+	/**
+	 * Fits a path through all points added so far.
+	 * 
+	 * @return The path of cubic curves, starting at the first point and ending
+	 *         at the last one.
+	 * @throws IllegalStateException If there are less than 2 different points.
+	 */
+	public BezierPath fit() {
+		if (size < 2) {
+			throw new IllegalStateException(
+			    String.format("At least 2 different points are needed for a fit, but there are %s.", size));
+		}
+		if (parameters.length < size) {
+			parameters = new double[xs.length];
+		}
+		List<Bezier> segments = new ArrayList<>();
+		int top = 0;
+		stackFirst[0] = 0;
+		stackLast[0] = size - 1;
+		tangent(1, 0, stackTangents, 0);
+		tangent(size - 2, size - 1, stackTangents, 2);
+		while (top >= 0) {
+			int first = stackFirst[top];
+			int last = stackLast[top];
+			int offset = 4 * top;
+			double t1x = stackTangents[offset];
+			double t1y = stackTangents[offset + 1];
+			double t2x = stackTangents[offset + 2];
+			double t2y = stackTangents[offset + 3];
+			if (fitRange(first, last, t1x, t1y, t2x, t2y)) {
+				segments.add(Bezier.of(PointBuffer.wrap(new double[] { curve[0], curve[2], curve[4], curve[6] },
+				    new double[] { curve[1], curve[3], curve[5], curve[7] })));
+				top--;
+			} else {
+				// Right part stays at top, the left part is fitted next.
+				int split = splitIndex;
+				ensureStackCapacity(top + 2);
+				centerTangent(split, center);
+				stackFirst[top] = split;
+				stackTangents[offset] = -center[0];
+				stackTangents[offset + 1] = -center[1];
+				top++;
+				stackFirst[top] = first;
+				stackLast[top] = split;
+				offset = 4 * top;
+				stackTangents[offset] = t1x;
+				stackTangents[offset + 1] = t1y;
+				stackTangents[offset + 2] = center[0];
+				stackTangents[offset + 3] = center[1];
+			}
+		}
+		return BezierPath.of(segments);
+	}
+
+	private void ensureStackCapacity(int count) {
+		if (stackFirst.length < count) {
+			stackFirst = Arrays.copyOf(stackFirst, 2 * count);
+			stackLast = Arrays.copyOf(stackLast, 2 * count);
+			stackTangents = Arrays.copyOf(stackTangents, 8 * count);
+		}
+	}
+
+	/**
+	 * Unit vector from point "from" to point "to".
+	 */
+	private void tangent(int to, int from, double[] out, int offset) {
+		double dx = xs[to] - xs[from];
+		double dy = ys[to] - ys[from];
+		double length = Math.sqrt(dx * dx + dy * dy);
+		out[offset] = dx / length;
+		out[offset + 1] = dy / length;
+	}
+
+	/**
+	 * Tangent at the split point, pointing backwards.
+	 */
+	private void centerTangent(int split, double[] out) {
+		double dx = xs[split - 1] - xs[split + 1];
+		double dy = ys[split - 1] - ys[split + 1];
+		double length = Math.sqrt(dx * dx + dy * dy);
+		if (length == 0) {
+			// The neighbours are equal, use the direction to one of them.
+			tangent(split - 1, split, out, 0);
+		} else {
+			out[0] = dx / length;
+			out[1] = dy / length;
+		}
+	}
+
+	/**
+	 * Tries to fit the points from first to last with one cubic curve into
+	 * {@link #curve}.
+	 * 
+	 * @return true, if the fit is within the tolerance. Otherwise
+	 *         {@link #splitIndex} holds the point to split at.
+	 */
+	private boolean fitRange(int first, int last, double t1x, double t1y, double t2x, double t2y) {
+		if (last - first == 1) {
+			double distance = distance(first, last) / 3;
+			setCurve(first, last, t1x, t1y, t2x, t2y, distance, distance);
+			return true;
+		}
+		double toleranceSquare = tolerance * tolerance;
+		double splitLimit = toleranceSquare * REPARAMETERIZATION_FACTOR * REPARAMETERIZATION_FACTOR;
+		if (last - first > 2 * SAMPLES) {
+			// A range, which is far off with a sample of its points, is split at once.
+			int stride = (last - first) / SAMPLES;
+			chordLengthParameterize(first, last, stride);
+			generateCurve(first, last, stride, t1x, t1y, t2x, t2y);
+			if (maxErrorSquare(first, last, stride) > splitLimit) {
+				return false;
+			}
+		}
+		chordLengthParameterize(first, last, 1);
+		for (int attempt = 0; attempt <= MAX_REPARAMETERIZATIONS; attempt++) {
+			generateCurve(first, last, 1, t1x, t1y, t2x, t2y);
+			double error = maxErrorSquare(first, last, 1);
+			if (error <= toleranceSquare) {
+				return true;
+			}
+			if (error > splitLimit) {
+				break;
+			}
+			if (attempt < MAX_REPARAMETERIZATIONS) {
+				reparameterize(first, last);
+			}
+		}
+		return false;
+	}
+
+	private double distance(int a, int b) {
+		double dx = xs[b] - xs[a];
+		double dy = ys[b] - ys[a];
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/**
+	 * Index of the point following i, when only every stride-th point between
+	 * first and last is used. last itself is always used.
+	 */
+	private static int next(int i, int last, int stride) {
+		return Math.min(i + stride, last);
+	}
+
+	private void chordLengthParameterize(int first, int last, int stride) {
+		parameters[first] = 0;
+		for (int i = first; i < last; i = next(i, last, stride)) {
+			int following = next(i, last, stride);
+			parameters[following] = parameters[i] + distance(i, following);
+		}
+		double total = parameters[last];
+		for (int i = first; i < last; i = next(i, last, stride)) {
+			parameters[next(i, last, stride)] /= total;
+		}
+	}
+
+	private void setCurve(int first, int last, double t1x, double t1y, double t2x, double t2y, double alpha1,
+	    double alpha2) {
+		curve[0] = xs[first];
+		curve[1] = ys[first];
+		curve[2] = xs[first] + t1x * alpha1;
+		curve[3] = ys[first] + t1y * alpha1;
+		curve[4] = xs[last] + t2x * alpha2;
+		curve[5] = ys[last] + t2y * alpha2;
+		curve[6] = xs[last];
+		curve[7] = ys[last];
+	}
+
+	/**
+	 * Least squares fit of the distances of the inner control points from the
+	 * end points along the given tangents, using every stride-th point.
+	 */
+	private void generateCurve(int first, int last, int stride, double t1x, double t1y, double t2x, double t2y) {
+		double c00 = 0;
+		double c01 = 0;
+		double c11 = 0;
+		double x0 = 0;
+		double x1 = 0;
+		double startX = xs[first];
+		double startY = ys[first];
+		double endX = xs[last];
+		double endY = ys[last];
+		// Both end points are included.
+		for (int i = first; i <= last; i = (i < last) ? next(i, last, stride) : last + 1) {
+			double u = parameters[i];
+			double v = 1 - u;
+			double b0 = v * v * v;
+			double b1 = 3 * u * v * v;
+			double b2 = 3 * u * u * v;
+			double b3 = u * u * u;
+			double a1x = t1x * b1;
+			double a1y = t1y * b1;
+			double a2x = t2x * b2;
+			double a2y = t2y * b2;
+			c00 += a1x * a1x + a1y * a1y;
+			c01 += a1x * a2x + a1y * a2y;
+			c11 += a2x * a2x + a2y * a2y;
+			double dx = xs[i] - (startX * (b0 + b1) + endX * (b2 + b3));
+			double dy = ys[i] - (startY * (b0 + b1) + endY * (b2 + b3));
+			x0 += a1x * dx + a1y * dy;
+			x1 += a2x * dx + a2y * dy;
+		}
+		double determinant = c00 * c11 - c01 * c01;
+		double chord = distance(first, last);
+		double alpha1 = (determinant == 0) ? 0 : (x0 * c11 - x1 * c01) / determinant;
+		double alpha2 = (determinant == 0) ? 0 : (c00 * x1 - c01 * x0) / determinant;
+		double epsilon = 1e-6 * chord;
+		if (!(alpha1 >= epsilon) || !(alpha2 >= epsilon)) {
+			// Fall back to the heuristic of Wu and Barsky.
+			alpha1 = chord / 3;
+			alpha2 = alpha1;
+		}
+		setCurve(first, last, t1x, t1y, t2x, t2y, alpha1, alpha2);
+	}
+
+	/**
+	 * Gets the maximal squared distance of every stride-th inner point to the
+	 * curve at its parameter and stores the point with the maximal distance in
+	 * {@link #splitIndex}.
+	 */
+	private double maxErrorSquare(int first, int last, int stride) {
+		double max = 0;
+		splitIndex = (first + last) / 2;
+		for (int i = next(first, last, stride); i < last; i = next(i, last, stride)) {
+			double u = parameters[i];
+			double v = 1 - u;
+			double b0 = v * v * v;
+			double b1 = 3 * u * v * v;
+			double b2 = 3 * u * u * v;
+			double b3 = u * u * u;
+			double dx = curve[0] * b0 + curve[2] * b1 + curve[4] * b2 + curve[6] * b3 - xs[i];
+			double dy = curve[1] * b0 + curve[3] * b1 + curve[5] * b2 + curve[7] * b3 - ys[i];
+			double error = dx * dx + dy * dy;
+			if (error > max) {
+				max = error;
+				splitIndex = i;
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Improves the parameter of each point with one Newton step towards the
+	 * closest point on the curve.
+	 */
+	private void reparameterize(int first, int last) {
+		for (int i = first + 1; i < last; i++) {
+			double u = parameters[i];
+			double v = 1 - u;
+			double qx = curve[0] * v * v * v + 3 * curve[2] * u * v * v + 3 * curve[4] * u * u * v
+			    + curve[6] * u * u * u;
+			double qy = curve[1] * v * v * v + 3 * curve[3] * u * v * v + 3 * curve[5] * u * u * v
+			    + curve[7] * u * u * u;
+			double d1x = 3 * ((curve[2] - curve[0]) * v * v + 2 * (curve[4] - curve[2]) * u * v
+			    + (curve[6] - curve[4]) * u * u);
+			double d1y = 3 * ((curve[3] - curve[1]) * v * v + 2 * (curve[5] - curve[3]) * u * v
+			    + (curve[7] - curve[5]) * u * u);
+			double d2x = 6 * ((curve[4] - 2 * curve[2] + curve[0]) * v + (curve[6] - 2 * curve[4] + curve[2]) * u);
+			double d2y = 6 * ((curve[5] - 2 * curve[3] + curve[1]) * v + (curve[7] - 2 * curve[5] + curve[3]) * u);
+			double dx = qx - xs[i];
+			double dy = qy - ys[i];
+			double denominator = d1x * d1x + d1y * d1y + dx * d2x + dy * d2y;
+			if (denominator != 0) {
+				parameters[i] = Math.min(1, Math.max(0, u - (dx * d1x + dy * d1y) / denominator));
+			}
+		}
+	}
+
+	/**
+	 * Creates a fitter with the given tolerance.
+	 * 
+	 * @param tolerance Maximal distance between the points and the fitted path,
+	 *                  in the units of the point's coordinates.
+	 * @return The fitter.
+	 */
+	public static BezierFitter of(double tolerance) {
+		return new BezierFitter(tolerance);
+	}
+
+}
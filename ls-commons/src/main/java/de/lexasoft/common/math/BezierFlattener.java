@@ -0,0 +1,155 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.Arrays;
+
+/**
+ * Converts Bezier curves into polylines with adaptive subdivision.
+ * <p>
+ * A curve is split in halves with de Casteljau's algorithm until each part is
+ * flat enough: All control points of the part have a distance lower than the
+ * tolerance to the line between its end points. As the curve lies within the
+ * convex hull of its control points, the polyline never deviates from the
+ * curve by more than the tolerance. So nearly straight curves result in a few
+ * points only, while sharp bends get as many points as they need.
+ * <p>
+ * The internal buffers are reused for the next curve. Therefore this class is
+ * not thread safe, use one instance per thread.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierFlattener {
+
+	/**
+	 * Maximal number of subdivisions of a part. Limits a polyline to 2^16 + 1
+	 * points, if the tolerance is tiny compared to the curve. Each subdivision
+	 * reduces the distance to the curve by about four, so this is far more than
+	 * a sensible tolerance needs.
+	 */
+	public static final int MAX_DEPTH = 16;
+
+	private final double tolerance;
+	private double[] stackX = new double[0];
+	private double[] stackY = new double[0];
+	private int[] stackDepth = new int[MAX_DEPTH + 1];
+	private double[] resultX = new double[64];
+	private double[] resultY = new double[64];
+	private int resultSize;
+
+	private BezierFlattener(double tolerance) {
+		if (!(tolerance > 0)) {
+			throw new IllegalArgumentException(String.format("Tolerance was %s, but must be positive.", tolerance));
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * @return The maximal distance between the polyline and the curve.
+	 */
+	public double tolerance() {
+		return tolerance;
+	}
+
+	private void ensureStackCapacity(int count) {
+		int needed = (MAX_DEPTH + 1) * count;
+		if (stackX.length < needed) {
+			stackX = new double[needed];
+			stackY = new double[needed];
+		}
+	}
+
+	private void addResult(double x, double y) {
+		if (resultSize == resultX.length) {
+			resultX = Arrays.copyOf(resultX, 2 * resultSize);
+			resultY = Arrays.copyOf(resultY, 2 * resultSize);
+		}
+		resultX[resultSize] = x;
+		resultY[resultSize++] = y;
+	}
+
+	/**
+	 * Checks, whether all control points of the part at offset are within the
+	 * tolerance to the line segment between its end points.
+	 */
+	private boolean isFlat(int offset, int count) {
+		int last = offset + count - 1;
+		double startX = stackX[offset];
+		double startY = stackY[offset];
+		double dx = stackX[last] - startX;
+		double dy = stackY[last] - startY;
+		double lengthSquare = dx * dx + dy * dy;
+		double limit = tolerance * tolerance;
+		for (int i = offset + 1; i < last; i++) {
+			double px = stackX[i] - startX;
+			double py = stackY[i] - startY;
+			double dot = px * dx + py * dy;
+			double distanceSquare;
+			if (dot <= 0) {
+				// Before the start point
+				distanceSquare = px * px + py * py;
+			} else if (dot >= lengthSquare) {
+				// Behind the end point
+				double ex = px - dx;
+				double ey = py - dy;
+				distanceSquare = ex * ex + ey * ey;
+			} else {
+				double cross = px * dy - py * dx;
+				distanceSquare = cross * cross / lengthSquare;
+			}
+			if (distanceSquare > limit) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converts the given curve into a polyline.
+	 * 
+	 * @param bezier The curve to convert.
+	 * @return The points of the polyline, starting with the start point and
+	 *         ending with the end point of the curve.
+	 */
+	public PointBuffer flatten(Bezier bezier) {
+		PointBuffer controlPoints = bezier.controlPoints();
+		int count = controlPoints.size();
+		ensureStackCapacity(count);
+		System.arraycopy(controlPoints.xValues(), 0, stackX, 0, count);
+		System.arraycopy(controlPoints.yValues(), 0, stackY, 0, count);
+		resultSize = 0;
+		addResult(stackX[0], stackY[0]);
+		int top = 0;
+		stackDepth[0] = 0;
+		while (top >= 0) {
+			int offset = top * count;
+			if (stackDepth[top] >= MAX_DEPTH || isFlat(offset, count)) {
+				addResult(stackX[offset + count - 1], stackY[offset + count - 1]);
+				top--;
+			} else {
+				// Right half stays in place, the left half is processed next.
+				int leftOffset = offset + count;
+				BernsteinPolynomial.subdivide(stackX, offset, count, 0.5, stackX, leftOffset);
+				BernsteinPolynomial.subdivide(stackY, offset, count, 0.5, stackY, leftOffset);
+				stackDepth[top + 1] = ++stackDepth[top];
+				top++;
+			}
+		}
+		return PointBuffer.wrap(Arrays.copyOf(resultX, resultSize), Arrays.copyOf(resultY, resultSize));
+	}
+
+	/**
+	 * Creates a flattener with the given tolerance.
+	 * 
+	 * @param tolerance Maximal distance between the polyline and the curve, in
+	 *                  the units of the curve's coordinates. Must be positive.
+	 * @return The flattener.
+	 * @throws IllegalArgumentException If the tolerance is not positive.
+	 */
+	public static BezierFlattener of(double tolerance) {
+		return new BezierFlattener(tolerance);
+	}
+
+}
@@ -0,0 +1,468 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index for fast hit testing against many Bezier curves.
+ * <p>
+ * The plane is divided into a uniform grid of square cells. Each curve is
+ * registered in all cells, its bounding box overlaps. Queries only look at the
+ * curves in the cells concerned, reject them by their bounding boxes and
+ * refine the remaining candidates exactly. Curves, which would cover more than
+ * {@link #MAX_CELLS_PER_CURVE} cells, are kept in a separate list, which is
+ * checked by every query.
+ * <p>
+ * The occupied cells are kept in an open addressing hash table with the cell
+ * coordinates as primitive key, so looking up a cell creates no objects.
+ * <p>
+ * The cell size should be in the order of the size of a typical curve.
+ * <p>
+ * Curves are identified by reference. The index is not thread safe.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierIndex {
+
+	/**
+	 * Maximal number of cells, a curve is registered in.
+	 */
+	public static final int MAX_CELLS_PER_CURVE = 1024;
+
+	/**
+	 * Maximal depth of subdivision for the exact rectangle test.
+	 */
+	private static final int MAX_SUBDIVISION = 20;
+
+	private static class Entry {
+		private final Bezier bezier;
+		private final BoundingBox bounds;
+		private int lastQuery;
+
+		private Entry(Bezier bezier) {
+			this.bezier = bezier;
+			this.bounds = bezier.bounds();
+		}
+	}
+
+	/**
+	 * The curves registered in one cell or in the list of large curves.
+	 */
+	private static class Cell {
+		private Entry[] entries = new Entry[4];
+		private int size;
+
+		private void add(Entry entry) {
+			if (size == entries.length) {
+				entries = Arrays.copyOf(entries, 2 * size);
+			}
+			entries[size++] = entry;
+		}
+
+		private void remove(Entry entry) {
+			for (int i = 0; i < size; i++) {
+				if (entries[i] == entry) {
+					System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+					entries[--size] = null;
+					return;
+				}
+			}
+		}
+	}
+
+	private final double cellSize;
+	/**
+	 * Hash table of the occupied cells with linear probing. A slot is free, if
+	 * its value is null. The table is kept at most half full.
+	 */
+	private long[] cellKeys = new long[16];
+	private Cell[] cellValues = new Cell[16];
+	private int cellCount;
+	private final Cell large = new Cell();
+	private final Map<Bezier, Entry> entries = new IdentityHashMap<>();
+	private final double[] projection = new double[2];
+	/**
+	 * Stack of the parts of the curve during the exact rectangle test: x and y
+	 * of the control points of each part one after the other.
+	 */
+	private double[] parts = new double[0];
+	private final int[] depths = new int[MAX_SUBDIVISION + 1];
+	private int query;
+	private int minCellX = Integer.MAX_VALUE;
+	private int minCellY = Integer.MAX_VALUE;
+	private int maxCellX = Integer.MIN_VALUE;
+	private int maxCellY = Integer.MIN_VALUE;
+
+	private BezierIndex(double cellSize) {
+		if (!(cellSize > 0)) {
+			throw new IllegalArgumentException(String.format("Cell size was %s, but must be positive.", cellSize));
+		}
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * @return The number of curves in the index.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	private int cell(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private static long key(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xffffffffL);
+	}
+
+	private int home(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & (cellKeys.length - 1);
+	}
+
+	/**
+	 * @return The slot holding the cell with the given key or the free slot,
+	 *         where it would be added.
+	 */
+	private int slot(long key) {
+		int mask = cellKeys.length - 1;
+		int slot = home(key);
+		while (cellValues[slot] != null && cellKeys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private Cell cell(int cellX, int cellY) {
+		return cellValues[slot(key(cellX, cellY))];
+	}
+
+	private Cell addCell(long key) {
+		int slot = slot(key);
+		if (cellValues[slot] == null) {
+			cellKeys[slot] = key;
+			cellValues[slot] = new Cell();
+			if (2 * ++cellCount > cellKeys.length) {
+				long[] oldKeys = cellKeys;
+				Cell[] oldValues = cellValues;
+				cellKeys = new long[2 * oldKeys.length];
+				cellValues = new Cell[2 * oldValues.length];
+				for (int i = 0; i < oldKeys.length; i++) {
+					if (oldValues[i] != null) {
+						int newSlot = slot(oldKeys[i]);
+						cellKeys[newSlot] = oldKeys[i];
+						cellValues[newSlot] = oldValues[i];
+					}
+				}
+				slot = slot(key);
+			}
+		}
+		return cellValues[slot];
+	}
+
+	/**
+	 * Frees the given slot. The following cells of the same probe sequence are
+	 * moved up, so no cell becomes unreachable.
+	 */
+	private void removeCell(int slot) {
+		int mask = cellKeys.length - 1;
+		int free = slot;
+		for (int i = (slot + 1) & mask; cellValues[i] != null; i = (i + 1) & mask) {
+			// The cell may move, if its home slot does not lie between the free slot
+			// and its current one.
+			if (((i - home(cellKeys[i])) & mask) >= ((i - free) & mask)) {
+				cellKeys[free] = cellKeys[i];
+				cellValues[free] = cellValues[i];
+				free = i;
+			}
+		}
+		cellValues[free] = null;
+		cellCount--;
+	}
+
+	private boolean isLarge(BoundingBox bounds) {
+		long cellsX = (long) cell(bounds.maxX()) - cell(bounds.minX()) + 1;
+		long cellsY = (long) cell(bounds.maxY()) - cell(bounds.minY()) + 1;
+		return cellsX * cellsY > MAX_CELLS_PER_CURVE;
+	}
+
+	/**
+	 * Adds a curve to the index. Adding a curve, which is already in the index,
+	 * has no effect.
+	 * 
+	 * @param bezier The curve to add.
+	 */
+	public void insert(Bezier bezier) {
+		if (entries.containsKey(bezier)) {
+			return;
+		}
+		Entry entry = new Entry(bezier);
+		entries.put(bezier, entry);
+		BoundingBox bounds = entry.bounds;
+		if (isLarge(bounds)) {
+			large.add(entry);
+			return;
+		}
+		for (int x = cell(bounds.minX()); x <= cell(bounds.maxX()); x++) {
+			for (int y = cell(bounds.minY()); y <= cell(bounds.maxY()); y++) {
+				addCell(key(x, y)).add(entry);
+			}
+		}
+		minCellX = Math.min(minCellX, cell(bounds.minX()));
+		minCellY = Math.min(minCellY, cell(bounds.minY()));
+		maxCellX = Math.max(maxCellX, cell(bounds.maxX()));
+		maxCellY = Math.max(maxCellY, cell(bounds.maxY()));
+	}
+
+	/**
+	 * Removes a curve from the index.
+	 * 
+	 * @param bezier The curve to remove.
+	 * @return true, if the curve was in the index.
+	 */
+	public boolean remove(Bezier bezier) {
+		Entry entry = entries.remove(bezier);
+		if (entry == null) {
+			return false;
+		}
+		BoundingBox bounds = entry.bounds;
+		if (isLarge(bounds)) {
+			large.remove(entry);
+			return true;
+		}
+		for (int x = cell(bounds.minX()); x <= cell(bounds.maxX()); x++) {
+			for (int y = cell(bounds.minY()); y <= cell(bounds.maxY()); y++) {
+				int slot = slot(key(x, y));
+				Cell cell = cellValues[slot];
+				cell.remove(entry);
+				if (cell.size == 0) {
+					removeCell(slot);
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decides for the part at the given offset of the stack, whether it passes
+	 * through the rectangle: 1, if one of its end points lies within, -1, if its
+	 * control points (and therefore the part itself) lie completely outside, and
+	 * 0, if it has to be subdivided.
+	 */
+	private int decide(int offset, int count, BoundingBox rectangle) {
+		int last = count - 1;
+		if (rectangle.contains(parts[offset], parts[offset + count])
+		    || rectangle.contains(parts[offset + last], parts[offset + count + last])) {
+			return 1;
+		}
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (int i = offset; i < offset + count; i++) {
+			minX = Math.min(minX, parts[i]);
+			maxX = Math.max(maxX, parts[i]);
+			minY = Math.min(minY, parts[i + count]);
+			maxY = Math.max(maxY, parts[i + count]);
+		}
+		if (minX > rectangle.maxX() || maxX < rectangle.minX() || minY > rectangle.maxY() || maxY < rectangle.minY()) {
+			return -1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Checks, whether the curve passes through the rectangle, by subdividing it.
+	 * The parts still to check are kept on a stack, which is reused between the
+	 * queries. Each subdivision replaces the part by its right half and pushes
+	 * the left one, so the stack never holds more than one part per depth.
+	 */
+	private boolean passesThrough(Entry entry, BoundingBox rectangle) {
+		if (rectangle.contains(entry.bounds)) {
+			return true;
+		}
+		PointBuffer controlPoints = entry.bezier.controlPoints();
+		int count = controlPoints.size();
+		int stride = 2 * count;
+		if (parts.length < depths.length * stride) {
+			parts = new double[depths.length * stride];
+		}
+		System.arraycopy(controlPoints.xValues(), 0, parts, 0, count);
+		System.arraycopy(controlPoints.yValues(), 0, parts, count, count);
+		depths[0] = 0;
+		for (int top = 0; top >= 0;) {
+			int offset = top * stride;
+			int decision = decide(offset, count, rectangle);
+			if (decision > 0 || (decision == 0 && depths[top] >= MAX_SUBDIVISION)) {
+				return true;
+			}
+			if (decision < 0) {
+				top--;
+			} else {
+				BernsteinPolynomial.subdivide(parts, offset, count, 0.5, parts, offset + stride);
+				BernsteinPolynomial.subdivide(parts, offset + count, count, 0.5, parts, offset + stride + count);
+				depths[top + 1] = ++depths[top];
+				top++;
+			}
+		}
+		return false;
+	}
+
+	private void collect(Cell candidates, BoundingBox rectangle, List<Bezier> result) {
+		for (int i = 0; i < candidates.size; i++) {
+			Entry entry = candidates.entries[i];
+			if (entry.lastQuery != query) {
+				entry.lastQuery = query;
+				if (rectangle.intersects(entry.bounds) && passesThrough(entry, rectangle)) {
+					result.add(entry.bezier);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds all curves, which pass through the given rectangle.
+	 * 
+	 * @param rectangle The rectangle.
+	 * @return The curves, which have at least one point within the rectangle.
+	 */
+	public List<Bezier> query(BoundingBox rectangle) {
+		query++;
+		List<Bezier> result = new ArrayList<>();
+		collect(large, rectangle, result);
+		if (cellCount == 0) {
+			return result;
+		}
+		int fromX = Math.max(cell(rectangle.minX()), minCellX);
+		int toX = Math.min(cell(rectangle.maxX()), maxCellX);
+		int fromY = Math.max(cell(rectangle.minY()), minCellY);
+		int toY = Math.min(cell(rectangle.maxY()), maxCellY);
+		for (int x = fromX; x <= toX; x++) {
+			for (int y = fromY; y <= toY; y++) {
+				Cell candidates = cell(x, y);
+				if (candidates != null) {
+					collect(candidates, rectangle, result);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Holds the best candidate during a nearest query.
+	 */
+	private static class Nearest {
+		private Bezier bezier;
+		private double distanceSquare = Double.MAX_VALUE;
+	}
+
+	private void check(Cell candidates, double x, double y, Nearest nearest) {
+		for (int i = 0; i < candidates.size; i++) {
+			Entry entry = candidates.entries[i];
+			if (entry.lastQuery != query) {
+				entry.lastQuery = query;
+				if (entry.bounds.distanceSquare(x, y) < nearest.distanceSquare) {
+					entry.bezier.project(x, y, projection);
+					double distanceSquare = projection[1] * projection[1];
+					if (distanceSquare < nearest.distanceSquare) {
+						nearest.distanceSquare = distanceSquare;
+						nearest.bezier = entry.bezier;
+					}
+				}
+			}
+		}
+	}
+
+	private void checkCell(int cellX, int cellY, double x, double y, Nearest nearest) {
+		Cell candidates = cell(cellX, cellY);
+		if (candidates != null) {
+			check(candidates, x, y, nearest);
+		}
+	}
+
+	/**
+	 * Checks the cells of row cellY from fromX to toX, as far as they are
+	 * occupied.
+	 */
+	private void checkRow(long cellY, long fromX, long toX, double x, double y, Nearest nearest) {
+		if (cellY < minCellY || cellY > maxCellY) {
+			return;
+		}
+		for (long cellX = Math.max(fromX, minCellX); cellX <= Math.min(toX, maxCellX); cellX++) {
+			checkCell((int) cellX, (int) cellY, x, y, nearest);
+		}
+	}
+
+	/**
+	 * Checks the cells of column cellX from fromY to toY, as far as they are
+	 * occupied.
+	 */
+	private void checkColumn(long cellX, long fromY, long toY, double x, double y, Nearest nearest) {
+		if (cellX < minCellX || cellX > maxCellX) {
+			return;
+		}
+		for (long cellY = Math.max(fromY, minCellY); cellY <= Math.min(toY, maxCellY); cellY++) {
+			checkCell((int) cellX, (int) cellY, x, y, nearest);
+		}
+	}
+
+	/**
+	 * Finds the curve, which is nearest to the given point.
+	 * <p>
+	 * The cells are searched in rings around the cell of the point, until the
+	 * nearest curve found is closer than any cell not searched yet. Rings, which
+	 * do not touch an occupied cell, are skipped.
+	 * 
+	 * @param x x of the point.
+	 * @param y y of the point.
+	 * @return The nearest curve or null, if the index is empty.
+	 */
+	public Bezier nearest(double x, double y) {
+		query++;
+		Nearest nearest = new Nearest();
+		check(large, x, y, nearest);
+		if (cellCount == 0) {
+			return nearest.bezier;
+		}
+		long centerX = cell(x);
+		long centerY = cell(y);
+		// Rings from the first one touching the occupied cells to the one covering
+		// all of them.
+		long minRing = Math.max(0, Math.max(Math.max(minCellX - centerX, centerX - maxCellX),
+		    Math.max(minCellY - centerY, centerY - maxCellY)));
+		long maxRing = Math.max(Math.max(centerX - minCellX, maxCellX - centerX),
+		    Math.max(centerY - minCellY, maxCellY - centerY));
+		for (long ring = minRing; ring <= maxRing; ring++) {
+			checkRow(centerY - ring, centerX - ring, centerX + ring, x, y, nearest);
+			if (ring > 0) {
+				checkRow(centerY + ring, centerX - ring, centerX + ring, x, y, nearest);
+				checkColumn(centerX - ring, centerY - ring + 1, centerY + ring - 1, x, y, nearest);
+				checkColumn(centerX + ring, centerY - ring + 1, centerY + ring - 1, x, y, nearest);
+			}
+			// All cells outside of this ring are at least ring * cellSize away.
+			double reach = ring * cellSize;
+			if (nearest.bezier != null && nearest.distanceSquare <= reach * reach) {
+				break;
+			}
+		}
+		return nearest.bezier;
+	}
+
+	/**
+	 * Creates an empty index with the given cell size.
+	 * 
+	 * @param cellSize Side length of the square cells.
+	 * @return The index.
+	 */
+	public static BezierIndex of(double cellSize) {
+		return new BezierIndex(cellSize);
+	}
+
+}
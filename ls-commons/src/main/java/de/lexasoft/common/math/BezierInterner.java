@@ -0,0 +1,156 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonicalizing factory for Bezier curves: Curves with the same control
+ * points are created only once and shared, so their lazily calculated tables
+ * (lookup table, length table, bounds) are calculated only once, too.
+ * <p>
+ * The curves are held weakly. As soon as a curve is not used any more, the
+ * garbage collector may remove it from the cache. Curves are immutable, so
+ * sharing them between threads is safe.
+ * <p>
+ * {@link #global()} gives an interner shared by the whole JVM.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierInterner {
+
+	private static final BezierInterner GLOBAL = new BezierInterner();
+
+	/**
+	 * Weak reference to a curve, which knows its key for removal from the map.
+	 */
+	private static class CurveReference extends WeakReference<Bezier> {
+		private final PointBuffer key;
+
+		private CurveReference(Bezier bezier, PointBuffer key, ReferenceQueue<Bezier> queue) {
+			super(bezier, queue);
+			this.key = key;
+		}
+	}
+
+	private final Map<PointBuffer, CurveReference> curves = new ConcurrentHashMap<>();
+	private final ReferenceQueue<Bezier> queue = new ReferenceQueue<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private BezierInterner() {
+	}
+
+	/**
+	 * Removes the entries of the curves, which were garbage collected.
+	 */
+	private void expungeStale() {
+		CurveReference reference;
+		while ((reference = (CurveReference) queue.poll()) != null) {
+			curves.remove(reference.key, reference);
+		}
+	}
+
+	/**
+	 * Gets the curve with the given control points. If there is none yet, it is
+	 * created with {@link Bezier#of(PointBuffer)}.
+	 * 
+	 * @param controlPoints The control points of the curve.
+	 * @return The shared curve with these control points.
+	 */
+	public Bezier intern(PointBuffer controlPoints) {
+		expungeStale();
+		CurveReference reference = curves.get(controlPoints);
+		Bezier bezier = (reference != null) ? reference.get() : null;
+		if (bezier != null) {
+			hits.increment();
+			return bezier;
+		}
+		Bezier[] result = new Bezier[1];
+		boolean[] created = new boolean[1];
+		curves.compute(controlPoints, (key, old) -> {
+			Bezier existing = (old != null) ? old.get() : null;
+			if (existing != null) {
+				// Created by another thread meanwhile.
+				result[0] = existing;
+				return old;
+			}
+			result[0] = Bezier.of(key);
+			created[0] = true;
+			return new CurveReference(result[0], key, queue);
+		});
+		// Counted from the outcome, a lost race is a hit.
+		if (created[0]) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return result[0];
+	}
+
+	/**
+	 * Gets the curve with the given control points. If there is none yet, it is
+	 * created with {@link Bezier#of(List)}.
+	 * 
+	 * @param controlPoints The control points of the curve.
+	 * @return The shared curve with these control points.
+	 */
+	public Bezier intern(List<Point> controlPoints) {
+		return intern(PointBuffer.of(controlPoints));
+	}
+
+	/**
+	 * @return The number of curves in the cache. Curves, which are garbage
+	 *         collected, are removed with the next call.
+	 */
+	public int size() {
+		expungeStale();
+		return curves.size();
+	}
+
+	/**
+	 * @return The number of calls, which found the curve in the cache.
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return The number of calls, which had to create the curve.
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return The part of the calls, which found the curve in the cache, 0 if
+	 *         there was no call yet.
+	 */
+	public double hitRate() {
+		long hitCount = hits.sum();
+		long total = hitCount + misses.sum();
+		return (total == 0) ? 0 : (double) hitCount / total;
+	}
+
+	/**
+	 * @return A new interner with its own cache.
+	 */
+	public static BezierInterner of() {
+		return new BezierInterner();
+	}
+
+	/**
+	 * @return The interner shared by the whole JVM.
+	 */
+	public static BezierInterner global() {
+		return GLOBAL;
+	}
+
+}
@@ -0,0 +1,534 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.Arrays;
+
+/**
+ * Finds the intersections of two Bezier curves or of a Bezier curve and a line
+ * segment.
+ * <p>
+ * Two curves are intersected by subdivision. Pairs of parts, which can not
+ * intersect, are rejected early: First by the bounding boxes of their control
+ * points, then by the fat line of each part, i.e. the strip parallel to the
+ * line between its end points, which contains all its control points. As each
+ * part lies within the convex hull of its control points, the other part can
+ * not touch it, if all of its control points are outside of this strip. Parts,
+ * which are flat within the tolerance, are intersected as line segments and
+ * the parameters are polished with Newton's method on both curves.
+ * <p>
+ * A curve and a line are intersected analytically: The signed distance of the
+ * curve to the line is a polynomial in Bernstein form, whose roots are found
+ * with Cardano's method up to degree 3 and numerically above.
+ * <p>
+ * The parameters of the intersections are written into a result buffer, which
+ * is reused by the next call, as are all internal buffers. Therefore this
+ * class is not thread safe, use one instance per thread.
+ * <p>
+ * Curves, which overlap in a part (f.ex. coincident edges of two paths), give
+ * the end points of the overlap as intersections only. The overlap is found
+ * before the subdivision: Its end points are end points of the curves, which
+ * lie on the other curve, and some points between them must lie on the other
+ * curve, too. Pairs of parts within the overlap are not subdivided at all.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierIntersector {
+
+	/**
+	 * Maximal number of subdivisions of a part.
+	 */
+	public static final int MAX_DEPTH = 48;
+
+	/**
+	 * Default for the maximal distance between the intersecting points of both
+	 * curves.
+	 */
+	public static final double DEF_TOLERANCE = 1e-9;
+
+	/**
+	 * Parameters closer than this are taken as the same intersection.
+	 */
+	private static final double SAME_PARAMETER = 1e-7;
+
+	private static final int MAX_POLISH_ITERATIONS = 8;
+
+	/**
+	 * Number of intervals between the points checked on an overlap.
+	 */
+	private static final int OVERLAP_SAMPLES = 16;
+
+	private final double tolerance;
+	private Bezier first;
+	private Bezier second;
+	private int firstCount;
+	private int secondCount;
+	private double[] firstX = new double[0];
+	private double[] firstY = new double[0];
+	private double[] secondX = new double[0];
+	private double[] secondY = new double[0];
+	private final double[] roots = new double[3];
+	private double[] firstT = new double[8];
+	private double[] secondT = new double[8];
+	private int count;
+	private final double[] projection = new double[2];
+	/**
+	 * Parameters of the end points of the curves, which lie on the other curve.
+	 */
+	private final double[] overlapT = new double[4];
+	private final double[] overlapU = new double[4];
+	private boolean overlapping;
+	private double overlapT0;
+	private double overlapT1;
+	private double overlapU0;
+	private double overlapU1;
+
+	private BezierIntersector(double tolerance) {
+		if (!(tolerance > 0)) {
+			throw new IllegalArgumentException(String.format("Tolerance was %s, but must be positive.", tolerance));
+		}
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * @return The maximal distance between the intersecting points of both
+	 *         curves.
+	 */
+	public double tolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * @return The number of intersections found by the last call.
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * @param i Index of the intersection, between 0 and {@link #count()} - 1.
+	 * @return Parameter t of the intersection on the first curve.
+	 */
+	public double firstT(int i) {
+		checkIndex(i);
+		return firstT[i];
+	}
+
+	/**
+	 * @param i Index of the intersection, between 0 and {@link #count()} - 1.
+	 * @return Parameter of the intersection on the second curve, resp. on the
+	 *         line segment.
+	 */
+	public double secondT(int i) {
+		checkIndex(i);
+		return secondT[i];
+	}
+
+	private void checkIndex(int i) {
+		if (i < 0 || i >= count) {
+			throw new IndexOutOfBoundsException(String.format("Index was %s, but must be between 0 and %s.", i, count - 1));
+		}
+	}
+
+	private void addResult(double t, double u) {
+		for (int i = 0; i < count; i++) {
+			if (Math.abs(firstT[i] - t) <= SAME_PARAMETER && Math.abs(secondT[i] - u) <= SAME_PARAMETER) {
+				return;
+			}
+		}
+		if (count == firstT.length) {
+			firstT = Arrays.copyOf(firstT, 2 * count);
+			secondT = Arrays.copyOf(secondT, 2 * count);
+		}
+		firstT[count] = t;
+		secondT[count++] = u;
+	}
+
+	/**
+	 * Sorts the results by the parameter on the first curve.
+	 */
+	private void sortResults() {
+		for (int i = 1; i < count; i++) {
+			double t = firstT[i];
+			double u = secondT[i];
+			int k = i - 1;
+			while (k >= 0 && firstT[k] > t) {
+				firstT[k + 1] = firstT[k];
+				secondT[k + 1] = secondT[k];
+				k--;
+			}
+			firstT[k + 1] = t;
+			secondT[k + 1] = u;
+		}
+	}
+
+	private static double[] ensureCapacity(double[] buffer, int needed) {
+		return (buffer.length < needed) ? new double[needed] : buffer;
+	}
+
+	/**
+	 * Finds the intersections of two curves.
+	 * 
+	 * @param first  The first curve.
+	 * @param second The second curve.
+	 * @return The number of intersections. Their parameters are available with
+	 *         {@link #firstT(int)} and {@link #secondT(int)} in ascending order
+	 *         of the first.
+	 */
+	public int intersect(Bezier first, Bezier second) {
+		this.first = first;
+		this.second = second;
+		firstCount = first.controlPoints().size();
+		secondCount = second.controlPoints().size();
+		firstX = ensureCapacity(firstX, (MAX_DEPTH + 1) * firstCount);
+		firstY = ensureCapacity(firstY, (MAX_DEPTH + 1) * firstCount);
+		secondX = ensureCapacity(secondX, (MAX_DEPTH + 1) * secondCount);
+		secondY = ensureCapacity(secondY, (MAX_DEPTH + 1) * secondCount);
+		System.arraycopy(first.controlPoints().xValues(), 0, firstX, 0, firstCount);
+		System.arraycopy(first.controlPoints().yValues(), 0, firstY, 0, firstCount);
+		System.arraycopy(second.controlPoints().xValues(), 0, secondX, 0, secondCount);
+		System.arraycopy(second.controlPoints().yValues(), 0, secondY, 0, secondCount);
+		count = 0;
+		findOverlap();
+		intersect(0, 0, 1, 0, 1);
+		sortResults();
+		this.first = null;
+		this.second = null;
+		return count;
+	}
+
+	private int addOverlapCandidate(double t, double u, int candidates) {
+		for (int i = 0; i < candidates; i++) {
+			if (Math.abs(overlapT[i] - t) <= SAME_PARAMETER && Math.abs(overlapU[i] - u) <= SAME_PARAMETER) {
+				return candidates;
+			}
+		}
+		overlapT[candidates] = t;
+		overlapU[candidates] = u;
+		return candidates + 1;
+	}
+
+	/**
+	 * Checks, whether the curves overlap between two of their end points. If
+	 * so, the end points of the overlap are added as results.
+	 */
+	private void findOverlap() {
+		overlapping = false;
+		int candidates = 0;
+		for (int end = 0; end <= 1; end++) {
+			second.project(first.xAt(end), first.yAt(end), projection);
+			if (projection[1] <= tolerance) {
+				candidates = addOverlapCandidate(end, projection[0], candidates);
+			}
+			first.project(second.xAt(end), second.yAt(end), projection);
+			if (projection[1] <= tolerance) {
+				candidates = addOverlapCandidate(projection[0], end, candidates);
+			}
+		}
+		if (candidates != 2 || Math.abs(overlapT[1] - overlapT[0]) <= SAME_PARAMETER) {
+			return;
+		}
+		for (int i = 1; i < OVERLAP_SAMPLES; i++) {
+			double t = overlapT[0] + (overlapT[1] - overlapT[0]) * i / OVERLAP_SAMPLES;
+			second.project(first.xAt(t), first.yAt(t), projection);
+			if (projection[1] > tolerance) {
+				// Both curves only meet at the end points.
+				return;
+			}
+		}
+		overlapping = true;
+		overlapT0 = Math.min(overlapT[0], overlapT[1]);
+		overlapT1 = Math.max(overlapT[0], overlapT[1]);
+		overlapU0 = Math.min(overlapU[0], overlapU[1]);
+		overlapU1 = Math.max(overlapU[0], overlapU[1]);
+		addResult(overlapT[0], overlapU[0]);
+		addResult(overlapT[1], overlapU[1]);
+	}
+
+	/**
+	 * @return true, if both parts are within the overlap of the curves.
+	 */
+	private boolean withinOverlap(double t0, double t1, double u0, double u1) {
+		return overlapping && t0 >= overlapT0 && t1 <= overlapT1 && u0 >= overlapU0 && u1 <= overlapU1;
+	}
+
+	/**
+	 * Intersects the parts at the given depth. The first part covers [t0, t1] of
+	 * the first curve, the second part [u0, u1] of the second curve.
+	 */
+	private void intersect(int depth, double t0, double t1, double u0, double u1) {
+		int firstOffset = depth * firstCount;
+		int secondOffset = depth * secondCount;
+		if (withinOverlap(t0, t1, u0, u1) || !boxesIntersect(firstOffset, secondOffset)
+		    || outsideFatLine(firstX, firstY, firstOffset, firstCount, secondX, secondY, secondOffset, secondCount)
+		    || outsideFatLine(secondX, secondY, secondOffset, secondCount, firstX, firstY, firstOffset, firstCount)) {
+			return;
+		}
+		double firstSize = flatness(firstX, firstY, firstOffset, firstCount);
+		double secondSize = flatness(secondX, secondY, secondOffset, secondCount);
+		if (depth == MAX_DEPTH || (firstSize <= tolerance && secondSize <= tolerance)) {
+			intersectChords(firstOffset, secondOffset, t0, t1, u0, u1);
+			return;
+		}
+		int next = depth + 1;
+		if (firstSize >= secondSize) {
+			double middle = (t0 + t1) / 2;
+			// The left half goes to the next level, the right one stays in place.
+			BernsteinPolynomial.subdivide(firstX, firstOffset, firstCount, 0.5, firstX, next * firstCount);
+			BernsteinPolynomial.subdivide(firstY, firstOffset, firstCount, 0.5, firstY, next * firstCount);
+			copySecond(depth);
+			intersect(next, t0, middle, u0, u1);
+			copyFirst(depth);
+			copySecond(depth);
+			intersect(next, middle, t1, u0, u1);
+		} else {
+			double middle = (u0 + u1) / 2;
+			BernsteinPolynomial.subdivide(secondX, secondOffset, secondCount, 0.5, secondX, next * secondCount);
+			BernsteinPolynomial.subdivide(secondY, secondOffset, secondCount, 0.5, secondY, next * secondCount);
+			copyFirst(depth);
+			intersect(next, t0, t1, u0, middle);
+			copyFirst(depth);
+			copySecond(depth);
+			intersect(next, t0, t1, middle, u1);
+		}
+	}
+
+	private void copyFirst(int depth) {
+		System.arraycopy(firstX, depth * firstCount, firstX, (depth + 1) * firstCount, firstCount);
+		System.arraycopy(firstY, depth * firstCount, firstY, (depth + 1) * firstCount, firstCount);
+	}
+
+	private void copySecond(int depth) {
+		System.arraycopy(secondX, depth * secondCount, secondX, (depth + 1) * secondCount, secondCount);
+		System.arraycopy(secondY, depth * secondCount, secondY, (depth + 1) * secondCount, secondCount);
+	}
+
+	private boolean boxesIntersect(int firstOffset, int secondOffset) {
+		return rangesIntersect(firstX, firstOffset, firstCount, secondX, secondOffset, secondCount)
+		    && rangesIntersect(firstY, firstOffset, firstCount, secondY, secondOffset, secondCount);
+	}
+
+	private boolean rangesIntersect(double[] a, int aOffset, int aCount, double[] b, int bOffset, int bCount) {
+		double aMin = Double.MAX_VALUE;
+		double aMax = -Double.MAX_VALUE;
+		for (int i = aOffset; i < aOffset + aCount; i++) {
+			aMin = Math.min(aMin, a[i]);
+			aMax = Math.max(aMax, a[i]);
+		}
+		double bMin = Double.MAX_VALUE;
+		double bMax = -Double.MAX_VALUE;
+		for (int i = bOffset; i < bOffset + bCount; i++) {
+			bMin = Math.min(bMin, b[i]);
+			bMax = Math.max(bMax, b[i]);
+		}
+		return aMin <= bMax + tolerance && bMin <= aMax + tolerance;
+	}
+
+	/**
+	 * Checks, whether all control points of the other part lie on one side
+	 * outside of the fat line of the part.
+	 */
+	private boolean outsideFatLine(double[] xs, double[] ys, int offset, int size, double[] otherXs,
+	    double[] otherYs, int otherOffset, int otherSize) {
+		int last = offset + size - 1;
+		double nx = ys[offset] - ys[last];
+		double ny = xs[last] - xs[offset];
+		double length = Math.sqrt(nx * nx + ny * ny);
+		if (length == 0) {
+			return false;
+		}
+		nx /= length;
+		ny /= length;
+		double minDistance = 0;
+		double maxDistance = 0;
+		for (int i = offset + 1; i < last; i++) {
+			double distance = (xs[i] - xs[offset]) * nx + (ys[i] - ys[offset]) * ny;
+			minDistance = Math.min(minDistance, distance);
+			maxDistance = Math.max(maxDistance, distance);
+		}
+		boolean above = true;
+		boolean below = true;
+		for (int i = otherOffset; i < otherOffset + otherSize; i++) {
+			double distance = (otherXs[i] - xs[offset]) * nx + (otherYs[i] - ys[offset]) * ny;
+			above &= distance > maxDistance + tolerance;
+			below &= distance < minDistance - tolerance;
+		}
+		return above || below;
+	}
+
+	/**
+	 * Gets the maximal distance of the control points to the chord of the part.
+	 * For a closed part, this is the distance to the start point.
+	 */
+	private static double flatness(double[] xs, double[] ys, int offset, int size) {
+		int last = offset + size - 1;
+		double dx = xs[last] - xs[offset];
+		double dy = ys[last] - ys[offset];
+		double length = Math.sqrt(dx * dx + dy * dy);
+		double max = 0;
+		for (int i = offset + 1; i < last; i++) {
+			double px = xs[i] - xs[offset];
+			double py = ys[i] - ys[offset];
+			double distance = (length > 0) ? Math.abs(px * dy - py * dx) / length : Math.sqrt(px * px + py * py);
+			max = Math.max(max, distance);
+		}
+		return max;
+	}
+
+	/**
+	 * Intersects the chords of both parts, maps the result to the parameters of
+	 * the curves and polishes it.
+	 */
+	private void intersectChords(int firstOffset, int secondOffset, double t0, double t1, double u0, double u1) {
+		int firstLast = firstOffset + firstCount - 1;
+		int secondLast = secondOffset + secondCount - 1;
+		double px = firstX[firstOffset];
+		double py = firstY[firstOffset];
+		double rx = firstX[firstLast] - px;
+		double ry = firstY[firstLast] - py;
+		double qx = secondX[secondOffset];
+		double qy = secondY[secondOffset];
+		double sx = secondX[secondLast] - qx;
+		double sy = secondY[secondLast] - qy;
+		double denominator = rx * sy - ry * sx;
+		double a = 0.5;
+		double b = 0.5;
+		if (denominator != 0) {
+			a = Math.min(1, Math.max(0, ((qx - px) * sy - (qy - py) * sx) / denominator));
+			b = Math.min(1, Math.max(0, ((qx - px) * ry - (qy - py) * rx) / denominator));
+		}
+		polish(t0 + a * (t1 - t0), u0 + b * (u1 - u0));
+	}
+
+	/**
+	 * Refines the parameters with Newton's method on first(t) - second(u) = 0
+	 * and accepts them, if both points are within the tolerance and not within
+	 * the overlap of the curves.
+	 */
+	private void polish(double t, double u) {
+		for (int i = 0; i < MAX_POLISH_ITERATIONS; i++) {
+			double fx = first.xAt(t) - second.xAt(u);
+			double fy = first.yAt(t) - second.yAt(u);
+			double ax = first.dxAt(t);
+			double ay = first.dyAt(t);
+			double bx = -second.dxAt(u);
+			double by = -second.dyAt(u);
+			double determinant = ax * by - ay * bx;
+			if (determinant == 0) {
+				break;
+			}
+			double nextT = Math.min(1, Math.max(0, t - (fx * by - fy * bx) / determinant));
+			double nextU = Math.min(1, Math.max(0, u - (ax * fy - ay * fx) / determinant));
+			boolean converged = nextT == t && nextU == u;
+			t = nextT;
+			u = nextU;
+			if (converged) {
+				break;
+			}
+		}
+		double dx = first.xAt(t) - second.xAt(u);
+		double dy = first.yAt(t) - second.yAt(u);
+		// Points within the overlap are represented by its end points.
+		if (dx * dx + dy * dy <= tolerance * tolerance && !withinOverlap(t, t, u, u)) {
+			addResult(t, u);
+		}
+	}
+
+	/**
+	 * Finds the intersections of a curve and the line segment from (x0, y0) to
+	 * (x1, y1).
+	 * 
+	 * @param bezier The curve.
+	 * @param x0     x of the start point of the segment.
+	 * @param y0     y of the start point of the segment.
+	 * @param x1     x of the end point of the segment.
+	 * @param y1     y of the end point of the segment.
+	 * @return The number of intersections. Their parameters are available with
+	 *         {@link #firstT(int)} (on the curve) and {@link #secondT(int)} (on
+	 *         the segment, 0 at the start point, 1 at the end point) in
+	 *         ascending order of the first.
+	 */
+	public int intersectLine(Bezier bezier, double x0, double y0, double x1, double y1) {
+		double dx = x1 - x0;
+		double dy = y1 - y0;
+		double lengthSquare = dx * dx + dy * dy;
+		if (lengthSquare == 0) {
+			throw new IllegalArgumentException(String.format("Line segment (%s, %s) has a length of 0.", x0, y0));
+		}
+		PointBuffer controlPoints = bezier.controlPoints();
+		int size = controlPoints.size();
+		firstX = ensureCapacity(firstX, size);
+		// Signed distances (times length) of the control points to the line.
+		for (int i = 0; i < size; i++) {
+			firstX[i] = (controlPoints.x(i) - x0) * dy - (controlPoints.y(i) - y0) * dx;
+		}
+		count = 0;
+		if (size >= 2 && size <= 4) {
+			int found = solveCubic(firstX, size);
+			for (int i = 0; i < found; i++) {
+				double t = roots[i];
+				if (t >= -Polynomials.UNIT_INTERVAL_TOLERANCE && t <= 1 + Polynomials.UNIT_INTERVAL_TOLERANCE) {
+					addLineResult(bezier, Math.min(1, Math.max(0, t)), x0, y0, dx, dy, lengthSquare);
+				}
+			}
+		} else {
+			for (double t : new BernsteinPolynomial(Arrays.copyOf(firstX, size)).roots()) {
+				addLineResult(bezier, t, x0, y0, dx, dy, lengthSquare);
+			}
+		}
+		sortResults();
+		return count;
+	}
+
+	/**
+	 * Solves the distance polynomial for degree 1 to 3 with Cardano's method
+	 * after elevating it to degree 3.
+	 */
+	private int solveCubic(double[] distances, int size) {
+		double c0 = distances[0];
+		double c3 = distances[size - 1];
+		double c1;
+		double c2;
+		if (size == 2) {
+			c1 = (2 * c0 + c3) / 3;
+			c2 = (c0 + 2 * c3) / 3;
+		} else if (size == 3) {
+			c1 = (c0 + 2 * distances[1]) / 3;
+			c2 = (2 * distances[1] + c3) / 3;
+		} else {
+			c1 = distances[1];
+			c2 = distances[2];
+		}
+		return Polynomials.solveCubic(-c0 + 3 * c1 - 3 * c2 + c3, 3 * c0 - 6 * c1 + 3 * c2, -3 * c0 + 3 * c1, c0, roots);
+	}
+
+	private void addLineResult(Bezier bezier, double t, double x0, double y0, double dx, double dy,
+	    double lengthSquare) {
+		double s = ((bezier.xAt(t) - x0) * dx + (bezier.yAt(t) - y0) * dy) / lengthSquare;
+		double slack = tolerance / Math.sqrt(lengthSquare);
+		if (s >= -slack && s <= 1 + slack) {
+			addResult(t, Math.min(1, Math.max(0, s)));
+		}
+	}
+
+	/**
+	 * Creates an intersector with the given tolerance.
+	 * 
+	 * @param tolerance Maximal distance between the intersecting points of both
+	 *                  curves, in the units of the curve's coordinates.
+	 * @return The intersector.
+	 */
+	public static BezierIntersector of(double tolerance) {
+		return new BezierIntersector(tolerance);
+	}
+
+	/**
+	 * @return An intersector with {@link #DEF_TOLERANCE}.
+	 */
+	public static BezierIntersector of() {
+		return of(DEF_TOLERANCE);
+	}
+
+}
@@ -0,0 +1,137 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+/**
+ * Answers y for x queries on a Bezier curve, which is monotone in x, with a
+ * precomputed table of samples.
+ * <p>
+ * The table holds x for equidistant values of t. A query searches the sample
+ * interval containing x, interpolates t linearly in it and refines t with a
+ * single Newton step. This is the way, browsers implement css
+ * <code>cubic-bezier()</code> easing and makes each query nearly constant in
+ * time.
+ * <p>
+ * The table is built once under construction and immutable afterwards, so it
+ * can be shared between threads.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierLookupTable {
+
+	/**
+	 * Minimal number of samples in a table.
+	 */
+	public static final int MIN_SIZE = 11;
+
+	/**
+	 * Maximal number of samples in a table.
+	 */
+	public static final int MAX_SIZE = 1024;
+
+	/**
+	 * Number of samples, used by {@link Bezier#lookupTable()}.
+	 */
+	public static final int DEF_SIZE = 101;
+
+	private final Bezier bezier;
+	private final double[] xs;
+	private final double dt;
+
+	private BezierLookupTable(Bezier bezier, int size) {
+		if (size < MIN_SIZE || size > MAX_SIZE) {
+			throw new IllegalArgumentException(
+			    String.format("Size was %s, but must be between %s and %s.", size, MIN_SIZE, MAX_SIZE));
+		}
+		this.bezier = bezier;
+		this.xs = new double[size];
+		this.dt = 1.0 / (size - 1);
+		bezier.sample(0, 1, size, xs, new double[size]);
+		checkMonotone();
+	}
+
+	private void checkMonotone() {
+		for (int i = 1; i < xs.length; i++) {
+			if (xs[i] < xs[i - 1]) {
+				throw new IllegalArgumentException(
+				    String.format("Curve is not monotone increasing in x near t=%s.", i * dt));
+			}
+		}
+	}
+
+	/**
+	 * @return The number of samples in the table.
+	 */
+	public int size() {
+		return xs.length;
+	}
+
+	/**
+	 * Index of the last sample with an x lower or equal to the given x.
+	 */
+	private int findInterval(double x) {
+		int low = 0;
+		int high = xs.length - 1;
+		while (high - low > 1) {
+			int middle = (low + high) >>> 1;
+			if (xs[middle] <= x) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Gets t for the given x.
+	 * 
+	 * @param x x-value for which the t-value is wanted. Must be within the x
+	 *          range of the curve.
+	 * @return t for x.
+	 */
+	public double tFromX(double x) {
+		if (x < xs[0] || x > xs[xs.length - 1]) {
+			throw new IllegalArgumentException(String.format("Parameter x was %s, but must be between %s and %s.", x,
+			    xs[0], xs[xs.length - 1]));
+		}
+		int i = findInterval(x);
+		double lowerT = i * dt;
+		double width = xs[i + 1] - xs[i];
+		double t = (width > 0) ? lowerT + (x - xs[i]) / width * dt : lowerT;
+		// One Newton step, as long as it stays in the interval.
+		double newton = t - (bezier.xAt(t) - x) / bezier.dxAt(t);
+		if (newton >= lowerT && newton <= lowerT + dt) {
+			t = newton;
+		}
+		return t;
+	}
+
+	/**
+	 * Gets y for the given x.
+	 * 
+	 * @param x x-value for which the y-value is wanted. Must be within the x
+	 *          range of the curve.
+	 * @return y for x.
+	 */
+	public double yFromX(double x) {
+		return bezier.yAt(tFromX(x));
+	}
+
+	/**
+	 * Creates a lookup table for the given curve.
+	 * 
+	 * @param bezier The curve, which must be monotone increasing in x.
+	 * @param size   Number of samples in the table, between {@link #MIN_SIZE}
+	 *               and {@link #MAX_SIZE}.
+	 * @return The lookup table.
+	 * @throws IllegalArgumentException If the size is out of range or the curve
+	 *                                  is not monotone in x.
+	 */
+	public static BezierLookupTable of(Bezier bezier, int size) {
+		return new BezierLookupTable(bezier, size);
+	}
+
+}
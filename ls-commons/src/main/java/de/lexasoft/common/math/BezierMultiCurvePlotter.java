@@ -0,0 +1,260 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Draws many Bezier curves into one image with a shared scale.
+ * <p>
+ * The viewport is the union of the exact bounding boxes of all curves, which
+ * are found analytically in one pass under the creation of the object. It is
+ * mapped into the image with a margin of 10% on each side, so that all curves
+ * are comparable and fit into the image.
+ * <p>
+ * Every plot samples each curve once and draws it as a polyline of its own, so
+ * curves are never connected with each other. Like {@link BezierCurvePlotter},
+ * the curves are drawn either segment by segment with {@link #plot()}, tile by
+ * tile in parallel with {@link #plotTiled()} or directly into the pixel array
+ * with {@link #plotRaster(boolean)}.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierMultiCurvePlotter {
+
+	/**
+	 * Number of points, calculated for each curve.
+	 */
+	private static final int CURVE_POINTS = 1001;
+
+	/**
+	 * Receives the points of one curve in pixels.
+	 */
+	private interface PolylineConsumer {
+		void accept(int[] xs, int[] ys, double[] exactXs, double[] exactYs);
+	}
+
+	private final Bezier[] curves;
+	private final BoundingBox viewport;
+	private final BufferedImage image;
+	private final Graphics graphics;
+	private final double factorX;
+	private final double offsetX;
+	private final double factorY;
+	private final double offsetY;
+	private final double[] curveX = new double[CURVE_POINTS];
+	private final double[] curveY = new double[CURVE_POINTS];
+	private final int[] pixelX = new int[CURVE_POINTS];
+	private final int[] pixelY = new int[CURVE_POINTS];
+	private final double[] exactX = new double[CURVE_POINTS];
+	private final double[] exactY = new double[CURVE_POINTS];
+	/**
+	 * Renderers of the image, created on first use and reused by every plot.
+	 */
+	private TiledLineRenderer tiledRenderer;
+	private RasterLineRenderer rasterRenderer;
+
+	/**
+	 * 
+	 */
+	protected BezierMultiCurvePlotter(List<? extends Bezier> curves, BufferedImage image, Graphics graphics) {
+		if (curves.isEmpty()) {
+			throw new IllegalArgumentException("At least one curve is needed to plot.");
+		}
+		this.curves = curves.toArray(new Bezier[curves.size()]);
+		this.viewport = calcViewport(this.curves);
+		this.image = image;
+		this.graphics = graphics;
+		this.factorX = calcFactor(viewport.width(), image.getWidth());
+		this.offsetX = calcOffset(viewport.width(), image.getWidth());
+		this.factorY = calcFactor(viewport.height(), image.getHeight());
+		this.offsetY = calcOffset(viewport.height(), image.getHeight());
+	}
+
+	private static BoundingBox calcViewport(Bezier[] curves) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (Bezier curve : curves) {
+			BoundingBox bounds = curve.bounds();
+			minX = Math.min(minX, bounds.minX());
+			minY = Math.min(minY, bounds.minY());
+			maxX = Math.max(maxX, bounds.maxX());
+			maxY = Math.max(maxY, bounds.maxY());
+		}
+		return BoundingBox.of(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * A viewport without extent in one dimension is put into the middle of the
+	 * image.
+	 */
+	private static double calcFactor(double extent, int dimension) {
+		return extent > 0 ? dimension / extent * 0.8 : 0;
+	}
+
+	private static double calcOffset(double extent, int dimension) {
+		return dimension * (extent > 0 ? 0.1 : 0.5);
+	}
+
+	/**
+	 * @return The number of curves to plot.
+	 */
+	public int size() {
+		return curves.length;
+	}
+
+	/**
+	 * @return The union of the bounding boxes of all curves, which is mapped into
+	 *         the image.
+	 */
+	public BoundingBox viewport() {
+		return viewport;
+	}
+
+	/**
+	 * Samples every curve once, maps its points into the image and hands them to
+	 * the consumer. The pixels are rounded like in {@link BezierCurvePlotter},
+	 * the exact points have the centers of the pixels at integer coordinates.
+	 */
+	private void mapCurves(PolylineConsumer consumer) {
+		int height = image.getHeight();
+		for (Bezier curve : curves) {
+			curve.sample(0, 1, CURVE_POINTS, curveX, curveY);
+			for (int i = 0; i < CURVE_POINTS; i++) {
+				double x = (curveX[i] - viewport.minX()) * factorX + offsetX;
+				double y = (curveY[i] - viewport.minY()) * factorY + offsetY;
+				pixelX[i] = (int) x;
+				// Horizontally mirrored
+				pixelY[i] = height - (int) y;
+				exactX[i] = x - 0.5;
+				exactY[i] = height - y + 0.5;
+			}
+			consumer.accept(pixelX, pixelY, exactX, exactY);
+		}
+	}
+
+	/**
+	 * Plots all curves into the image, given or created under the creation of
+	 * the object, segment by segment in the calling thread.
+	 * 
+	 * @return Image with the curves plotted.
+	 */
+	public BufferedImage plot() {
+		mapCurves((xs, ys, exactXs, exactYs) -> {
+			graphics.drawLine(xs[0], ys[0], xs[0], ys[0]);
+			for (int i = 1; i < CURVE_POINTS; i++) {
+				graphics.drawLine(xs[i - 1], ys[i - 1], xs[i], ys[i]);
+			}
+		});
+		return image;
+	}
+
+	/**
+	 * Plots the curves with tiles of {@link TiledLineRenderer#DEF_TILE_SIZE}
+	 * pixels.
+	 * 
+	 * @return Image with the curves plotted.
+	 * @see #plotTiled(int)
+	 */
+	public BufferedImage plotTiled() {
+		return plotTiled(TiledLineRenderer.DEF_TILE_SIZE);
+	}
+
+	/**
+	 * Plots all curves into the image like {@link #plot()}, but splits the image
+	 * into square tiles, which are drawn in parallel in the common
+	 * {@link java.util.concurrent.ForkJoinPool}. Every segment of the curves is
+	 * only drawn in the tiles, its bounding box overlaps. The image is pixel
+	 * identical to the one of {@link #plot()}.
+	 * 
+	 * @param tileSize Edge length of a tile in pixels.
+	 * @return Image with the curves plotted.
+	 */
+	public BufferedImage plotTiled(int tileSize) {
+		if (tiledRenderer == null || tiledRenderer.tileSize() != tileSize) {
+			tiledRenderer = TiledLineRenderer.of(image.getWidth(), image.getHeight(), tileSize);
+		} else {
+			tiledRenderer.clear();
+		}
+		TiledLineRenderer renderer = tiledRenderer;
+		mapCurves((xs, ys, exactXs, exactYs) -> renderer.addPolyline(xs, ys, CURVE_POINTS));
+		renderer.render(graphics, true);
+		return image;
+	}
+
+	/**
+	 * Plots all curves into the image like {@link #plot()}, but writes the pixels
+	 * directly into the pixel array of the image. Only the color of the graphics
+	 * is used.
+	 * <p>
+	 * Without anti-aliasing, the image is pixel identical to the one of
+	 * {@link #plot()}. With anti-aliasing, each curve is drawn through its
+	 * sampled points without rounding them to pixels and blended on its own.
+	 * 
+	 * @param antiAliased True to draw anti-aliased lines.
+	 * @return Image with the curves plotted.
+	 * @throws IllegalArgumentException If the image is neither of type
+	 *                                  {@link BufferedImage#TYPE_INT_RGB} nor
+	 *                                  {@link BufferedImage#TYPE_INT_ARGB}.
+	 */
+	public BufferedImage plotRaster(boolean antiAliased) {
+		if (rasterRenderer == null) {
+			rasterRenderer = RasterLineRenderer.of(image);
+		}
+		RasterLineRenderer renderer = rasterRenderer;
+		int argb = graphics.getColor().getRGB();
+		mapCurves((xs, ys, exactXs, exactYs) -> {
+			if (antiAliased) {
+				renderer.drawPolylineAntiAliased(exactXs, exactYs, CURVE_POINTS, argb);
+			} else {
+				renderer.drawPolyline(xs, ys, CURVE_POINTS, argb);
+			}
+		});
+		return image;
+	}
+
+	/**
+	 * Saves the image, formerly plotted to the file system with the given file
+	 * name.
+	 * 
+	 * @param fileName File name to write the image to.
+	 * @throws IOException
+	 */
+	public void saveImageToFileSystem(String fileName) throws IOException {
+		PlotterImages.save(image, fileName);
+	}
+
+	/**
+	 * Creates a {@link BezierMultiCurvePlotter} with the given curves and the
+	 * given image.
+	 * 
+	 * @param curves The curves to plot, at least one.
+	 * @param image  The image to write the curves to.
+	 * @return A {@link BezierMultiCurvePlotter} object ready to use.
+	 */
+	public static BezierMultiCurvePlotter of(List<? extends Bezier> curves, BufferedImage image) {
+		return new BezierMultiCurvePlotter(curves, image, image.getGraphics());
+	}
+
+	/**
+	 * Creates a {@link BezierMultiCurvePlotter} with the given curves. It uses a
+	 * new image with the given dimensions width and height.
+	 * 
+	 * @param curves The curves to plot, at least one.
+	 * @param width  The width of the image to plot the curves in.
+	 * @param height The height of the image to plot the curves in.
+	 * @return A {@link BezierMultiCurvePlotter} object ready to use.
+	 */
+	public static BezierMultiCurvePlotter of(List<? extends Bezier> curves, int width, int height) {
+		BufferedImage image = PlotterImages.create(width, height);
+		return new BezierMultiCurvePlotter(curves, image, PlotterImages.blackGraphics(image));
+	}
+
+}
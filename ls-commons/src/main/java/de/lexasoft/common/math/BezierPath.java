@@ -0,0 +1,373 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.List;
+
+/**
+ * A path of Bezier curves (segments), where each segment starts at the end
+ * point of the previous one.
+ * <p>
+ * The path is parameterized globally with t between 0 and the number of
+ * segments: Segment i covers [i, i + 1]. Lookups by x and by length find the
+ * segment by binary search over precomputed tables, so they take O(log n) for
+ * n segments. The cumulative lengths are calculated with the first call of one
+ * of the length methods, the bounding boxes of the segments under
+ * construction. They are kept in one array, so projecting a point onto the path
+ * rejects the segments by their boxes without touching the curves.
+ * <p>
+ * A path is immutable and can be shared between threads.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierPath {
+
+	/**
+	 * Maximal distance between the end point of a segment and the start point of
+	 * the next one.
+	 */
+	public static final double CONTINUITY_TOLERANCE = 1e-9;
+
+	private final Bezier[] segments;
+	private final double[] startX;
+	private final boolean increasingInX;
+	/**
+	 * minX, minY, maxX and maxY of each segment one after the other.
+	 */
+	private final double[] segmentBounds;
+	private final BoundingBox bounds;
+	private volatile double[] cumulativeLengths;
+
+	private BezierPath(Bezier[] segments) {
+		if (segments.length == 0) {
+			throw new IllegalArgumentException("A path needs at least one segment.");
+		}
+		this.segments = segments;
+		this.startX = new double[segments.length + 1];
+		this.segmentBounds = new double[4 * segments.length];
+		boolean increasing = true;
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < segments.length; i++) {
+			Bezier segment = segments[i];
+			if (i > 0) {
+				checkContinuity(i);
+			}
+			BoundingBox box = segment.bounds();
+			segmentBounds[4 * i] = box.minX();
+			segmentBounds[4 * i + 1] = box.minY();
+			segmentBounds[4 * i + 2] = box.maxX();
+			segmentBounds[4 * i + 3] = box.maxY();
+			minX = Math.min(minX, box.minX());
+			minY = Math.min(minY, box.minY());
+			maxX = Math.max(maxX, box.maxX());
+			maxY = Math.max(maxY, box.maxY());
+			startX[i] = segment.controlPoints().x(0);
+			// Also checks the end points, segments are continuous.
+			increasing &= segment.isIncreasingInX();
+		}
+		PointBuffer last = segments[segments.length - 1].controlPoints();
+		startX[segments.length] = last.x(last.size() - 1);
+		this.increasingInX = increasing;
+		this.bounds = BoundingBox.of(minX, minY, maxX, maxY);
+	}
+
+	private void checkContinuity(int i) {
+		// The end points of a curve are its first and last control points.
+		PointBuffer previous = segments[i - 1].controlPoints();
+		PointBuffer segment = segments[i].controlPoints();
+		int end = previous.size() - 1;
+		if (Math.abs(segment.x(0) - previous.x(end)) > CONTINUITY_TOLERANCE
+		    || Math.abs(segment.y(0) - previous.y(end)) > CONTINUITY_TOLERANCE) {
+			throw new IllegalArgumentException(
+			    String.format("Segment %s starts at (%s, %s), but the previous one ends at (%s, %s).", i, segment.x(0),
+			        segment.y(0), previous.x(end), previous.y(end)));
+		}
+	}
+
+	/**
+	 * @return The number of segments.
+	 */
+	public int segmentCount() {
+		return segments.length;
+	}
+
+	/**
+	 * @param i Index of the segment, between 0 and {@link #segmentCount()} - 1.
+	 * @return The segment.
+	 */
+	public Bezier segment(int i) {
+		return segments[i];
+	}
+
+	/**
+	 * @return The bounding box of all segments.
+	 */
+	public BoundingBox bounds() {
+		return bounds;
+	}
+
+	/**
+	 * @param i Index of the segment, between 0 and {@link #segmentCount()} - 1.
+	 * @return The bounding box of the segment.
+	 */
+	public BoundingBox segmentBounds(int i) {
+		return BoundingBox.of(segmentBounds[4 * i], segmentBounds[4 * i + 1], segmentBounds[4 * i + 2],
+		    segmentBounds[4 * i + 3]);
+	}
+
+	/**
+	 * Squared distance of the point (px, py) to the bounding box of segment i.
+	 */
+	private double boundsDistanceSquare(int i, double px, double py) {
+		double dx = Math.max(0, Math.max(segmentBounds[4 * i] - px, px - segmentBounds[4 * i + 2]));
+		double dy = Math.max(0, Math.max(segmentBounds[4 * i + 1] - py, py - segmentBounds[4 * i + 3]));
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Projects the point (px, py) onto the path. Segments, whose bounding box is
+	 * farther away than the closest point found so far, are skipped.
+	 * 
+	 * @param px  x of the point.
+	 * @param py  y of the point.
+	 * @param out Receives the global t of the closest point at index 0 and its
+	 *            distance to (px, py) at index 1.
+	 * @see Bezier#project(double, double, double[])
+	 */
+	public void project(double px, double py, double[] out) {
+		double bestT = 0;
+		double bestDistance = Double.MAX_VALUE;
+		for (int i = 0; i < segments.length; i++) {
+			double boundsDistance = boundsDistanceSquare(i, px, py);
+			if (boundsDistance < bestDistance * bestDistance) {
+				segments[i].project(px, py, out);
+				if (out[1] < bestDistance) {
+					bestDistance = out[1];
+					bestT = i + out[0];
+				}
+			}
+		}
+		out[0] = bestT;
+		out[1] = bestDistance;
+	}
+
+	private void checkT(double t) {
+		if (t < 0 || t > segments.length) {
+			throw new IllegalArgumentException(
+			    String.format("Parameter t was %s, but must be between 0 and %s.", t, segments.length));
+		}
+	}
+
+	/**
+	 * Index of the segment containing the global parameter t. The end of a
+	 * segment belongs to the next one, except for the last.
+	 */
+	private int segmentIndex(double t) {
+		return Math.min((int) t, segments.length - 1);
+	}
+
+	/**
+	 * @param t The global parameter between 0 and {@link #segmentCount()}.
+	 * @return x of the path at t.
+	 */
+	public double x(double t) {
+		checkT(t);
+		int i = segmentIndex(t);
+		return segments[i].xAt(t - i);
+	}
+
+	/**
+	 * @param t The global parameter between 0 and {@link #segmentCount()}.
+	 * @return y of the path at t.
+	 */
+	public double y(double t) {
+		checkT(t);
+		int i = segmentIndex(t);
+		return segments[i].yAt(t - i);
+	}
+
+	/**
+	 * @param t The global parameter between 0 and {@link #segmentCount()}.
+	 * @return The point of the path at t.
+	 */
+	public Point point(double t) {
+		checkT(t);
+		int i = segmentIndex(t);
+		return Point.of(segments[i].xAt(t - i), segments[i].yAt(t - i));
+	}
+
+	/**
+	 * @return true, if x never decreases along the path. Only then
+	 *         {@link #yFromX(double)} can be used.
+	 */
+	public boolean isIncreasingInX() {
+		return increasingInX;
+	}
+
+	/**
+	 * Gets y for the given x on a path, which is increasing in x. The segment is
+	 * found by binary search over the start points of the segments, t within the
+	 * segment by {@link Bezier#solveTFromX(double, BezierSolverConfig)} with
+	 * {@link BezierSolverConfig#BALANCED}.
+	 * 
+	 * @param x x-value for which the y-value is wanted.
+	 * @return y for x.
+	 * @throws MathException If x can not be found in the segment.
+	 */
+	public double yFromX(double x) throws MathException {
+		return yFromX(x, BezierSolverConfig.BALANCED);
+	}
+
+	/**
+	 * Gets y for the given x on a path, which is increasing in x, with the given
+	 * accuracy settings.
+	 * 
+	 * @param x      x-value for which the y-value is wanted.
+	 * @param config The accuracy settings.
+	 * @return y for x.
+	 * @throws MathException If x can not be found in the segment.
+	 * @see #yFromX(double)
+	 */
+	public double yFromX(double x, BezierSolverConfig config) throws MathException {
+		if (!increasingInX) {
+			throw new IllegalStateException("Path is not increasing in x.");
+		}
+		if (x < startX[0] || x > startX[segments.length]) {
+			throw new IllegalArgumentException(String.format("Parameter x was %s, but must be between %s and %s.", x,
+			    startX[0], startX[segments.length]));
+		}
+		int i = Math.min(lastNotAbove(startX, segments.length, x), segments.length - 1);
+		Bezier segment = segments[i];
+		return segment.yAt(segment.solveTFromX(x, config));
+	}
+
+	/**
+	 * Index of the last value in values[0..last] lower or equal to the given one.
+	 * The first value must be lower or equal to it.
+	 */
+	private static int lastNotAbove(double[] values, int last, double value) {
+		int low = 0;
+		int high = last;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (values[middle] <= value) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Lengths of the path from the start to the start of each segment, the last
+	 * element holds the length of the whole path.
+	 */
+	private double[] cumulativeLengths() {
+		double[] lengths = cumulativeLengths;
+		if (lengths == null) {
+			// Calculating the table twice in a race does no harm.
+			lengths = new double[segments.length + 1];
+			for (int i = 0; i < segments.length; i++) {
+				lengths[i + 1] = lengths[i] + segments[i].length();
+			}
+			cumulativeLengths = lengths;
+		}
+		return lengths;
+	}
+
+	/**
+	 * @return The length of the whole path.
+	 */
+	public double length() {
+		return cumulativeLengths()[segments.length];
+	}
+
+	/**
+	 * The length of the path from the start to t.
+	 * 
+	 * @param t The global parameter between 0 and {@link #segmentCount()}.
+	 * @return The length of the path from 0 to t.
+	 */
+	public double length(double t) {
+		checkT(t);
+		int i = segmentIndex(t);
+		return cumulativeLengths()[i] + segments[i].length(t - i);
+	}
+
+	/**
+	 * Gets the global t, where the path reaches the given length, measured from
+	 * the start. The segment is found by binary search over the cumulative
+	 * lengths.
+	 * 
+	 * @param length The length between 0 and {@link #length()}.
+	 * @return The global t for the given length.
+	 */
+	public double tAtLength(double length) {
+		double[] lengths = cumulativeLengths();
+		if (length < 0 || length > lengths[segments.length]) {
+			throw new IllegalArgumentException(
+			    String.format("Length was %s, but must be between 0 and %s.", length, lengths[segments.length]));
+		}
+		return tAtLength(lengths, length);
+	}
+
+	private double tAtLength(double[] lengths, double length) {
+		int i = Math.min(lastNotAbove(lengths, segments.length, length), segments.length - 1);
+		double local = Math.min(length - lengths[i], segments[i].length());
+		return i + segments[i].tAtLength(local);
+	}
+
+	/**
+	 * Samples the path at count points with equal distances along the path (from
+	 * start to end, both included).
+	 * 
+	 * @param count The number of samples, at least 1.
+	 * @param xs    Receives the x values. Must have at least count elements.
+	 * @param ys    Receives the y values. Must have at least count elements.
+	 */
+	public void sampleByLength(int count, double[] xs, double[] ys) {
+		if (count < 1 || xs.length < count || ys.length < count) {
+			throw new IllegalArgumentException(String.format(
+			    "Count was %s, but must be at least 1 and fit into arrays of length %s and %s.", count, xs.length,
+			    ys.length));
+		}
+		double[] lengths = cumulativeLengths();
+		double total = lengths[segments.length];
+		double step = (count > 1) ? total / (count - 1) : 0;
+		for (int k = 0; k < count; k++) {
+			double t = tAtLength(lengths, Math.min(k * step, total));
+			int i = segmentIndex(t);
+			xs[k] = segments[i].xAt(t - i);
+			ys[k] = segments[i].yAt(t - i);
+		}
+	}
+
+	/**
+	 * Creates a path from the given segments.
+	 * 
+	 * @param segments The segments, each one must start at the end point of the
+	 *                 previous one (within {@link #CONTINUITY_TOLERANCE}).
+	 * @return The path.
+	 */
+	public static BezierPath of(List<Bezier> segments) {
+		return new BezierPath(segments.toArray(new Bezier[0]));
+	}
+
+	/**
+	 * Creates a path from the given segments.
+	 * 
+	 * @param segments The segments, each one must start at the end point of the
+	 *                 previous one (within {@link #CONTINUITY_TOLERANCE}).
+	 * @return The path.
+	 */
+	public static BezierPath of(Bezier... segments) {
+		return new BezierPath(segments.clone());
+	}
+
+}
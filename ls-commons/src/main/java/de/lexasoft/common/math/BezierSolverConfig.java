@@ -0,0 +1,153 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+/**
+ * Accuracy settings for the iterative methods of {@link Bezier}, which search
+ * t for x or the closest point on a curve.
+ * <p>
+ * A configuration is immutable, so different threads can use different
+ * trade-offs between speed and accuracy at the same time. Prefer one of the
+ * presets or keep own configurations in static final fields, so the JIT can
+ * treat the settings as constants.
+ * 
+ * @author nierax
+ *
+ */
+public final class BezierSolverConfig {
+
+	/**
+	 * Coarse results with few iterations, f.ex. for animations on screen.
+	 */
+	public static final BezierSolverConfig FAST = new BezierSolverConfig(1e-3, 1e-4, 0.1, 16);
+
+	/**
+	 * The defaults of {@link Bezier}, which were formerly given by its static
+	 * fields.
+	 */
+	public static final BezierSolverConfig BALANCED = new BezierSolverConfig(1e-5, 1e-6, 0.1,
+	    Bezier.DEF_MAX_ITERATIONS);
+
+	/**
+	 * Results close to full double precision.
+	 */
+	public static final BezierSolverConfig PRECISE = new BezierSolverConfig(1e-12, 1e-13, 0.01, 128);
+
+	private final double accuracy;
+	private final double threshold;
+	private final double startDT;
+	private final int maxIterations;
+
+	private BezierSolverConfig(double accuracy, double threshold, double startDT, int maxIterations) {
+		checkPositive("Accuracy", accuracy);
+		checkPositive("Threshold", threshold);
+		checkPositive("Start dt", startDT);
+		if (maxIterations < 1) {
+			throw new IllegalArgumentException(
+			    String.format("Maximal iterations were %s, but must be at least 1.", maxIterations));
+		}
+		this.accuracy = accuracy;
+		this.threshold = threshold;
+		this.startDT = startDT;
+		this.maxIterations = maxIterations;
+	}
+
+	private static void checkPositive(String name, double value) {
+		if (!(value > 0)) {
+			throw new IllegalArgumentException(String.format("%s was %s, but must be positive.", name, value));
+		}
+	}
+
+	/**
+	 * @return Tolerance for the difference between the x found and the x
+	 *         expected, resp. for the last step of a projection.
+	 */
+	public double accuracy() {
+		return accuracy;
+	}
+
+	/**
+	 * @return The minimal step of t in {@link Bezier#tFromX2(double)} and the
+	 *         tolerance to accept one of the end points there.
+	 */
+	public double threshold() {
+		return threshold;
+	}
+
+	/**
+	 * @return The step of t to start the search of
+	 *         {@link Bezier#tFromX2(double)} with.
+	 */
+	public double startDT() {
+		return startDT;
+	}
+
+	/**
+	 * @return Maximal number of iterations of the Newton based methods.
+	 */
+	public int maxIterations() {
+		return maxIterations;
+	}
+
+	/**
+	 * @param accuracy The new accuracy.
+	 * @return A copy of this configuration with the given accuracy.
+	 */
+	public BezierSolverConfig withAccuracy(double accuracy) {
+		return new BezierSolverConfig(accuracy, threshold, startDT, maxIterations);
+	}
+
+	/**
+	 * @param maxIterations The new maximal number of iterations.
+	 * @return A copy of this configuration with the given maximal number of
+	 *         iterations.
+	 */
+	public BezierSolverConfig withMaxIterations(int maxIterations) {
+		return new BezierSolverConfig(accuracy, threshold, startDT, maxIterations);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Double.hashCode(accuracy);
+		result = 31 * result + Double.hashCode(threshold);
+		result = 31 * result + Double.hashCode(startDT);
+		return 31 * result + maxIterations;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BezierSolverConfig)) {
+			return false;
+		}
+		BezierSolverConfig other = (BezierSolverConfig) obj;
+		return Double.compare(accuracy, other.accuracy) == 0 && Double.compare(threshold, other.threshold) == 0
+		    && Double.compare(startDT, other.startDT) == 0 && maxIterations == other.maxIterations;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[accuracy=%s,threshold=%s,startDT=%s,maxIterations=%s]", accuracy, threshold, startDT,
+		    maxIterations);
+	}
+
+	/**
+	 * Creates a configuration with the given settings.
+	 * 
+	 * @param accuracy      Tolerance for the difference between the x found and
+	 *                      the x expected.
+	 * @param threshold     Minimal step of t in {@link Bezier#tFromX2(double)}.
+	 * @param startDT       Step of t to start {@link Bezier#tFromX2(double)}
+	 *                      with.
+	 * @param maxIterations Maximal number of iterations of the Newton based
+	 *                      methods.
+	 * @return The configuration.
+	 */
+	public static BezierSolverConfig of(double accuracy, double threshold, double startDT, int maxIterations) {
+		return new BezierSolverConfig(accuracy, threshold, startDT, maxIterations);
+	}
+
+}
@@ -0,0 +1,185 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+/**
+ * Evaluates one Bezier curve at many values of t, organized for the vector
+ * units of the processor.
+ * <p>
+ * The curve is held as polynomial in power basis. Up to degree 3, Horner's
+ * scheme runs with the coefficients in local variables; for higher degrees it
+ * runs coefficient by coefficient over blocks of values. Either way the
+ * innermost loops are plain element-wise array operations without
+ * dependencies between the elements. The JIT compiler translates such loops
+ * into SIMD instructions, evaluating several values of t per instruction.
+ * <p>
+ * There is deliberately no implementation with the incubator Vector API
+ * (jdk.incubator.vector): The library is built for Java 11, where the API
+ * doesn't exist, and on later versions it would force every user to start the
+ * JVM with --add-modules. The auto-vectorized loops need neither. The price is
+ * a smaller speed up, about 1.3 times the point by point evaluation of
+ * {@link Bezier} on the machine of the JMH benchmark BezierVectorBenchmark.
+ * <p>
+ * Curves with a degree above 6 are evaluated point by point, as the power
+ * basis is numerically unstable for them.
+ * <p>
+ * Objects of this class are immutable and can be shared between threads.
+ * 
+ * @author nierax
+ *
+ */
+public class BezierVectorEvaluator {
+
+	/**
+	 * Number of values of t, processed together. Small enough for the block of
+	 * t, x and y to stay in the first level cache.
+	 */
+	static final int BLOCK_SIZE = 512;
+
+	private final Bezier bezier;
+	private final double[] xCoefficients;
+	private final double[] yCoefficients;
+
+	private BezierVectorEvaluator(Bezier bezier) {
+		this.bezier = bezier;
+		this.xCoefficients = bezier.xPolynomial().powerCoefficients();
+		this.yCoefficients = bezier.yPolynomial().powerCoefficients();
+	}
+
+	/**
+	 * @return true, if the curve is evaluated with the vectorized loops, false if
+	 *         it is evaluated point by point due to its degree.
+	 */
+	public boolean isVectorized() {
+		return xCoefficients != null;
+	}
+
+	private static void checkArguments(double[] ts, int count, double[] xs, double[] ys) {
+		if (count < 0 || ts.length < count || xs.length < count || ys.length < count) {
+			throw new IllegalArgumentException(String.format(
+			    "Count %s doesn't fit to the array lengths %s, %s, %s.", count, ts.length, xs.length, ys.length));
+		}
+		// Without branches in the loop, the check can be vectorized as well. Both
+		// comparisons are false for NaN, so it is rejected, too.
+		boolean valid = true;
+		for (int i = 0; i < count; i++) {
+			double t = ts[i];
+			valid &= (t >= 0) & (t <= 1);
+		}
+		if (!valid) {
+			throw new IllegalArgumentException("All values of t must be between 0 and 1.");
+		}
+	}
+
+	/**
+	 * Horner's scheme with the coefficients held in local variables, so the loop
+	 * body is straight line code without dependencies between the elements.
+	 */
+	private static void horner(double[] c, double[] ts, double[] out, int count) {
+		switch (c.length) {
+		case 1:
+			for (int i = 0; i < count; i++) {
+				out[i] = c[0];
+			}
+			break;
+		case 2:
+			horner1(c[1], c[0], ts, out, count);
+			break;
+		case 3:
+			horner2(c[2], c[1], c[0], ts, out, count);
+			break;
+		case 4:
+			horner3(c[3], c[2], c[1], c[0], ts, out, count);
+			break;
+		default:
+			hornerBlocks(c, ts, out, count);
+		}
+	}
+
+	private static void horner1(double c1, double c0, double[] ts, double[] out, int count) {
+		for (int i = 0; i < count; i++) {
+			out[i] = c1 * ts[i] + c0;
+		}
+	}
+
+	private static void horner2(double c2, double c1, double c0, double[] ts, double[] out, int count) {
+		for (int i = 0; i < count; i++) {
+			double t = ts[i];
+			out[i] = (c2 * t + c1) * t + c0;
+		}
+	}
+
+	private static void horner3(double c3, double c2, double c1, double c0, double[] ts, double[] out, int count) {
+		for (int i = 0; i < count; i++) {
+			double t = ts[i];
+			out[i] = ((c3 * t + c2) * t + c1) * t + c0;
+		}
+	}
+
+	/**
+	 * Higher degrees: Horner's scheme runs coefficient by coefficient over a
+	 * block of values, which stays in the first level cache.
+	 */
+	private static void hornerBlocks(double[] c, double[] ts, double[] out, int count) {
+		int degree = c.length - 1;
+		for (int from = 0; from < count; from += BLOCK_SIZE) {
+			int to = Math.min(count, from + BLOCK_SIZE);
+			double leading = c[degree];
+			for (int i = from; i < to; i++) {
+				out[i] = leading;
+			}
+			for (int k = degree - 1; k >= 0; k--) {
+				double coefficient = c[k];
+				for (int i = from; i < to; i++) {
+					out[i] = out[i] * ts[i] + coefficient;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the curve at the first count values of ts: xs[i] and ys[i]
+	 * receive the point of the curve at ts[i].
+	 * 
+	 * @param ts    The parameters, each between 0 and 1.
+	 * @param count The number of parameters to evaluate.
+	 * @param xs    Receives the x values.
+	 * @param ys    Receives the y values.
+	 */
+	public void evaluate(double[] ts, int count, double[] xs, double[] ys) {
+		checkArguments(ts, count, xs, ys);
+		if (!isVectorized()) {
+			for (int i = 0; i < count; i++) {
+				xs[i] = bezier.xAt(ts[i]);
+				ys[i] = bezier.yAt(ts[i]);
+			}
+			return;
+		}
+		horner(xCoefficients, ts, xs, count);
+		horner(yCoefficients, ts, ys, count);
+	}
+
+	/**
+	 * Evaluates the curve at all values of ts.
+	 * 
+	 * @param ts The parameters, each between 0 and 1.
+	 * @param xs Receives the x values.
+	 * @param ys Receives the y values.
+	 * @see #evaluate(double[], int, double[], double[])
+	 */
+	public void evaluate(double[] ts, double[] xs, double[] ys) {
+		evaluate(ts, ts.length, xs, ys);
+	}
+
+	/**
+	 * Creates an evaluator for the given curve.
+	 * 
+	 * @param bezier The curve to evaluate.
+	 * @return The evaluator.
+	 */
+	public static BezierVectorEvaluator of(Bezier bezier) {
+		return new BezierVectorEvaluator(bezier);
+	}
+
+}
@@ -0,0 +1,104 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+/**
+ * An axis parallel rectangle, given by its minimal and maximal coordinates.
+ * <p>
+ * Objects of this class are immutable.
+ * 
+ * @author nierax
+ *
+ */
+public class BoundingBox {
+
+	private final double minX;
+	private final double minY;
+	private final double maxX;
+	private final double maxY;
+
+	private BoundingBox(double minX, double minY, double maxX, double maxY) {
+		if (minX > maxX || minY > maxY) {
+			throw new IllegalArgumentException(
+			    String.format("Min must not be greater than max, but was [%s,%s] - [%s,%s].", minX, minY, maxX, maxY));
+		}
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	public double minX() {
+		return minX;
+	}
+
+	public double minY() {
+		return minY;
+	}
+
+	public double maxX() {
+		return maxX;
+	}
+
+	public double maxY() {
+		return maxY;
+	}
+
+	public double width() {
+		return maxX - minX;
+	}
+
+	public double height() {
+		return maxY - minY;
+	}
+
+	/**
+	 * @return true, if the point lies within the box or on its border.
+	 */
+	public boolean contains(double x, double y) {
+		return x >= minX && x <= maxX && y >= minY && y <= maxY;
+	}
+
+	/**
+	 * @return true, if the other box lies completely within this box.
+	 */
+	public boolean contains(BoundingBox other) {
+		return other.minX >= minX && other.maxX <= maxX && other.minY >= minY && other.maxY <= maxY;
+	}
+
+	/**
+	 * @return true, if both boxes have at least one point in common.
+	 */
+	public boolean intersects(BoundingBox other) {
+		return other.minX <= maxX && other.maxX >= minX && other.minY <= maxY && other.maxY >= minY;
+	}
+
+	/**
+	 * @return The smallest box, containing this and the other box.
+	 */
+	public BoundingBox union(BoundingBox other) {
+		return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.max(maxX, other.maxX),
+		    Math.max(maxY, other.maxY));
+	}
+
+	/**
+	 * @return The squared distance from the point to the nearest point of the
+	 *         box, 0 if the point lies within the box.
+	 */
+	public double distanceSquare(double x, double y) {
+		double dx = Math.max(0, Math.max(minX - x, x - maxX));
+		double dy = Math.max(0, Math.max(minY - y, y - maxY));
+		return dx * dx + dy * dy;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[minX=%s,minY=%s,maxX=%s,maxY=%s]", minX, minY, maxX, maxY);
+	}
+
+	public static BoundingBox of(double minX, double minY, double maxX, double maxY) {
+		return new BoundingBox(minX, minY, maxX, maxY);
+	}
+
+}
@@ -0,0 +1,106 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.List;
+
+/**
+ * A Bezier curve with four control points (degree 3).
+ * <p>
+ * The curve is held in power basis x(t) = x3 * t^3 + x2 * t^2 + x1 * t + x0
+ * (resp. y), so evaluation and derivative need only a few multiplications. t
+ * for x is calculated in closed form with Cardano's method.
+ * <p>
+ * Objects are created by {@link Bezier#of(List)} for four control points or by
+ * {@link #of(Point, Point, Point, Point)}.
+ * 
+ * @author nierax
+ *
+ */
+public class CubicBezier extends Bezier {
+
+	private final double x3;
+	private final double x2;
+	private final double x1;
+	private final double x0;
+	private final double y3;
+	private final double y2;
+	private final double y1;
+	private final double y0;
+
+	protected CubicBezier(PointBuffer controlPoints) {
+		super(controlPoints);
+		if (controlPoints.size() != 4) {
+			throw new IllegalArgumentException(
+			    String.format("A cubic Bezier curve needs 4 control points, but got %s.", controlPoints.size()));
+		}
+		x3 = -controlPoints.x(0) + 3 * controlPoints.x(1) - 3 * controlPoints.x(2) + controlPoints.x(3);
+		x2 = 3 * controlPoints.x(0) - 6 * controlPoints.x(1) + 3 * controlPoints.x(2);
+		x1 = 3 * (controlPoints.x(1) - controlPoints.x(0));
+		x0 = controlPoints.x(0);
+		y3 = -controlPoints.y(0) + 3 * controlPoints.y(1) - 3 * controlPoints.y(2) + controlPoints.y(3);
+		y2 = 3 * controlPoints.y(0) - 6 * controlPoints.y(1) + 3 * controlPoints.y(2);
+		y1 = 3 * (controlPoints.y(1) - controlPoints.y(0));
+		y0 = controlPoints.y(0);
+	}
+
+	@Override
+	double xAt(double t) {
+		return ((x3 * t + x2) * t + x1) * t + x0;
+	}
+
+	@Override
+	double yAt(double t) {
+		return ((y3 * t + y2) * t + y1) * t + y0;
+	}
+
+	@Override
+	double dxAt(double t) {
+		return (3 * x3 * t + 2 * x2) * t + x1;
+	}
+
+	@Override
+	double dyAt(double t) {
+		return (3 * y3 * t + 2 * y2) * t + y1;
+	}
+
+	@Override
+	double ddxAt(double t) {
+		return 6 * x3 * t + 2 * x2;
+	}
+
+	@Override
+	double ddyAt(double t) {
+		return 6 * y3 * t + 2 * y2;
+	}
+
+	/**
+	 * Gets t for a given x in closed form with Cardano's method.
+	 * <p>
+	 * If there is more than one t for x, the smallest one is delivered. Only if
+	 * the closed form solution misses the accuracy, the iterative solver of
+	 * {@link Bezier} is used.
+	 */
+	@Override
+	public double solveTFromX(double x, double accuracy, int maxIterations) throws MathException {
+		double t = Polynomials.firstCubicRootInUnitInterval(x3, x2, x1, x0 - x);
+		if (!Double.isNaN(t)) {
+			t = polishTFromX(t, x);
+			if (Math.abs(xAt(t) - x) <= accuracy) {
+				return t;
+			}
+		}
+		return super.solveTFromX(x, accuracy, maxIterations);
+	}
+
+	/**
+	 * Creates a cubic Bezier curve from the given control points.
+	 * 
+	 * @return The cubic Bezier curve.
+	 */
+	public static CubicBezier of(Point p0, Point p1, Point p2, Point p3) {
+		return new CubicBezier(PointBuffer.of(p0, p1, p2, p3));
+	}
+
+}
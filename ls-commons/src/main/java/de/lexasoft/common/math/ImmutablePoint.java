@@ -0,0 +1,78 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+/**
+ * A point with two coordinates x and y, which can't be changed after creation.
+ * <p>
+ * Unlike {@link Point}, it has no setters at all, so it is not a subclass of
+ * {@link Point}. As the coordinates never change, immutable points implement
+ * {@link #equals(Object)} and {@link #hashCode()} and can be shared between
+ * threads. {@link #toPoint()} gives a mutable copy for code expecting a
+ * {@link Point}.
+ * 
+ * @author nierax
+ *
+ */
+public final class ImmutablePoint {
+
+	private final double x;
+	private final double y;
+
+	private ImmutablePoint(double x, double y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	public double x() {
+		return x;
+	}
+
+	public double y() {
+		return y;
+	}
+
+	/**
+	 * @return A new, mutable point with the same coordinates.
+	 */
+	public Point toPoint() {
+		return Point.of(x, y);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Double.hashCode(x) + Double.hashCode(y);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ImmutablePoint)) {
+			return false;
+		}
+		ImmutablePoint other = (ImmutablePoint) obj;
+		return Double.compare(x, other.x) == 0 && Double.compare(y, other.y) == 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[px=%s,py=%s]", x, y);
+	}
+
+	public static ImmutablePoint of(double x, double y) {
+		return new ImmutablePoint(x, y);
+	}
+
+	/**
+	 * Creates an immutable copy of the given point.
+	 * 
+	 * @param point The point to copy.
+	 * @return The immutable point.
+	 */
+	public static ImmutablePoint of(Point point) {
+		return new ImmutablePoint(point.x(), point.y());
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+/**
+ * A plane curve, given by x(t) and y(t) for t in [{@link #startT()},
+ * {@link #endT()}].
+ * <p>
+ * Common view on {@link Bezier}, {@link RationalBezier} and {@link BSpline},
+ * f.ex. to sample different kinds of curves into the same primitive arrays.
+ * 
+ * @author nierax
+ *
+ */
+public interface ParametricCurve {
+
+	/**
+	 * @return The first valid t, 0 by default.
+	 */
+	default double startT() {
+		return 0;
+	}
+
+	/**
+	 * @return The last valid t, 1 by default.
+	 */
+	default double endT() {
+		return 1;
+	}
+
+	/**
+	 * @param t The parameter between {@link #startT()} and {@link #endT()}.
+	 * @return x of the curve at t.
+	 */
+	double x(double t);
+
+	/**
+	 * @param t The parameter between {@link #startT()} and {@link #endT()}.
+	 * @return y of the curve at t.
+	 */
+	double y(double t);
+
+	/**
+	 * Samples the curve at count equidistant values of t from from to to (both
+	 * included) and writes the coordinates into the given arrays.
+	 * 
+	 * @param from  The first t.
+	 * @param to    The last t.
+	 * @param count The number of samples, at least 1.
+	 * @param xs    Receives the x values. Must have at least count elements.
+	 * @param ys    Receives the y values. Must have at least count elements.
+	 */
+	void sample(double from, double to, int count, double[] xs, double[] ys);
+
+}
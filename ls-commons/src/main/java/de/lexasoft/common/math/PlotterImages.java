@@ -0,0 +1,70 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Creates and saves the images of {@link BezierCurvePlotter} and
+ * {@link BezierMultiCurvePlotter}.
+ * 
+ * @author nierax
+ *
+ */
+final class PlotterImages {
+
+	private PlotterImages() {
+	}
+
+	/**
+	 * Creates an image of type {@link BufferedImage#TYPE_INT_RGB} with white
+	 * background.
+	 * 
+	 * @param width  The width of the image.
+	 * @param height The height of the image.
+	 * @return The image.
+	 */
+	static BufferedImage create(int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2d = image.createGraphics();
+		try {
+			g2d.setBackground(Color.WHITE);
+			g2d.clearRect(0, 0, width, height);
+		} finally {
+			g2d.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * @param image The image to draw in.
+	 * @return New graphics of the image, which draws in black.
+	 */
+	static Graphics2D blackGraphics(BufferedImage image) {
+		Graphics2D g2d = image.createGraphics();
+		g2d.setColor(Color.BLACK);
+		return g2d;
+	}
+
+	/**
+	 * Saves the image to the file system. The file type is taken from the
+	 * extension of the file name.
+	 * 
+	 * @param image    The image to save.
+	 * @param fileName File name to write the image to.
+	 * @throws IOException If the image can not be written.
+	 */
+	static void save(BufferedImage image, String fileName) throws IOException {
+		File file = new File(fileName);
+		String filetype = fileName.substring(fileName.lastIndexOf(".") + 1);
+		ImageIO.write(image, filetype, file);
+	}
+
+}
@@ -0,0 +1,166 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable sequence of points, stored as structure of arrays (one array
+ * for x, one for y).
+ * <p>
+ * Compared to a {@link List} of {@link Point} objects, the coordinates lie
+ * contiguously in memory, so iterating over them with {@link #x(int)} and
+ * {@link #y(int)} doesn't need to follow a reference per point. As the buffer
+ * can't be changed, it can be shared between threads.
+ * 
+ * @author nierax
+ *
+ */
+public class PointBuffer {
+
+	private final double[] x;
+	private final double[] y;
+
+	/**
+	 * The arrays are taken over without copying.
+	 */
+	private PointBuffer(double[] x, double[] y) {
+		if (x.length != y.length) {
+			throw new IllegalArgumentException(
+			    String.format("Number of x values (%s) and y values (%s) differ.", x.length, y.length));
+		}
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * @return The number of points in the buffer.
+	 */
+	public int size() {
+		return x.length;
+	}
+
+	/**
+	 * @param index The index of the point.
+	 * @return The x value of the point with the given index.
+	 */
+	public double x(int index) {
+		return x[index];
+	}
+
+	/**
+	 * @param index The index of the point.
+	 * @return The y value of the point with the given index.
+	 */
+	public double y(int index) {
+		return y[index];
+	}
+
+	/**
+	 * @param index The index of the point.
+	 * @return The point with the given index.
+	 */
+	public ImmutablePoint point(int index) {
+		return ImmutablePoint.of(x[index], y[index]);
+	}
+
+	/**
+	 * Direct access to the x values for the classes of this package. The array
+	 * must not be changed.
+	 */
+	double[] xValues() {
+		return x;
+	}
+
+	/**
+	 * Direct access to the y values for the classes of this package. The array
+	 * must not be changed.
+	 */
+	double[] yValues() {
+		return y;
+	}
+
+	/**
+	 * @return The points as new list of {@link Point}. The list and the points
+	 *         are copies, changing them doesn't affect the buffer.
+	 */
+	public List<Point> toList() {
+		List<Point> list = new ArrayList<>(x.length);
+		for (int i = 0; i < x.length; i++) {
+			list.add(Point.of(x[i], y[i]));
+		}
+		return list;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(x) + Arrays.hashCode(y);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PointBuffer)) {
+			return false;
+		}
+		PointBuffer other = (PointBuffer) obj;
+		return Arrays.equals(x, other.x) && Arrays.equals(y, other.y);
+	}
+
+	@Override
+	public String toString() {
+		return toList().toString();
+	}
+
+	/**
+	 * Creates a buffer with copies of the given coordinates.
+	 * 
+	 * @param x The x values.
+	 * @param y The y values, same length as x.
+	 * @return The buffer.
+	 */
+	public static PointBuffer of(double[] x, double[] y) {
+		return new PointBuffer(x.clone(), y.clone());
+	}
+
+	/**
+	 * Creates a buffer with the coordinates of the given points.
+	 * 
+	 * @param points The points.
+	 * @return The buffer.
+	 */
+	public static PointBuffer of(List<? extends Point> points) {
+		double[] x = new double[points.size()];
+		double[] y = new double[points.size()];
+		for (int i = 0; i < x.length; i++) {
+			Point point = points.get(i);
+			x[i] = point.x();
+			y[i] = point.y();
+		}
+		return new PointBuffer(x, y);
+	}
+
+	/**
+	 * Creates a buffer with the coordinates of the given points.
+	 * 
+	 * @param points The points.
+	 * @return The buffer.
+	 */
+	public static PointBuffer of(Point... points) {
+		return of(Arrays.asList(points));
+	}
+
+	/**
+	 * Creates a buffer, taking over the given arrays without copying. Only for
+	 * arrays, which are not referenced anywhere else.
+	 */
+	static PointBuffer wrap(double[] x, double[] y) {
+		return new PointBuffer(x, y);
+	}
+
+}
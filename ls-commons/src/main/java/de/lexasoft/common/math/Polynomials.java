@@ -0,0 +1,152 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+/**
+ * Closed form root finding for polynomials up to degree 3 in power basis.
+ * <p>
+ * The roots are written into a caller provided array, the methods return the
+ * number of real roots found. Coefficients are given in descending order.
+ * 
+ * @author nierax
+ *
+ */
+final class Polynomials {
+
+	/**
+	 * Relative size, below which a leading coefficient is treated as 0.
+	 */
+	static final double EPSILON = 1e-12;
+
+	/**
+	 * Tolerance for roots slightly outside of [0, 1] due to rounding.
+	 */
+	static final double UNIT_INTERVAL_TOLERANCE = 1e-9;
+
+	/**
+	 * Roots for the first root methods, one array per thread, so that these don't
+	 * create any objects.
+	 */
+	private static final ThreadLocal<double[]> ROOTS = ThreadLocal.withInitial(() -> new double[3]);
+
+	private Polynomials() {
+	}
+
+	/**
+	 * Solves b * t + c = 0.
+	 * 
+	 * @return Number of roots (0 or 1).
+	 */
+	static int solveLinear(double b, double c, double[] roots) {
+		if (b == 0) {
+			return 0;
+		}
+		roots[0] = -c / b;
+		return 1;
+	}
+
+	/**
+	 * Solves a * t^2 + b * t + c = 0 with the numerically stable variant of the
+	 * quadratic formula.
+	 * 
+	 * @return Number of real roots (0 to 2).
+	 */
+	static int solveQuadratic(double a, double b, double c, double[] roots) {
+		if (Math.abs(a) <= EPSILON * Math.max(Math.abs(b), Math.abs(c))) {
+			return solveLinear(b, c, roots);
+		}
+		double discriminant = b * b - 4 * a * c;
+		if (discriminant < 0) {
+			return 0;
+		}
+		if (discriminant == 0) {
+			roots[0] = -b / (2 * a);
+			return 1;
+		}
+		double q = -0.5 * (b + Math.copySign(Math.sqrt(discriminant), b));
+		roots[0] = q / a;
+		if (q == 0) {
+			// b and c are 0, double root at 0.
+			return 1;
+		}
+		roots[1] = c / q;
+		return 2;
+	}
+
+	/**
+	 * Solves a * t^3 + b * t^2 + c * t + d = 0 with Cardano's method, using the
+	 * trigonometric form for three real roots.
+	 * 
+	 * @return Number of real roots (0 to 3).
+	 */
+	static int solveCubic(double a, double b, double c, double d, double[] roots) {
+		if (Math.abs(a) <= EPSILON * Math.max(Math.max(Math.abs(b), Math.abs(c)), Math.abs(d))) {
+			return solveQuadratic(b, c, d, roots);
+		}
+		double p = b / a;
+		double q = c / a;
+		double r = d / a;
+		double bigQ = (p * p - 3 * q) / 9;
+		double bigR = (2 * p * p * p - 9 * p * q + 27 * r) / 54;
+		double bigQ3 = bigQ * bigQ * bigQ;
+		double shift = p / 3;
+		if (bigR * bigR < bigQ3) {
+			double theta = Math.acos(bigR / Math.sqrt(bigQ3));
+			double factor = -2 * Math.sqrt(bigQ);
+			roots[0] = factor * Math.cos(theta / 3) - shift;
+			roots[1] = factor * Math.cos((theta + 2 * Math.PI) / 3) - shift;
+			roots[2] = factor * Math.cos((theta - 2 * Math.PI) / 3) - shift;
+			return 3;
+		}
+		double bigA = -Math.copySign(Math.cbrt(Math.abs(bigR) + Math.sqrt(bigR * bigR - bigQ3)), bigR);
+		double bigB = (bigA == 0) ? 0 : bigQ / bigA;
+		roots[0] = bigA + bigB - shift;
+		return 1;
+	}
+
+	/**
+	 * Gets the smallest of the given roots within [0, 1]. Roots slightly outside
+	 * the interval due to rounding are clamped into it.
+	 * 
+	 * @param roots The roots.
+	 * @param count The number of valid roots in the array.
+	 * @return The smallest root in [0, 1] or {@link Double#NaN}, if there is none.
+	 */
+	static double firstRootInUnitInterval(double[] roots, int count) {
+		double first = Double.NaN;
+		for (int i = 0; i < count; i++) {
+			double root = roots[i];
+			boolean inInterval = root >= -UNIT_INTERVAL_TOLERANCE && root <= 1 + UNIT_INTERVAL_TOLERANCE;
+			if (inInterval && (Double.isNaN(first) || root < first)) {
+				first = root;
+			}
+		}
+		return Double.isNaN(first) ? first : Math.min(1, Math.max(0, first));
+	}
+
+	/**
+	 * Gets the smallest root of a * t^2 + b * t + c = 0 within [0, 1], without
+	 * creating any objects.
+	 * 
+	 * @return The smallest root in [0, 1] or {@link Double#NaN}, if there is none.
+	 * @see #solveQuadratic(double, double, double, double[])
+	 */
+	static double firstQuadraticRootInUnitInterval(double a, double b, double c) {
+		double[] roots = ROOTS.get();
+		return firstRootInUnitInterval(roots, solveQuadratic(a, b, c, roots));
+	}
+
+	/**
+	 * Gets the smallest root of a * t^3 + b * t^2 + c * t + d = 0 within [0, 1],
+	 * without creating any objects.
+	 * 
+	 * @return The smallest root in [0, 1] or {@link Double#NaN}, if there is none.
+	 * @see #solveCubic(double, double, double, double, double[])
+	 */
+	static double firstCubicRootInUnitInterval(double a, double b, double c, double d) {
+		double[] roots = ROOTS.get();
+		return firstRootInUnitInterval(roots, solveCubic(a, b, c, d, roots));
+	}
+
+}
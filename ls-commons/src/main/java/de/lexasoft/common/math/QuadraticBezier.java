@@ -0,0 +1,102 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.List;
+
+/**
+ * A Bezier curve with three control points (degree 2).
+ * <p>
+ * The curve is held in power basis x(t) = x2 * t^2 + x1 * t + x0 (resp. y), so
+ * evaluation and derivative need only a few multiplications. t for x is
+ * calculated in closed form with the quadratic formula.
+ * <p>
+ * Objects are created by {@link Bezier#of(List)} for three control points or by
+ * {@link #of(Point, Point, Point)}.
+ * 
+ * @author nierax
+ *
+ */
+public class QuadraticBezier extends Bezier {
+
+	private final double x2;
+	private final double x1;
+	private final double x0;
+	private final double y2;
+	private final double y1;
+	private final double y0;
+
+	protected QuadraticBezier(PointBuffer controlPoints) {
+		super(controlPoints);
+		if (controlPoints.size() != 3) {
+			throw new IllegalArgumentException(
+			    String.format("A quadratic Bezier curve needs 3 control points, but got %s.", controlPoints.size()));
+		}
+		x2 = controlPoints.x(0) - 2 * controlPoints.x(1) + controlPoints.x(2);
+		x1 = 2 * (controlPoints.x(1) - controlPoints.x(0));
+		x0 = controlPoints.x(0);
+		y2 = controlPoints.y(0) - 2 * controlPoints.y(1) + controlPoints.y(2);
+		y1 = 2 * (controlPoints.y(1) - controlPoints.y(0));
+		y0 = controlPoints.y(0);
+	}
+
+	@Override
+	double xAt(double t) {
+		return (x2 * t + x1) * t + x0;
+	}
+
+	@Override
+	double yAt(double t) {
+		return (y2 * t + y1) * t + y0;
+	}
+
+	@Override
+	double dxAt(double t) {
+		return 2 * x2 * t + x1;
+	}
+
+	@Override
+	double dyAt(double t) {
+		return 2 * y2 * t + y1;
+	}
+
+	@Override
+	double ddxAt(double t) {
+		return 2 * x2;
+	}
+
+	@Override
+	double ddyAt(double t) {
+		return 2 * y2;
+	}
+
+	/**
+	 * Gets t for a given x in closed form with the quadratic formula.
+	 * <p>
+	 * If there is more than one t for x, the smallest one is delivered. Only if
+	 * the closed form solution misses the accuracy, the iterative solver of
+	 * {@link Bezier} is used.
+	 */
+	@Override
+	public double solveTFromX(double x, double accuracy, int maxIterations) throws MathException {
+		double t = Polynomials.firstQuadraticRootInUnitInterval(x2, x1, x0 - x);
+		if (!Double.isNaN(t)) {
+			t = polishTFromX(t, x);
+			if (Math.abs(xAt(t) - x) <= accuracy) {
+				return t;
+			}
+		}
+		return super.solveTFromX(x, accuracy, maxIterations);
+	}
+
+	/**
+	 * Creates a quadratic Bezier curve from the given control points.
+	 * 
+	 * @return The quadratic Bezier curve.
+	 */
+	public static QuadraticBezier of(Point p0, Point p1, Point p2) {
+		return new QuadraticBezier(PointBuffer.of(p0, p1, p2));
+	}
+
+}
@@ -0,0 +1,388 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+
+/**
+ * Draws lines directly into the pixel array of an image of type
+ * {@link BufferedImage#TYPE_INT_RGB} or {@link BufferedImage#TYPE_INT_ARGB},
+ * without going through {@link java.awt.Graphics}.
+ * <p>
+ * {@link #drawLine(int, int, int, int, int)} uses an integer Bresenham
+ * algorithm, which sets the same pixels as
+ * {@link java.awt.Graphics#drawLine(int, int, int, int)}.
+ * {@link #drawLineAntiAliased(double, double, double, double, int)} uses the
+ * algorithm of Wu in fixed point arithmetic, which blends two pixels per step
+ * with the coverage of the line.
+ * <p>
+ * Lines are clipped to the image. The major axis is clipped in advance, so
+ * that a line never takes more steps than the image is wide or high.
+ * <p>
+ * Accessing the pixel array makes Java2D stop accelerating the image. The
+ * renderer is not thread-safe, but several renderers may draw into disjoint
+ * parts of the same image in parallel.
+ * 
+ * @author nierax
+ *
+ */
+final class RasterLineRenderer {
+
+	/**
+	 * Number of fraction bits of the end points of anti-aliased lines.
+	 */
+	private static final int SUBPIXEL_BITS = 8;
+	private static final int SUBPIXEL_ONE = 1 << SUBPIXEL_BITS;
+	/**
+	 * Number of fraction bits of the minor axis of anti-aliased lines.
+	 */
+	private static final int GRADIENT_BITS = 16;
+	private static final int OPAQUE = 255;
+
+	private final int[] data;
+	private final int offset;
+	private final int stride;
+	private final int width;
+	private final int height;
+	private final boolean hasAlpha;
+	/**
+	 * Coverage of the pixels by the current anti-aliased polyline, created on
+	 * first use. Only the covered pixels are reset after each polyline, so a
+	 * renderer kept for the next plots never clears the whole mask.
+	 */
+	private int[] coverage;
+	/**
+	 * Indexes of the pixels with a coverage.
+	 */
+	private int[] covered = new int[256];
+	private int coveredCount;
+
+	private RasterLineRenderer(BufferedImage image) {
+		if (image.getType() != BufferedImage.TYPE_INT_RGB && image.getType() != BufferedImage.TYPE_INT_ARGB) {
+			throw new IllegalArgumentException(
+			    String.format("Image type was %s, but must be TYPE_INT_RGB or TYPE_INT_ARGB.", image.getType()));
+		}
+		WritableRaster raster = image.getRaster();
+		DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+		this.data = buffer.getData();
+		this.stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+		this.offset = buffer.getOffset() - raster.getSampleModelTranslateX()
+		    - raster.getSampleModelTranslateY() * stride;
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		this.hasAlpha = image.getType() == BufferedImage.TYPE_INT_ARGB;
+	}
+
+	/**
+	 * @return Width of the image in pixels.
+	 */
+	int width() {
+		return width;
+	}
+
+	/**
+	 * @return Height of the image in pixels.
+	 */
+	int height() {
+		return height;
+	}
+
+	private static int blendChannel(int source, int destination, int alpha) {
+		return (source * alpha + destination * (OPAQUE - alpha) + OPAQUE / 2) / OPAQUE;
+	}
+
+	/**
+	 * Sets the pixel with the color, reduced by the given coverage, with the rule
+	 * source over.
+	 */
+	private void plot(long x, long y, int argb, int coverage) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return;
+		}
+		int index = offset + (int) y * stride + (int) x;
+		int alpha = ((argb >>> 24) * coverage + OPAQUE / 2) / OPAQUE;
+		if (alpha == OPAQUE) {
+			data[index] = hasAlpha ? argb : argb & 0xffffff;
+			return;
+		}
+		if (alpha == 0) {
+			return;
+		}
+		int destination = data[index];
+		if (!hasAlpha) {
+			data[index] = blendChannel((argb >> 16) & 0xff, (destination >> 16) & 0xff, alpha) << 16
+			    | blendChannel((argb >> 8) & 0xff, (destination >> 8) & 0xff, alpha) << 8
+			    | blendChannel(argb & 0xff, destination & 0xff, alpha);
+			return;
+		}
+		int destinationAlpha = destination >>> 24;
+		// Weight of the destination, scaled by 255.
+		int weight = destinationAlpha * (OPAQUE - alpha);
+		int resultAlpha = alpha + (weight + OPAQUE / 2) / OPAQUE;
+		int divisor = alpha * OPAQUE + weight;
+		int result = resultAlpha << 24;
+		for (int shift = 0; shift <= 16; shift += 8) {
+			int channel = (((argb >> shift) & 0xff) * alpha * OPAQUE + ((destination >> shift) & 0xff) * weight
+			    + divisor / 2) / divisor;
+			result |= channel << shift;
+		}
+		data[index] = result;
+	}
+
+	/**
+	 * First step of a line on its major axis, which is inside of the image.
+	 */
+	private static long firstStep(int start, int direction, int limit) {
+		return Math.max(0, direction > 0 ? -(long) start : (long) start - (limit - 1));
+	}
+
+	/**
+	 * Last step of a line on its major axis, which is inside of the image.
+	 */
+	private static long lastStep(int start, int direction, long steps, int limit) {
+		return Math.min(steps, direction > 0 ? (long) limit - 1 - start : start);
+	}
+
+	/**
+	 * Draws a line with the given color, including both end points. The pixels
+	 * are the same as the ones of
+	 * {@link java.awt.Graphics#drawLine(int, int, int, int)} with the rule source
+	 * over.
+	 * 
+	 * @param x0   x of the start point in pixels.
+	 * @param y0   y of the start point in pixels.
+	 * @param x1   x of the end point in pixels.
+	 * @param y1   y of the end point in pixels.
+	 * @param argb The color of the line as ARGB value.
+	 */
+	void drawLine(int x0, int y0, int x1, int y1, int argb) {
+		long ax = Math.abs((long) x1 - x0);
+		long ay = Math.abs((long) y1 - y0);
+		int sx = x1 < x0 ? -1 : 1;
+		int sy = y1 < y0 ? -1 : 1;
+		boolean xMajor = ax >= ay;
+		long major = xMajor ? ax : ay;
+		long minor = xMajor ? ay : ax;
+		long from = xMajor ? firstStep(x0, sx, width) : firstStep(y0, sy, height);
+		long to = xMajor ? lastStep(x0, sx, ax, width) : lastStep(y0, sy, ay, height);
+		if (from > to) {
+			return;
+		}
+		// The offset on the minor axis at step k is (2 k minor + major) / (2 major).
+		long denominator = 2 * Math.max(major, 1);
+		long numerator = 2 * from * minor + major;
+		long minorOffset = numerator / denominator;
+		long remainder = numerator % denominator;
+		for (long k = from; k <= to; k++) {
+			if (xMajor) {
+				plot(x0 + sx * k, y0 + sy * minorOffset, argb, OPAQUE);
+			} else {
+				plot(x0 + sx * minorOffset, y0 + sy * k, argb, OPAQUE);
+			}
+			remainder += 2 * minor;
+			if (remainder >= denominator) {
+				remainder -= denominator;
+				minorOffset++;
+			}
+		}
+	}
+
+	private static long toFixed(double value) {
+		return Math.round(value * SUBPIXEL_ONE);
+	}
+
+	/**
+	 * Pixel, whose center is nearest to the fixed point coordinate.
+	 */
+	private static long pixel(long fixed) {
+		return (fixed + SUBPIXEL_ONE / 2) >> SUBPIXEL_BITS;
+	}
+
+	/**
+	 * Position on the minor axis at the center of the given pixel on the major
+	 * axis, with {@link #GRADIENT_BITS} fraction bits.
+	 */
+	private static long minorAt(long start, long gradient, long pixel, long majorStart) {
+		return start + ((gradient * ((pixel << SUBPIXEL_BITS) - majorStart)) >> SUBPIXEL_BITS);
+	}
+
+	/**
+	 * Covers the two pixels next to the minor position in one column (or row) of
+	 * the major axis. The part of the column, covered by the line, is given with
+	 * {@link #SUBPIXEL_BITS} fraction bits.
+	 */
+	private void coverSpan(boolean xMajor, long major, long minor, long part) {
+		long pixel = minor >> GRADIENT_BITS;
+		long fraction = (minor >> (GRADIENT_BITS - 8)) & 0xff;
+		int upper = (int) (((256 - fraction) * part * OPAQUE) >> (SUBPIXEL_BITS + 8));
+		int lower = (int) ((fraction * part * OPAQUE) >> (SUBPIXEL_BITS + 8));
+		if (xMajor) {
+			cover(major, pixel, upper);
+			cover(major, pixel + 1, lower);
+		} else {
+			cover(pixel, major, upper);
+			cover(pixel + 1, major, lower);
+		}
+	}
+
+	/**
+	 * Adds coverage to the pixel. The coverages of all lines of a polyline are
+	 * summed up, before the pixel is blended once in {@link #flush(int)}.
+	 * Blending each line on its own would make the joints of short lines too
+	 * light.
+	 */
+	private void cover(long x, long y, int amount) {
+		if (x < 0 || y < 0 || x >= width || y >= height || amount == 0) {
+			return;
+		}
+		int index = (int) y * width + (int) x;
+		if (coverage[index] == 0) {
+			if (coveredCount == covered.length) {
+				covered = Arrays.copyOf(covered, covered.length * 2);
+			}
+			covered[coveredCount++] = index;
+		}
+		coverage[index] += amount;
+	}
+
+	private void startCoverage() {
+		if (coverage == null) {
+			coverage = new int[width * height];
+		}
+	}
+
+	/**
+	 * Blends all covered pixels with the color and resets their coverage.
+	 */
+	private void flush(int argb) {
+		for (int i = 0; i < coveredCount; i++) {
+			int index = covered[i];
+			plot(index % width, index / width, argb, Math.min(OPAQUE, coverage[index]));
+			coverage[index] = 0;
+		}
+		coveredCount = 0;
+	}
+
+	/**
+	 * Draws an anti-aliased line with the given color. The end points have
+	 * sub-pixel precision, the centers of the pixels are at integer coordinates.
+	 * <p>
+	 * For each column (or row) of the major axis, the two pixels next to the
+	 * exact line are blended with their coverage. The columns at the end points
+	 * are only covered by the part of the line, which lies inside of them, so
+	 * that the lines of a polyline join without gaps or double coverage.
+	 * 
+	 * @param x0   x of the start point in pixels.
+	 * @param y0   y of the start point in pixels.
+	 * @param x1   x of the end point in pixels.
+	 * @param y1   y of the end point in pixels.
+	 * @param argb The color of the line as ARGB value.
+	 */
+	void drawLineAntiAliased(double x0, double y0, double x1, double y1, int argb) {
+		startCoverage();
+		coverLine(x0, y0, x1, y1);
+		flush(argb);
+	}
+
+	private void coverLine(double x0, double y0, double x1, double y1) {
+		long fx0 = toFixed(x0);
+		long fy0 = toFixed(y0);
+		long fx1 = toFixed(x1);
+		long fy1 = toFixed(y1);
+		boolean xMajor = Math.abs(fx1 - fx0) >= Math.abs(fy1 - fy0);
+		long majorStart = xMajor ? fx0 : fy0;
+		long majorEnd = xMajor ? fx1 : fy1;
+		long minorStart = xMajor ? fy0 : fx0;
+		long minorEnd = xMajor ? fy1 : fx1;
+		if (majorStart > majorEnd) {
+			long swap = majorStart;
+			majorStart = majorEnd;
+			majorEnd = swap;
+			swap = minorStart;
+			minorStart = minorEnd;
+			minorEnd = swap;
+		}
+		long majorLength = majorEnd - majorStart;
+		long first = pixel(majorStart);
+		long last = pixel(majorEnd);
+		if (first == last) {
+			// The line lies in one column, it covers the column by its length.
+			coverSpan(xMajor, first, (minorStart + minorEnd) << (GRADIENT_BITS - SUBPIXEL_BITS - 1), majorLength);
+			return;
+		}
+		long gradient = ((minorEnd - minorStart) << GRADIENT_BITS) / majorLength;
+		long start = minorStart << (GRADIENT_BITS - SUBPIXEL_BITS);
+		coverSpan(xMajor, first, minorAt(start, gradient, first, majorStart),
+		    (first << SUBPIXEL_BITS) + SUBPIXEL_ONE / 2 - majorStart);
+		coverSpan(xMajor, last, minorAt(start, gradient, last, majorStart),
+		    majorEnd - (last << SUBPIXEL_BITS) + SUBPIXEL_ONE / 2);
+		long from = Math.max(first + 1, 0);
+		long to = Math.min(last - 1, (xMajor ? width : height) - 1);
+		long minor = minorAt(start, gradient, from, majorStart);
+		for (long major = from; major <= to; major++) {
+			coverSpan(xMajor, major, minor, SUBPIXEL_ONE);
+			minor += gradient;
+		}
+	}
+
+	/**
+	 * Draws a polyline, connecting the first count points. A polyline with only
+	 * one point draws this point.
+	 * 
+	 * @param xs    The x coordinates of the points in pixels.
+	 * @param ys    The y coordinates of the points in pixels.
+	 * @param count The number of points to connect.
+	 * @param argb  The color of the line as ARGB value.
+	 */
+	void drawPolyline(int[] xs, int[] ys, int count, int argb) {
+		if (count == 1) {
+			plot(xs[0], ys[0], argb, OPAQUE);
+		}
+		for (int i = 1; i < count; i++) {
+			drawLine(xs[i - 1], ys[i - 1], xs[i], ys[i], argb);
+		}
+	}
+
+	/**
+	 * Draws an anti-aliased polyline, connecting the first count points. A
+	 * polyline with only one point draws the pixel nearest to this point.
+	 * <p>
+	 * The coverage of a pixel by all lines is summed up, before the pixel is
+	 * blended once. So lines, which are shorter than a pixel, give the same
+	 * result as one long line.
+	 * 
+	 * @param xs    The x coordinates of the points in pixels.
+	 * @param ys    The y coordinates of the points in pixels.
+	 * @param count The number of points to connect.
+	 * @param argb  The color of the line as ARGB value.
+	 * @see #drawLineAntiAliased(double, double, double, double, int)
+	 */
+	void drawPolylineAntiAliased(double[] xs, double[] ys, int count, int argb) {
+		if (count == 1) {
+			plot(pixel(toFixed(xs[0])), pixel(toFixed(ys[0])), argb, OPAQUE);
+		}
+		startCoverage();
+		for (int i = 1; i < count; i++) {
+			coverLine(xs[i - 1], ys[i - 1], xs[i], ys[i]);
+		}
+		flush(argb);
+	}
+
+	/**
+	 * Creates a renderer for the given image.
+	 * 
+	 * @param image The image to draw in, must be of type
+	 *              {@link BufferedImage#TYPE_INT_RGB} or
+	 *              {@link BufferedImage#TYPE_INT_ARGB}.
+	 * @return The renderer.
+	 */
+	static RasterLineRenderer of(BufferedImage image) {
+		return new RasterLineRenderer(image);
+	}
+
+}
@@ -0,0 +1,164 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+/**
+ * A rational Bezier curve: Each control point has a positive weight, which
+ * pulls the curve towards it. With all weights equal the curve is an ordinary
+ * {@link Bezier} curve. Rational curves of degree 2 represent conic sections
+ * (circles, ellipses, hyperbolas) exactly.
+ * <p>
+ * The curve is evaluated in homogeneous coordinates: The weighted coordinates
+ * w[k] * x[k], w[k] * y[k] and the weights w[k] are polynomials in Bernstein
+ * form, x(t) and y(t) are the quotients of these polynomials. So evaluation
+ * and sampling work on primitive arrays just like {@link Bezier}.
+ * <p>
+ * The curve is immutable and can be shared between threads.
+ * 
+ * @author nierax
+ *
+ */
+public class RationalBezier implements ParametricCurve {
+
+	/**
+	 * Sampled weights for {@link #sample}, one block per thread, so that
+	 * sampling doesn't create any objects. The block has the length, after
+	 * which the forward differences are seeded again, so sampling block by block
+	 * gives the same weights as sampling all at once.
+	 */
+	private static final ThreadLocal<double[]> WEIGHTS = ThreadLocal
+	    .withInitial(() -> new double[BernsteinPolynomial.FORWARD_DIFFERENCE_BLOCK]);
+
+	private final PointBuffer controlPoints;
+	private final double[] weights;
+	private final BernsteinPolynomial weightedX;
+	private final BernsteinPolynomial weightedY;
+	private final BernsteinPolynomial weight;
+
+	private RationalBezier(PointBuffer controlPoints, double[] weights) {
+		if (controlPoints.size() == 0) {
+			throw new IllegalArgumentException("A curve needs at least one control point.");
+		}
+		if (weights.length != controlPoints.size()) {
+			throw new IllegalArgumentException(String.format("There are %s weights, but %s control points.",
+			    weights.length, controlPoints.size()));
+		}
+		double[] wx = new double[weights.length];
+		double[] wy = new double[weights.length];
+		for (int k = 0; k < weights.length; k++) {
+			if (!(weights[k] > 0)) {
+				throw new IllegalArgumentException(
+				    String.format("Weight %s was %s, but must be positive.", k, weights[k]));
+			}
+			wx[k] = weights[k] * controlPoints.x(k);
+			wy[k] = weights[k] * controlPoints.y(k);
+		}
+		this.controlPoints = controlPoints;
+		this.weights = weights;
+		this.weightedX = new BernsteinPolynomial(wx);
+		this.weightedY = new BernsteinPolynomial(wy);
+		this.weight = new BernsteinPolynomial(weights.clone());
+	}
+
+	/**
+	 * @return The control points of the curve.
+	 */
+	public PointBuffer controlPoints() {
+		return controlPoints;
+	}
+
+	/**
+	 * @param k Index of the control point.
+	 * @return The weight of the control point.
+	 */
+	public double weight(int k) {
+		return weights[k];
+	}
+
+	/**
+	 * @return The degree of the curve, which is the number of control points
+	 *         minus 1.
+	 */
+	public int degree() {
+		return weight.degree();
+	}
+
+	private static void checkT(double t) {
+		if (!(t >= 0 && t <= 1)) {
+			throw new IllegalArgumentException(String.format("Parameter t was %s, but must be between 0 and 1.", t));
+		}
+	}
+
+	@Override
+	public double x(double t) {
+		checkT(t);
+		return weightedX.value(t) / weight.value(t);
+	}
+
+	@Override
+	public double y(double t) {
+		checkT(t);
+		return weightedY.value(t) / weight.value(t);
+	}
+
+	/**
+	 * @param t The t parameter, between 0 and 1.
+	 * @return The point of the curve at t.
+	 */
+	public Point point(double t) {
+		checkT(t);
+		double w = weight.value(t);
+		return Point.of(weightedX.value(t) / w, weightedY.value(t) / w);
+	}
+
+	/**
+	 * Samples the curve at count equidistant values of t from from to to (both
+	 * included) and writes the coordinates into the given arrays.
+	 * <p>
+	 * The weighted coordinates and the weights are sampled with forward
+	 * differencing like in {@link Bezier#sample(double, double, int, double[],
+	 * double[])}. The weights are sampled block by block into a buffer per
+	 * thread, so no objects are created.
+	 * 
+	 * @param from  The first t, between 0 and 1.
+	 * @param to    The last t, between 0 and 1.
+	 * @param count The number of samples, at least 1.
+	 * @param xs    Receives the x values. Must have at least count elements.
+	 * @param ys    Receives the y values. Must have at least count elements.
+	 */
+	@Override
+	public void sample(double from, double to, int count, double[] xs, double[] ys) {
+		checkT(from);
+		checkT(to);
+		if (count < 1 || xs.length < count || ys.length < count) {
+			throw new IllegalArgumentException(String.format(
+			    "Count was %s, but must be at least 1 and fit into arrays of length %s and %s.", count, xs.length,
+			    ys.length));
+		}
+		double step = (count > 1) ? (to - from) / (count - 1) : 0;
+		weightedX.sample(from, step, count, xs, 0, 1);
+		weightedY.sample(from, step, count, ys, 0, 1);
+		double[] ws = WEIGHTS.get();
+		for (int start = 0; start < count; start += ws.length) {
+			int blockCount = Math.min(ws.length, count - start);
+			weight.sample(from + start * step, step, blockCount, ws, 0, 1);
+			for (int i = 0; i < blockCount; i++) {
+				xs[start + i] /= ws[i];
+				ys[start + i] /= ws[i];
+			}
+		}
+	}
+
+	/**
+	 * Creates a rational Bezier curve.
+	 * 
+	 * @param controlPoints The control points.
+	 * @param weights       The weights of the control points, all positive.
+	 * @return The curve.
+	 */
+	public static RationalBezier of(PointBuffer controlPoints, double[] weights) {
+		return new RationalBezier(controlPoints, weights.clone());
+	}
+
+}
@@ -0,0 +1,241 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.awt.Graphics;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws polylines, given in pixel coordinates, tile by tile into an image.
+ * <p>
+ * The image is split into square tiles. Every segment is binned into all tiles,
+ * its bounding box overlaps. Each tile draws its segments with its own copy of
+ * the graphics, clipped to the tile. The line algorithm doesn't depend on the
+ * clip, so the pixels are the same as if every segment was drawn once into the
+ * whole image. As the tiles don't share any pixel, they are drawn in parallel
+ * in the common {@link ForkJoinPool}.
+ * <p>
+ * The renderer collects the segments and can be reused after {@link #clear()}.
+ * It is not thread-safe.
+ * 
+ * @author nierax
+ *
+ */
+final class TiledLineRenderer {
+
+	/**
+	 * Default edge length of a tile in pixels.
+	 */
+	static final int DEF_TILE_SIZE = 64;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	@SuppressWarnings("serial")
+	private class TileTask extends RecursiveAction {
+
+		private final Graphics[] tileGraphics;
+		private final int[] tiles;
+		private final int from;
+		private final int to;
+
+		TileTask(Graphics[] tileGraphics, int[] tiles, int from, int to) {
+			this.tileGraphics = tileGraphics;
+			this.tiles = tiles;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				drawTile(tiles[from], tileGraphics[from]);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new TileTask(tileGraphics, tiles, from, middle), new TileTask(tileGraphics, tiles, middle, to));
+			}
+		}
+	}
+
+	private final int width;
+	private final int height;
+	private final int tileSize;
+	private final int tilesX;
+	private final int tilesY;
+	/**
+	 * x0, y0, x1, y1 of every segment.
+	 */
+	private int[] segments = new int[4 * INITIAL_CAPACITY];
+	private int segmentCount;
+	/**
+	 * Indexes of the segments per tile, row by row.
+	 */
+	private final int[][] tileSegments;
+	private final int[] tileCounts;
+
+	private TiledLineRenderer(int width, int height, int tileSize) {
+		if (width < 1 || height < 1) {
+			throw new IllegalArgumentException(String.format("Image size was %sx%s, but must be positive.", width, height));
+		}
+		if (tileSize < 1) {
+			throw new IllegalArgumentException(String.format("Tile size was %s, but must be at least 1.", tileSize));
+		}
+		this.width = width;
+		this.height = height;
+		this.tileSize = tileSize;
+		this.tilesX = (width + tileSize - 1) / tileSize;
+		this.tilesY = (height + tileSize - 1) / tileSize;
+		this.tileSegments = new int[tilesX * tilesY][];
+		this.tileCounts = new int[tilesX * tilesY];
+	}
+
+	/**
+	 * @return Edge length of a tile in pixels.
+	 */
+	int tileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * @return The number of tiles of the image.
+	 */
+	int tileCount() {
+		return tileCounts.length;
+	}
+
+	/**
+	 * @return The number of segments collected so far.
+	 */
+	int segmentCount() {
+		return segmentCount;
+	}
+
+	private static int clamp(int value, int max) {
+		return Math.max(0, Math.min(max, value));
+	}
+
+	private void bin(int tile, int segment) {
+		int[] list = tileSegments[tile];
+		if (list == null) {
+			list = new int[INITIAL_CAPACITY];
+			tileSegments[tile] = list;
+		} else if (tileCounts[tile] == list.length) {
+			list = Arrays.copyOf(list, list.length * 2);
+			tileSegments[tile] = list;
+		}
+		list[tileCounts[tile]++] = segment;
+	}
+
+	private void addSegment(int x0, int y0, int x1, int y1) {
+		int minX = Math.min(x0, x1);
+		int maxX = Math.max(x0, x1);
+		int minY = Math.min(y0, y1);
+		int maxY = Math.max(y0, y1);
+		if (maxX < 0 || maxY < 0 || minX >= width || minY >= height) {
+			// Completely outside of the image, nothing to draw.
+			return;
+		}
+		if (4 * segmentCount == segments.length) {
+			segments = Arrays.copyOf(segments, segments.length * 2);
+		}
+		int offset = 4 * segmentCount;
+		segments[offset] = x0;
+		segments[offset + 1] = y0;
+		segments[offset + 2] = x1;
+		segments[offset + 3] = y1;
+		int fromTileX = clamp(minX, width - 1) / tileSize;
+		int toTileX = clamp(maxX, width - 1) / tileSize;
+		int fromTileY = clamp(minY, height - 1) / tileSize;
+		int toTileY = clamp(maxY, height - 1) / tileSize;
+		for (int tileY = fromTileY; tileY <= toTileY; tileY++) {
+			for (int tileX = fromTileX; tileX <= toTileX; tileX++) {
+				bin(tileY * tilesX + tileX, segmentCount);
+			}
+		}
+		segmentCount++;
+	}
+
+	/**
+	 * Adds a polyline, connecting the first count points. A polyline with only
+	 * one point draws this point.
+	 * 
+	 * @param xs    The x coordinates of the points in pixels.
+	 * @param ys    The y coordinates of the points in pixels.
+	 * @param count The number of points to connect.
+	 */
+	void addPolyline(int[] xs, int[] ys, int count) {
+		if (count == 1) {
+			addSegment(xs[0], ys[0], xs[0], ys[0]);
+		}
+		for (int i = 1; i < count; i++) {
+			addSegment(xs[i - 1], ys[i - 1], xs[i], ys[i]);
+		}
+	}
+
+	/**
+	 * Removes all segments, so that the renderer can be used for the next image.
+	 */
+	void clear() {
+		segmentCount = 0;
+		Arrays.fill(tileCounts, 0);
+	}
+
+	private void drawTile(int tile, Graphics tileGraphics) {
+		int[] list = tileSegments[tile];
+		try {
+			for (int i = 0; i < tileCounts[tile]; i++) {
+				int offset = 4 * list[i];
+				tileGraphics.drawLine(segments[offset], segments[offset + 1], segments[offset + 2], segments[offset + 3]);
+			}
+		} finally {
+			tileGraphics.dispose();
+		}
+	}
+
+	/**
+	 * Draws all segments with the settings of the given graphics, which must
+	 * belong to an image of the size of this renderer.
+	 * 
+	 * @param graphics The graphics of the image. It is not changed, every tile
+	 *                 draws with its own copy.
+	 * @param parallel True to draw the tiles in parallel, false to draw them one
+	 *                 after another in the calling thread.
+	 */
+	void render(Graphics graphics, boolean parallel) {
+		// The copies are made here, as graphics must not be used by several
+		// threads.
+		Graphics[] tileGraphics = new Graphics[tileCounts.length];
+		int[] tiles = new int[tileCounts.length];
+		int occupied = 0;
+		for (int tile = 0; tile < tileCounts.length; tile++) {
+			if (tileCounts[tile] > 0) {
+				Graphics copy = graphics.create();
+				copy.clipRect((tile % tilesX) * tileSize, (tile / tilesX) * tileSize, tileSize, tileSize);
+				tileGraphics[occupied] = copy;
+				tiles[occupied++] = tile;
+			}
+		}
+		if (parallel && occupied > 1) {
+			ForkJoinPool.commonPool().invoke(new TileTask(tileGraphics, tiles, 0, occupied));
+		} else {
+			for (int i = 0; i < occupied; i++) {
+				drawTile(tiles[i], tileGraphics[i]);
+			}
+		}
+	}
+
+	/**
+	 * Creates a renderer for an image with the given size.
+	 * 
+	 * @param width    Width of the image in pixels.
+	 * @param height   Height of the image in pixels.
+	 * @param tileSize Edge length of a tile in pixels.
+	 * @return The renderer.
+	 */
+	static TiledLineRenderer of(int width, int height, int tileSize) {
+		return new TiledLineRenderer(width, height, tileSize);
+	}
+
+}
@@ -0,0 +1,115 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BSplineTest {
+
+	/**
+	 * A clamped B-spline with degree + 1 control points is a Bezier curve.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 3, 5 })
+	void testEqualsBezier(int degree) {
+		Random random = new Random(4711);
+		double[] xs = new double[degree + 1];
+		double[] ys = new double[degree + 1];
+		for (int i = 0; i <= degree; i++) {
+			xs[i] = random.nextDouble() * 10;
+			ys[i] = random.nextDouble() * 10;
+		}
+		PointBuffer points = PointBuffer.of(xs, ys);
+		BSpline cut = BSpline.uniform(degree, points);
+		Bezier bezier = Bezier.of(points);
+		for (double t = 0; t <= 1; t += 0.01) {
+			assertEquals(bezier.x(t), cut.x(t), 1e-12);
+			assertEquals(bezier.y(t), cut.y(t), 1e-12);
+		}
+		assertEquals(xs[degree], cut.x(1), 1e-12);
+	}
+
+	/**
+	 * The standard NURBS circle of degree 2 with 9 control points.
+	 */
+	@Test
+	void testNurbsCircle() {
+		double w = Math.sqrt(0.5);
+		BSpline cut = BSpline.of(2,
+		    PointBuffer.of(new double[] { 1, 1, 0, -1, -1, -1, 0, 1, 1 }, new double[] { 0, 1, 1, 1, 0, -1, -1, -1, 0 }),
+		    new double[] { 0, 0, 0, 0.25, 0.25, 0.5, 0.5, 0.75, 0.75, 1, 1, 1 },
+		    new double[] { 1, w, 1, w, 1, w, 1, w, 1 });
+		double[] xs = new double[1001];
+		double[] ys = new double[1001];
+		cut.sample(0, 1, 1001, xs, ys);
+		for (int i = 0; i <= 1000; i++) {
+			assertEquals(1, Math.hypot(xs[i], ys[i]), 1e-12);
+		}
+		assertEquals(-1, cut.x(0.5), 1e-12);
+		assertEquals(0, cut.y(0.5), 1e-12);
+	}
+
+	/**
+	 * A linear B-spline is the polyline through its control points, with the
+	 * knots as parameters of the points.
+	 */
+	@Test
+	void testPolyline() {
+		BSpline cut = BSpline.of(1, PointBuffer.of(new double[] { 0, 1, 1, 3 }, new double[] { 0, 0, 2, 2 }),
+		    new double[] { 2, 2, 3, 5, 6, 6 });
+		assertEquals(2, cut.startT());
+		assertEquals(6, cut.endT());
+		assertEquals(0.5, cut.x(2.5), 1e-12);
+		assertEquals(1, cut.x(4), 1e-12);
+		assertEquals(1, cut.y(4), 1e-12);
+		assertEquals(3, cut.x(6), 1e-12);
+		assertEquals(2, cut.point(6).y(), 1e-12);
+	}
+
+	@Test
+	void testSpan() {
+		BSpline cut = BSpline.of(2, PointBuffer.of(new double[] { 0, 1, 2, 3, 4, 5 }, new double[6]),
+		    new double[] { 0, 0, 0, 1, 2, 2, 3, 3, 3 });
+		assertEquals(2, cut.span(0));
+		assertEquals(2, cut.span(0.5));
+		assertEquals(3, cut.span(1));
+		assertEquals(5, cut.span(2));
+		assertEquals(5, cut.span(3));
+	}
+
+	@Test
+	void testInvalid() {
+		PointBuffer points = PointBuffer.of(new double[] { 0, 1, 2 }, new double[] { 0, 1, 0 });
+		assertThrows(IllegalArgumentException.class, () -> {
+			BSpline.uniform(3, points);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			BSpline.of(2, points, new double[] { 0, 0, 0, 1, 1 });
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			BSpline.of(2, points, new double[] { 0, 0, 1, 0, 1, 1 });
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			BSpline.of(2, points, new double[] { 0, 0, 0, 1, 1, 1 }, new double[] { 1, -1, 1 });
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			BSpline.uniform(2, points).x(1.1);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			BSpline.uniform(2, points).y(Double.NaN);
+		});
+	}
+
+}
@@ -0,0 +1,99 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierBatchTest {
+
+	private static final int CURVES = 10000;
+
+	private Bezier[] curves;
+	private double[] parameters;
+
+	/**
+	 * Creates curves, which are monotone in x, with different degrees.
+	 */
+	@BeforeEach
+	void setUp() {
+		Random random = new Random(4711);
+		curves = new Bezier[CURVES];
+		parameters = new double[CURVES];
+		for (int i = 0; i < CURVES; i++) {
+			int count = 2 + i % 5;
+			double[] x = new double[count];
+			double[] y = new double[count];
+			for (int k = 0; k < count; k++) {
+				x[k] = (k == 0) ? random.nextDouble() : x[k - 1] + random.nextDouble();
+				y[k] = random.nextDouble() * 100;
+			}
+			curves[i] = Bezier.of(PointBuffer.of(x, y));
+			parameters[i] = random.nextDouble();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 100, BezierBatch.DEF_THRESHOLD, 2 * CURVES })
+	void testEvaluate(int threshold) {
+		BezierBatch cut = BezierBatch.of(curves, threshold);
+		double[] xs = new double[CURVES];
+		double[] ys = new double[CURVES];
+		double[] sequentialXs = new double[CURVES];
+		double[] sequentialYs = new double[CURVES];
+		cut.evaluate(parameters, xs, ys);
+		cut.evaluateSequential(parameters, sequentialXs, sequentialYs);
+		for (int i = 0; i < CURVES; i++) {
+			Point expected = curves[i].bezier(parameters[i]);
+			assertEquals(expected.x(), xs[i]);
+			assertEquals(expected.y(), ys[i]);
+			assertEquals(expected.x(), sequentialXs[i]);
+			assertEquals(expected.y(), sequentialYs[i]);
+		}
+	}
+
+	@Test
+	void testYFromX() throws MathException {
+		BezierBatch cut = BezierBatch.of(curves, 100);
+		double[] xs = new double[CURVES];
+		double[] ys = new double[CURVES];
+		for (int i = 0; i < CURVES; i++) {
+			xs[i] = curves[i].x(parameters[i]);
+		}
+		cut.yFromX(xs, ys);
+		for (int i = 0; i < CURVES; i++) {
+			assertEquals(curves[i].y(curves[i].solveTFromX(xs[i])), ys[i]);
+		}
+	}
+
+	@Test
+	void testYFromXOutOfRange() {
+		BezierBatch cut = BezierBatch.of(curves, 100);
+		double[] xs = new double[CURVES];
+		xs[CURVES / 2] = -1;
+		assertThrows(MathException.class, () -> {
+			cut.yFromX(xs, new double[CURVES]);
+		});
+	}
+
+	@Test
+	void testArrayTooSmall() {
+		BezierBatch cut = BezierBatch.of(curves);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.evaluate(parameters, new double[CURVES - 1], new double[CURVES]);
+		});
+	}
+
+}
@@ -0,0 +1,127 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierCacheTest {
+
+	private Bezier bezier;
+
+	@BeforeEach
+	void setUp() {
+		bezier = Bezier.of(PointBuffer.of(new double[] { 0, 0.42, 0.58, 1 }, new double[] { 0, 0, 1, 1 }));
+	}
+
+	@Test
+	void testResultsAndCounters() throws MathException {
+		BezierCache cut = BezierCache.of(bezier);
+		assertSame(bezier, cut.bezier());
+		assertEquals(0, cut.hitRate());
+		for (int frame = 0; frame <= 60; frame++) {
+			double x = frame / 60.0;
+			double t = bezier.solveTFromX(x, BezierSolverConfig.BALANCED);
+			assertEquals(t, cut.tFromX(x), 1e-6);
+			assertEquals(bezier.y(t), cut.yFromX(x), 1e-5);
+		}
+		assertEquals(61, cut.misses());
+		assertEquals(61, cut.hits());
+		assertEquals(61, cut.size());
+		for (int frame = 0; frame <= 60; frame++) {
+			cut.yFromX(frame / 60.0);
+		}
+		assertEquals(61, cut.misses());
+		assertEquals(2.0 / 3, cut.hitRate(), 1e-12);
+		cut.clear();
+		assertEquals(0, cut.size());
+		assertEquals(0, cut.hits());
+	}
+
+	/**
+	 * x within the same quantum gives the same result, even at the border of the
+	 * curve.
+	 */
+	@ParameterizedTest
+	@ValueSource(doubles = { 0, 0.3, 1 })
+	void testQuantization(double x) throws MathException {
+		BezierCache cut = BezierCache.of(bezier, 10, 1e-3, BezierSolverConfig.PRECISE);
+		double y = cut.yFromX(x);
+		assertEquals(y, cut.yFromX(Math.max(0, x - 4e-4)));
+		assertEquals(y, cut.yFromX(Math.min(1, x + 4e-4)));
+		assertEquals(1, cut.misses());
+	}
+
+	/**
+	 * The recently used entries must survive eviction.
+	 */
+	@Test
+	void testEviction() throws MathException {
+		BezierCache cut = BezierCache.of(bezier, 100, 1e-3, BezierSolverConfig.BALANCED);
+		for (int i = 0; i < 1000; i++) {
+			cut.yFromX(i / 1000.0);
+			cut.yFromX(0.5);
+			assertTrue(cut.size() <= cut.capacity());
+		}
+		long misses = cut.misses();
+		cut.yFromX(0.5);
+		cut.yFromX(0.999);
+		assertEquals(misses, cut.misses());
+	}
+
+	@Test
+	void testConcurrentAccess() throws InterruptedException, ExecutionException {
+		BezierCache cut = BezierCache.of(bezier, 50, 1e-3, BezierSolverConfig.BALANCED);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int n = 0; n < 4; n++) {
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 10000; i++) {
+					double x = (i * 7 % 101) / 100.0;
+					assertEquals(bezier.y(bezier.solveTFromX(Math.round(x * 1000) / 1000.0)), cut.yFromX(x), 1e-5);
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		assertEquals(40000, cut.hits() + cut.misses());
+		assertTrue(cut.size() <= cut.capacity());
+	}
+
+	@Test
+	void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierCache.of(bezier, 0, 1e-3, BezierSolverConfig.BALANCED);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierCache.of(bezier, 10, 0, BezierSolverConfig.BALANCED);
+		});
+		BezierCache cut = BezierCache.of(bezier);
+		assertThrows(MathException.class, () -> {
+			cut.yFromX(2);
+		});
+	}
+
+}
@@ -3,16 +3,24 @@
  */
 package de.lexasoft.common.math;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -96,4 +104,88 @@ class BezierCurvePlotterTest {
 		assertTrue(file2Write.exists());
 	}
 
+	private static int[] pixels(BufferedImage image) {
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
+	private static Stream<Arguments> testPlotCurveTiled() {
+		return Stream.of(Arguments.of(create4PointList(), 64), //
+		    Arguments.of(create4PointList(), 1), //
+		    Arguments.of(create4PointList(), 7), //
+		    Arguments.of(create3PointList(), 500), //
+		    Arguments.of(createList(Point.of(0, 0), Point.of(66, 120), Point.of(100, 100)), 33),
+		    Arguments.of(createList(Point.of(0, 0), Point.of(50, 0), Point.of(100, 100)), 1000));
+	}
+
+	/**
+	 * The tiled mode must produce exactly the pixels of the sequential mode.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void testPlotCurveTiled(List<Point> list, int tileSize) {
+		BufferedImage expected = BezierCurvePlotter.of(Bezier.of(list), 500, 500).plotCurve();
+		BezierCurvePlotter cut = BezierCurvePlotter.of(Bezier.of(list), 500, 500);
+		assertArrayEquals(pixels(expected), pixels(cut.plotCurveTiled(tileSize)));
+	}
+
+	/**
+	 * Without anti-aliasing, the raster mode must produce exactly the pixels of
+	 * the sequential mode.
+	 */
+	@ParameterizedTest
+	@MethodSource("testPlotCurve")
+	void testPlotCurveRaster(List<Point> list, String filename) {
+		BufferedImage expected = BezierCurvePlotter.of(Bezier.of(list), 500, 500).plotCurve();
+		BezierCurvePlotter cut = BezierCurvePlotter.of(Bezier.of(list), 500, 500);
+		assertArrayEquals(pixels(expected), pixels(cut.plotCurveRaster(false)));
+	}
+
+	@Test
+	void testPlotCurveRasterAntiAliased() throws IOException {
+		String filename = DIRECTORY + "/4-point-list-anti-aliased.png";
+		BufferedImage plain = BezierCurvePlotter.of(Bezier.of(create4PointList()), 500, 500).plotCurve();
+		BezierCurvePlotter cut = BezierCurvePlotter.of(Bezier.of(create4PointList()), 500, 500);
+		BufferedImage antiAliased = cut.plotCurveRaster(true);
+		assertFalse(Arrays.equals(pixels(plain), pixels(antiAliased)));
+		cut.saveImageToFileSystem(filename);
+		assertTrue(new File(filename).exists());
+	}
+
+	@Test
+	void testPlotCurveRasterWrongImageType() {
+		BezierCurvePlotter cut = BezierCurvePlotter.of(Bezier.of(create4PointList()),
+		    new BufferedImage(100, 100, BufferedImage.TYPE_BYTE_GRAY));
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.plotCurveRaster(false);
+		});
+	}
+
+	/**
+	 * A second plot must not connect the curve with the one plotted before.
+	 */
+	@Test
+	void testPlotCurveTwice() {
+		BufferedImage expected = BezierCurvePlotter.of(Bezier.of(create4PointList()), 500, 500).plotCurve();
+		BezierCurvePlotter cut = BezierCurvePlotter.of(Bezier.of(create4PointList()), 500, 500);
+		cut.plotCurve();
+		assertArrayEquals(pixels(expected), pixels(cut.plotCurve()));
+		assertArrayEquals(pixels(expected), pixels(cut.plotCurveTiled()));
+		assertArrayEquals(pixels(expected), pixels(cut.plotCurveRaster(false)));
+	}
+
+	/**
+	 * The renderer, kept for the next plots, must start each anti-aliased plot
+	 * with an empty coverage.
+	 */
+	@Test
+	void testPlotCurveRasterAntiAliasedTwice() {
+		BufferedImage expected = BezierCurvePlotter.of(Bezier.of(create4PointList()), 500, 500).plotCurveRaster(true);
+		Graphics graphics = expected.getGraphics();
+		graphics.setColor(Color.BLACK);
+		new BezierCurvePlotter(Bezier.of(create4PointList()), expected, graphics).plotCurveRaster(true);
+		BezierCurvePlotter cut = BezierCurvePlotter.of(Bezier.of(create4PointList()), 500, 500);
+		cut.plotCurveRaster(true);
+		assertArrayEquals(pixels(expected), pixels(cut.plotCurveRaster(true)));
+	}
+
 }
@@ -0,0 +1,114 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierFitterTest {
+
+	private static final int POINTS = 10000;
+
+	/**
+	 * Samples of a sine wave with some noise.
+	 */
+	private static void addWave(BezierFitter fitter, double noise) {
+		Random random = new Random(4711);
+		for (int i = 0; i < POINTS; i++) {
+			double x = i * 0.01;
+			fitter.add(x, 10 * Math.sin(x) + noise * (random.nextDouble() - 0.5));
+		}
+	}
+
+	/**
+	 * The distance of the path to the nearest point on a segment.
+	 */
+	private static double distance(BezierPath path, double x, double y) {
+		double[] out = new double[2];
+		double min = Double.MAX_VALUE;
+		for (int i = 0; i < path.segmentCount(); i++) {
+			BoundingBox bounds = path.segment(i).bounds();
+			if (bounds.distanceSquare(x, y) < min * min) {
+				path.segment(i).project(x, y, out);
+				min = Math.min(min, out[1]);
+			}
+		}
+		return min;
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0.5, 0.05, 0.005 })
+	void testFitWithinTolerance(double tolerance) {
+		BezierFitter cut = BezierFitter.of(tolerance);
+		addWave(cut, tolerance);
+		BezierPath path = cut.fit();
+		assertEquals(0, path.x(0));
+		assertEquals((POINTS - 1) * 0.01, path.x(path.segmentCount()), 1e-9);
+		for (int i = 0; i < POINTS; i += 7) {
+			double x = i * 0.01;
+			double y = 10 * Math.sin(x);
+			assertTrue(distance(path, x, y) <= 1.5 * tolerance);
+		}
+		// Far less segments than points.
+		assertTrue(path.segmentCount() < POINTS / 20);
+	}
+
+	@Test
+	void testStraightLine() {
+		BezierFitter cut = BezierFitter.of(1e-6);
+		for (int i = 0; i <= 1000; i++) {
+			cut.add(i, 2 * i);
+		}
+		BezierPath path = cut.fit();
+		assertEquals(1, path.segmentCount());
+		assertEquals(1000, path.segment(0).x(1), 1e-9);
+		assertEquals(2000, path.segment(0).y(1), 1e-9);
+	}
+
+	@Test
+	void testReuse() {
+		BezierFitter cut = BezierFitter.of(0.01);
+		addWave(cut, 0);
+		int segments = cut.fit().segmentCount();
+		cut.clear();
+		assertEquals(0, cut.size());
+		double[] xs = new double[POINTS];
+		double[] ys = new double[POINTS];
+		for (int i = 0; i < POINTS; i++) {
+			xs[i] = i * 0.01;
+			ys[i] = 10 * Math.sin(xs[i]);
+		}
+		cut.add(xs, ys, POINTS);
+		assertEquals(segments, cut.fit().segmentCount());
+	}
+
+	@Test
+	void testDuplicatesAndTooFewPoints() {
+		BezierFitter cut = BezierFitter.of(0.1);
+		cut.add(1, 1);
+		cut.add(1, 1);
+		assertEquals(1, cut.size());
+		assertThrows(IllegalStateException.class, () -> {
+			cut.fit();
+		});
+		cut.add(PointBuffer.of(new double[] { 2, 3 }, new double[] { 1, 1 }));
+		BezierPath path = cut.fit();
+		assertEquals(3, path.x(path.segmentCount()), 1e-12);
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierFitter.of(0);
+		});
+	}
+
+}
@@ -0,0 +1,112 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierFlattenerTest {
+
+	private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double lengthSquare = dx * dx + dy * dy;
+		double u = (lengthSquare == 0) ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquare;
+		u = Math.max(0, Math.min(1, u));
+		return Math.hypot(px - (ax + u * dx), py - (ay + u * dy));
+	}
+
+	private static double distanceToPolyline(double px, double py, PointBuffer polyline) {
+		double min = Double.MAX_VALUE;
+		for (int i = 1; i < polyline.size(); i++) {
+			min = Math.min(min, distanceToSegment(px, py, polyline.x(i - 1), polyline.y(i - 1), polyline.x(i),
+			    polyline.y(i)));
+		}
+		return min;
+	}
+
+	private static Stream<Arguments> testFlatten() {
+		return Stream.of(
+		    Arguments.of(Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(5, 0), Point.of(5, 10), Point.of(10, 10))),
+		        0.01),
+		    Arguments.of(Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(500, 0), Point.of(500, 1000),
+		        Point.of(1000, 1000))), 0.5),
+		    Arguments.of(Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(100, 100), Point.of(0, 100),
+		        Point.of(100, 0))), 0.25),
+		    Arguments.of(Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100))), 0.1),
+		    Arguments.of(Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(1, 5), Point.of(3, -2), Point.of(4, 8),
+		        Point.of(7, 1), Point.of(8, 3), Point.of(9, 9), Point.of(10, 0))), 0.001));
+	}
+
+	/**
+	 * No point on the curve may be farer away from the polyline than the
+	 * tolerance.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void testFlatten(Bezier bezier, double tolerance) {
+		PointBuffer cut = BezierFlattener.of(tolerance).flatten(bezier);
+		assertEquals(bezier.x(0), cut.x(0));
+		assertEquals(bezier.y(0), cut.y(0));
+		assertEquals(bezier.x(1), cut.x(cut.size() - 1), 1e-9);
+		assertEquals(bezier.y(1), cut.y(cut.size() - 1), 1e-9);
+		for (int i = 0; i <= 2000; i++) {
+			double t = i / 2000.0;
+			assertTrue(distanceToPolyline(bezier.x(t), bezier.y(t), cut) <= tolerance * 1.000001);
+		}
+	}
+
+	@Test
+	void testStraightLineNeedsTwoPoints() {
+		Bezier bezier = Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(3, 3), Point.of(6, 6), Point.of(10, 10)));
+		assertEquals(2, BezierFlattener.of(0.01).flatten(bezier).size());
+	}
+
+	@Test
+	void testGentleCurveNeedsFewPoints() {
+		Bezier bezier = Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100)));
+		assertTrue(BezierFlattener.of(0.5).flatten(bezier).size() < 20);
+	}
+
+	@Test
+	void testReuse() {
+		BezierFlattener cut = BezierFlattener.of(0.1);
+		Bezier cubic = Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(5, 0), Point.of(5, 10), Point.of(10, 10)));
+		Bezier quadratic = Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100)));
+		PointBuffer first = cut.flatten(cubic);
+		cut.flatten(quadratic);
+		assertEquals(first, cut.flatten(cubic));
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { -1, 0, Double.NaN })
+	void testInvalidTolerance(double tolerance) {
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierFlattener.of(tolerance);
+		});
+	}
+
+	/**
+	 * A tolerance far below the size of the curve is limited by the depth.
+	 */
+	@Test
+	void testTinyTolerance() {
+		Bezier quadratic = Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100)));
+		assertTrue(BezierFlattener.of(1e-300).flatten(quadratic).size() <= (1 << BezierFlattener.MAX_DEPTH) + 1);
+	}
+
+}
@@ -0,0 +1,185 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierIndexTest {
+
+	private static final int CURVES = 500;
+	private static final double AREA = 1000;
+
+	private Random random;
+	private List<Bezier> curves;
+
+	/**
+	 * Creates small curves of different degree scattered over the area and some
+	 * large ones crossing it.
+	 */
+	@BeforeEach
+	void setUp() {
+		random = new Random(4711);
+		curves = new ArrayList<>();
+		for (int i = 0; i < CURVES; i++) {
+			int count = 2 + i % 4;
+			double[] x = new double[count];
+			double[] y = new double[count];
+			double size = (i % 50 == 0) ? AREA : 20;
+			double originX = random.nextDouble() * AREA;
+			double originY = random.nextDouble() * AREA;
+			for (int k = 0; k < count; k++) {
+				x[k] = originX + random.nextDouble() * size;
+				y[k] = originY + random.nextDouble() * size;
+			}
+			curves.add(Bezier.of(PointBuffer.of(x, y)));
+		}
+	}
+
+	private BezierIndex createIndex() {
+		BezierIndex index = BezierIndex.of(10);
+		for (Bezier bezier : curves) {
+			index.insert(bezier);
+		}
+		return index;
+	}
+
+	private static double distanceSquare(Bezier bezier, double x, double y) {
+		double[] projection = new double[2];
+		bezier.project(x, y, projection);
+		return projection[1] * projection[1];
+	}
+
+	/**
+	 * The nearest curve must be as near as the nearest curve found by brute
+	 * force.
+	 */
+	@Test
+	void testNearest() {
+		BezierIndex cut = createIndex();
+		assertEquals(CURVES, cut.size());
+		for (int i = 0; i < 100; i++) {
+			double x = random.nextDouble() * AREA * 1.2 - AREA * 0.1;
+			double y = random.nextDouble() * AREA * 1.2 - AREA * 0.1;
+			double expected = Double.MAX_VALUE;
+			for (Bezier bezier : curves) {
+				expected = Math.min(expected, distanceSquare(bezier, x, y));
+			}
+			assertEquals(expected, distanceSquare(cut.nearest(x, y), x, y));
+		}
+	}
+
+	/**
+	 * All curves with a sample in the rectangle must be found. All curves found
+	 * must come close to the rectangle.
+	 */
+	@ParameterizedTest
+	@ValueSource(doubles = { 1, 15, 100 })
+	void testQuery(double size) {
+		BezierIndex cut = createIndex();
+		for (int i = 0; i < 20; i++) {
+			double minX = random.nextDouble() * AREA;
+			double minY = random.nextDouble() * AREA;
+			BoundingBox rectangle = BoundingBox.of(minX, minY, minX + size, minY + size);
+			List<Bezier> found = cut.query(rectangle);
+			for (Bezier bezier : curves) {
+				boolean sampled = false;
+				for (int k = 0; k <= 500 && !sampled; k++) {
+					sampled = rectangle.contains(bezier.x(k / 500.0), bezier.y(k / 500.0));
+				}
+				if (sampled) {
+					assertTrue(found.contains(bezier));
+				}
+			}
+			for (Bezier bezier : found) {
+				double centerX = minX + size / 2;
+				double centerY = minY + size / 2;
+				double distance = Math.sqrt(distanceSquare(bezier, centerX, centerY));
+				assertTrue(distance <= size * Math.sqrt(0.5) + 1e-3);
+			}
+			assertEquals(found.size(), found.stream().distinct().count());
+		}
+	}
+
+	@Test
+	void testRemove() {
+		BezierIndex cut = createIndex();
+		for (int i = 0; i < CURVES; i += 2) {
+			assertTrue(cut.remove(curves.get(i)));
+			assertFalse(cut.remove(curves.get(i)));
+		}
+		assertEquals(CURVES / 2, cut.size());
+		BoundingBox all = BoundingBox.of(-AREA, -AREA, 3 * AREA, 3 * AREA);
+		List<Bezier> found = cut.query(all);
+		assertEquals(CURVES / 2, found.size());
+		for (int i = 0; i < CURVES; i++) {
+			assertEquals(i % 2 == 1, found.contains(curves.get(i)));
+		}
+	}
+
+	/**
+	 * Removing all curves must leave no cell behind, inserting them again must
+	 * find every cell again.
+	 */
+	@Test
+	void testRemoveAll() {
+		BezierIndex cut = createIndex();
+		for (int i = CURVES - 1; i >= 0; i -= 3) {
+			assertTrue(cut.remove(curves.get(i)));
+		}
+		for (Bezier bezier : curves) {
+			cut.remove(bezier);
+		}
+		assertEquals(0, cut.size());
+		BoundingBox all = BoundingBox.of(-AREA, -AREA, 3 * AREA, 3 * AREA);
+		assertTrue(cut.query(all).isEmpty());
+		assertNull(cut.nearest(AREA / 2, AREA / 2));
+		for (Bezier bezier : curves) {
+			cut.insert(bezier);
+		}
+		assertEquals(CURVES, cut.query(all).size());
+		for (Bezier bezier : curves) {
+			BoundingBox bounds = bezier.bounds();
+			assertTrue(cut.query(bounds).contains(bezier));
+		}
+	}
+
+	@Test
+	void testEmpty() {
+		BezierIndex cut = BezierIndex.of(1);
+		assertNull(cut.nearest(0, 0));
+		assertTrue(cut.query(BoundingBox.of(0, 0, 1, 1)).isEmpty());
+		Bezier bezier = curves.get(1);
+		cut.insert(bezier);
+		cut.insert(bezier);
+		assertEquals(1, cut.size());
+		assertSame(bezier, cut.nearest(-1e6, 1e6));
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0, -1, Double.NaN })
+	void testCellSizeInvalid(double cellSize) {
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierIndex.of(cellSize);
+		});
+	}
+
+}
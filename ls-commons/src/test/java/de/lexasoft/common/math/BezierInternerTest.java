@@ -0,0 +1,84 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierInternerTest {
+
+	private static List<Point> easeIn() {
+		List<Point> points = new ArrayList<>();
+		points.add(Point.of(0, 0));
+		points.add(Point.of(0.42, 0));
+		points.add(Point.of(1, 1));
+		points.add(Point.of(1, 1));
+		return points;
+	}
+
+	@Test
+	void testIntern() {
+		BezierInterner cut = BezierInterner.of();
+		Bezier first = cut.intern(easeIn());
+		assertSame(first, cut.intern(easeIn()));
+		assertSame(first, cut.intern(PointBuffer.of(new double[] { 0, 0.42, 1, 1 }, new double[] { 0, 0, 1, 1 })));
+		assertTrue(first instanceof CubicBezier);
+		Bezier other = cut.intern(PointBuffer.of(new double[] { 0, 0.5, 1 }, new double[] { 0, 0, 1 }));
+		assertNotSame(first, other);
+		assertEquals(2, cut.size());
+		assertEquals(2, cut.hits());
+		assertEquals(2, cut.misses());
+		assertEquals(0.5, cut.hitRate());
+	}
+
+	@Test
+	void testGlobal() {
+		assertSame(BezierInterner.global(), BezierInterner.global());
+		assertSame(BezierInterner.global().intern(easeIn()), BezierInterner.global().intern(easeIn()));
+	}
+
+	@Test
+	void testConcurrentIntern() {
+		BezierInterner cut = BezierInterner.of();
+		Set<Bezier> found = ConcurrentHashMap.newKeySet();
+		IntStream.range(0, 10000).parallel().forEach((i) -> {
+			found.add(cut.intern(easeIn()));
+		});
+		assertEquals(1, found.size());
+		// The curve is only created once, the threads losing the race had a hit.
+		assertEquals(1, cut.misses());
+		assertEquals(10000, cut.hits() + cut.misses());
+	}
+
+	/**
+	 * Curves, which are not used any more, are removed after garbage collection.
+	 */
+	@Test
+	void testWeakValues() throws InterruptedException {
+		BezierInterner cut = BezierInterner.of();
+		for (int i = 0; i < 100; i++) {
+			cut.intern(PointBuffer.of(new double[] { 0, i }, new double[] { 0, 1 }));
+		}
+		for (int i = 0; i < 50 && cut.size() > 0; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertEquals(0, cut.size());
+	}
+
+}
@@ -0,0 +1,228 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierIntersectorTest {
+
+	private BezierIntersector cut;
+
+	@BeforeEach
+	void setUp() {
+		cut = BezierIntersector.of();
+	}
+
+	private static Bezier sCurve() {
+		return Bezier.of(PointBuffer.of(new double[] { 0, 1, 2, 3 }, new double[] { 0, 2, -2, 0 }));
+	}
+
+	/**
+	 * y of the s curve is 6t(1 - t)(1 - 2t), x is 3t.
+	 */
+	@Test
+	void testIntersectLine() {
+		assertEquals(3, cut.intersectLine(sCurve(), -1, 0, 4, 0));
+		double[] expected = { 0, 0.5, 1 };
+		for (int i = 0; i < 3; i++) {
+			assertEquals(expected[i], cut.firstT(i), 1e-12);
+			assertEquals((3 * expected[i] + 1) / 5, cut.secondT(i), 1e-12);
+		}
+		// Segment ends before the last intersection.
+		assertEquals(2, cut.intersectLine(sCurve(), -1, 0, 2, 0));
+		assertEquals(0, cut.intersectLine(sCurve(), -1, 5, 4, 5));
+		assertEquals(0, cut.count());
+	}
+
+	/**
+	 * The numeric solution for higher degrees must match the analytic one.
+	 */
+	@Test
+	void testIntersectLineHighDegree() {
+		Random random = new Random(4711);
+		for (int n = 0; n < 100; n++) {
+			double[] xs = new double[4];
+			double[] ys = new double[4];
+			for (int i = 0; i < 4; i++) {
+				xs[i] = random.nextDouble() * 10;
+				ys[i] = random.nextDouble() * 10;
+			}
+			Bezier cubic = Bezier.of(PointBuffer.of(xs, ys));
+			Bezier elevated = cubic.elevate().elevate();
+			double x0 = random.nextDouble() * 10;
+			double x1 = random.nextDouble() * 10;
+			int count = cut.intersectLine(cubic, x0, 0, x1, 10);
+			double[] expected = new double[count];
+			for (int i = 0; i < count; i++) {
+				expected[i] = cut.firstT(i);
+			}
+			assertEquals(count, cut.intersectLine(elevated, x0, 0, x1, 10));
+			for (int i = 0; i < count; i++) {
+				assertEquals(expected[i], cut.firstT(i), 1e-7);
+			}
+		}
+	}
+
+	/**
+	 * Parabolas y = 2x - x^2 and y = 1 - 2x + x^2 intersect at x = 1 +- 1 /
+	 * sqrt(2).
+	 */
+	@Test
+	void testIntersectParabolas() {
+		Bezier first = Bezier.of(PointBuffer.of(new double[] { 0, 1, 2 }, new double[] { 0, 2, 0 }));
+		Bezier second = Bezier.of(PointBuffer.of(new double[] { 0, 1, 2 }, new double[] { 1, -1, 1 }));
+		assertEquals(2, cut.intersect(first, second));
+		double[] expected = { (1 - Math.sqrt(0.5)) / 2, (1 + Math.sqrt(0.5)) / 2 };
+		for (int i = 0; i < 2; i++) {
+			assertEquals(expected[i], cut.firstT(i), 1e-12);
+			assertEquals(expected[i], cut.secondT(i), 1e-12);
+		}
+	}
+
+	/**
+	 * Subdivision must find the same intersections with a line as the analytic
+	 * solution.
+	 */
+	@Test
+	void testIntersectCurvesWithLine() {
+		Random random = new Random(4711);
+		for (int n = 0; n < 200; n++) {
+			double[] xs = new double[4];
+			double[] ys = new double[4];
+			for (int i = 0; i < 4; i++) {
+				xs[i] = random.nextDouble() * 10;
+				ys[i] = random.nextDouble() * 10;
+			}
+			Bezier curve = Bezier.of(PointBuffer.of(xs, ys));
+			double x0 = random.nextDouble() * 10;
+			double x1 = random.nextDouble() * 10;
+			Bezier line = Bezier.of(PointBuffer.of(new double[] { x0, x1 }, new double[] { 0, 10 }));
+			int count = cut.intersectLine(curve, x0, 0, x1, 10);
+			double[] expected = new double[2 * count];
+			for (int i = 0; i < count; i++) {
+				expected[2 * i] = cut.firstT(i);
+				expected[2 * i + 1] = cut.secondT(i);
+			}
+			assertEquals(count, cut.intersect(curve, line));
+			for (int i = 0; i < count; i++) {
+				assertEquals(expected[2 * i], cut.firstT(i), 1e-7);
+				assertEquals(expected[2 * i + 1], cut.secondT(i), 1e-7);
+			}
+		}
+	}
+
+	/**
+	 * All intersections found between random curves must be points on both
+	 * curves.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 3, 4, 6 })
+	void testIntersectRandomCurves(int size) {
+		Random random = new Random(4711);
+		int total = 0;
+		for (int n = 0; n < 200; n++) {
+			Bezier first = randomCurve(random, size);
+			Bezier second = randomCurve(random, size);
+			int count = cut.intersect(first, second);
+			for (int i = 0; i < count; i++) {
+				double t = cut.firstT(i);
+				double u = cut.secondT(i);
+				assertTrue(i == 0 || t >= cut.firstT(i - 1));
+				assertEquals(first.x(t), second.x(u), 1e-8);
+				assertEquals(first.y(t), second.y(u), 1e-8);
+			}
+			total += count;
+		}
+		assertTrue(total > 0);
+	}
+
+	private void assertResult(int i, double t, double u) {
+		assertEquals(t, cut.firstT(i), 1e-9);
+		assertEquals(u, cut.secondT(i), 1e-9);
+	}
+
+	/**
+	 * Coincident curves only give the end points of the overlap, in both
+	 * directions.
+	 */
+	@Test
+	void testIntersectCoincident() {
+		Bezier curve = sCurve();
+		assertEquals(2, cut.intersect(curve, curve));
+		assertResult(0, 0, 0);
+		assertResult(1, 1, 1);
+		Bezier reversed = Bezier.of(PointBuffer.of(new double[] { 3, 2, 1, 0 }, new double[] { 0, -2, 2, 0 }));
+		assertEquals(2, cut.intersect(curve, reversed));
+		assertResult(0, 0, 1);
+		assertResult(1, 1, 0);
+	}
+
+	/**
+	 * The first part covers [0, 0.7] of the s curve, the second one [0.3, 1], so
+	 * they overlap on [0.3, 0.7].
+	 */
+	@Test
+	void testIntersectPartlyOverlapping() {
+		Bezier first = sCurve().split(0.7)[0];
+		Bezier second = sCurve().split(0.3)[1];
+		assertEquals(2, cut.intersect(first, second));
+		assertResult(0, 0.3 / 0.7, 0);
+		assertResult(1, 1, 0.4 / 0.7);
+		// One curve lies within the other one.
+		Bezier inner = sCurve().split(0.3)[1].split(0.5)[0];
+		assertEquals(2, cut.intersect(sCurve(), inner));
+		assertResult(0, 0.3, 0);
+		assertResult(1, 0.65, 1);
+	}
+
+	/**
+	 * Curves, which only share their end points, don't overlap.
+	 */
+	@Test
+	void testIntersectSharedEndPoints() {
+		Bezier upper = Bezier.of(PointBuffer.of(new double[] { 0, 1, 2 }, new double[] { 0, 2, 0 }));
+		Bezier lower = Bezier.of(PointBuffer.of(new double[] { 0, 1, 2 }, new double[] { 0, -2, 0 }));
+		assertEquals(2, cut.intersect(upper, lower));
+		assertResult(0, 0, 0);
+		assertResult(1, 1, 1);
+	}
+
+	private static Bezier randomCurve(Random random, int size) {
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		for (int i = 0; i < size; i++) {
+			xs[i] = random.nextDouble() * 10;
+			ys[i] = random.nextDouble() * 10;
+		}
+		return Bezier.of(PointBuffer.of(xs, ys));
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierIntersector.of(0);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.intersectLine(sCurve(), 1, 1, 1, 1);
+		});
+		cut.intersectLine(sCurve(), -1, 0, 4, 0);
+		assertThrows(IndexOutOfBoundsException.class, () -> {
+			cut.firstT(3);
+		});
+	}
+
+}
@@ -0,0 +1,97 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierLookupTableTest {
+
+	private static List<Point> createLoP(Point... points) {
+		List<Point> lop = new ArrayList<>();
+		for (Point point : points) {
+			lop.add(point);
+		}
+		return lop;
+	}
+
+	private static Bezier easeInOut() {
+		return Bezier.of(createLoP(Point.of(0, 0), Point.of(0.42, 0), Point.of(0.58, 1), Point.of(1, 1)));
+	}
+
+	private static Stream<Arguments> testYFromX() {
+		return Stream.of(Arguments.of(easeInOut(), 11, 1e-3), //
+		    Arguments.of(easeInOut(), 101, 1e-6), //
+		    Arguments.of(easeInOut(), 1024, 1e-9), //
+		    Arguments.of(Bezier.of(createLoP(Point.of(0, 0), Point.of(5, 0), Point.of(5, 10), Point.of(10, 10))), 101,
+		        1e-5),
+		    Arguments.of(Bezier.of(createLoP(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100))), 11, 1e-3));
+	}
+
+	/**
+	 * The results of the table must match the results of the exact solver.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void testYFromX(Bezier bezier, int size, double accuracy) throws MathException {
+		BezierLookupTable cut = BezierLookupTable.of(bezier, size);
+		assertEquals(size, cut.size());
+		double minX = bezier.x(0);
+		double maxX = bezier.x(1);
+		for (int i = 0; i <= 100; i++) {
+			double x = minX + i * (maxX - minX) / 100;
+			double t = bezier.solveTFromX(x, 1e-12);
+			assertEquals(t, cut.tFromX(x), accuracy);
+			assertEquals(bezier.y(t), cut.yFromX(x), accuracy * (bezier.y(1) - bezier.y(0)) * 10);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { -1, 0, 10, 1025 })
+	void testSizeOutOfRange(int size) {
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierLookupTable.of(easeInOut(), size);
+		});
+	}
+
+	@Test
+	void testNotMonotone() {
+		Bezier bezier = Bezier.of(createLoP(Point.of(0, 0), Point.of(2, 1), Point.of(-1, 2), Point.of(1, 3)));
+		assertThrows(IllegalArgumentException.class, () -> {
+			bezier.lookupTable();
+		});
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { -0.1, 1.1 })
+	void testXOutOfRange(double x) {
+		BezierLookupTable cut = easeInOut().lookupTable();
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.yFromX(x);
+		});
+	}
+
+	@Test
+	void testLookupTableIsCached() {
+		Bezier bezier = easeInOut();
+		assertSame(bezier.lookupTable(), bezier.lookupTable());
+		assertEquals(BezierLookupTable.DEF_SIZE, bezier.lookupTable().size());
+	}
+
+}
@@ -0,0 +1,177 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests the {@link BezierMultiCurvePlotter} class.
+ * <p>
+ * Images with curves are stored in junit-tmp directory.
+ * 
+ * @author nierax
+ *
+ */
+class BezierMultiCurvePlotterTest {
+
+	private final static String DIRECTORY = "junit-tmp";
+
+	private static List<Point> createList(Point... points) {
+		List<Point> list = new ArrayList<>();
+		for (Point point : points) {
+			list.add(point);
+		}
+		return list;
+	}
+
+	/**
+	 * Random series, which look like the lines of a chart.
+	 */
+	private static List<Bezier> createSeries(int count) {
+		Random random = new Random(4711);
+		List<Bezier> curves = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			double offset = random.nextDouble() * 200 - 100;
+			curves.add(Bezier.of(createList(Point.of(-50, offset), Point.of(0, offset + random.nextDouble() * 80),
+			    Point.of(50, offset - random.nextDouble() * 80), Point.of(150, offset + random.nextDouble() * 40))));
+		}
+		return curves;
+	}
+
+	private static int[] pixels(BufferedImage image) {
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
+	@BeforeAll
+	static void initialize() throws Exception {
+		File dir = new File(DIRECTORY);
+		if (!dir.exists()) {
+			dir.mkdir();
+		}
+	}
+
+	@Test
+	void testViewport() {
+		List<Bezier> curves = createSeries(20);
+		BoundingBox expected = curves.get(0).bounds();
+		for (Bezier curve : curves) {
+			expected = expected.union(curve.bounds());
+		}
+		BezierMultiCurvePlotter cut = BezierMultiCurvePlotter.of(curves, 400, 300);
+		assertEquals(20, cut.size());
+		assertEquals(expected.minX(), cut.viewport().minX());
+		assertEquals(expected.minY(), cut.viewport().minY());
+		assertEquals(expected.maxX(), cut.viewport().maxX());
+		assertEquals(expected.maxY(), cut.viewport().maxY());
+	}
+
+	/**
+	 * All curves must lie within the image without the margin of 10%.
+	 */
+	@Test
+	void testPlotFitsIntoImage() throws IOException {
+		String filename = DIRECTORY + "/multi-curve.png";
+		BezierMultiCurvePlotter cut = BezierMultiCurvePlotter.of(createSeries(200), 400, 300);
+		BufferedImage image = cut.plot();
+		cut.saveImageToFileSystem(filename);
+		assertTrue(new File(filename).exists());
+		int white = Color.WHITE.getRGB();
+		boolean plotted = false;
+		for (int y = 0; y < 300; y++) {
+			for (int x = 0; x < 400; x++) {
+				boolean inside = x >= 40 && x <= 360 && y >= 30 && y <= 270;
+				if (!inside) {
+					assertEquals(white, image.getRGB(x, y), String.format("Pixel %s, %s", x, y));
+				}
+				plotted |= image.getRGB(x, y) != white;
+			}
+		}
+		assertTrue(plotted);
+	}
+
+	/**
+	 * A single curve starting in the origin must look like the one of
+	 * {@link BezierCurvePlotter}.
+	 */
+	@Test
+	void testPlotSingleCurve() {
+		Bezier bezier = Bezier.of(createList(Point.of(0, 0), Point.of(50, 0), Point.of(50, 100), Point.of(100, 100)));
+		BufferedImage expected = BezierCurvePlotter.of(bezier, 500, 500).plotCurve();
+		List<Bezier> curves = new ArrayList<>();
+		curves.add(bezier);
+		assertArrayEquals(pixels(expected), pixels(BezierMultiCurvePlotter.of(curves, 500, 500).plot()));
+	}
+
+	/**
+	 * The tiled mode must produce exactly the pixels of the sequential mode.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 16, 64, 1000 })
+	void testPlotTiled(int tileSize) {
+		List<Bezier> curves = createSeries(100);
+		BufferedImage expected = BezierMultiCurvePlotter.of(curves, 400, 300).plot();
+		BufferedImage actual = BezierMultiCurvePlotter.of(curves, 400, 300).plotTiled(tileSize);
+		assertArrayEquals(pixels(expected), pixels(actual));
+	}
+
+	@Test
+	void testPlotRaster() {
+		List<Bezier> curves = createSeries(100);
+		BufferedImage expected = BezierMultiCurvePlotter.of(curves, 400, 300).plot();
+		assertArrayEquals(pixels(expected), pixels(BezierMultiCurvePlotter.of(curves, 400, 300).plotRaster(false)));
+		BufferedImage antiAliased = BezierMultiCurvePlotter.of(curves, 400, 300).plotRaster(true);
+		assertEquals(Color.WHITE.getRGB(), antiAliased.getRGB(0, 0));
+	}
+
+	/**
+	 * Plotting twice must give the same image as plotting once.
+	 */
+	@Test
+	void testPlotTwice() {
+		List<Bezier> curves = createSeries(10);
+		BufferedImage expected = BezierMultiCurvePlotter.of(curves, 400, 300).plot();
+		BezierMultiCurvePlotter cut = BezierMultiCurvePlotter.of(curves, 400, 300);
+		cut.plot();
+		assertArrayEquals(pixels(expected), pixels(cut.plot()));
+	}
+
+	/**
+	 * Horizontal lines have no height, they are put into the vertical middle.
+	 */
+	@Test
+	void testPlotWithoutHeight() {
+		List<Bezier> curves = new ArrayList<>();
+		curves.add(Bezier.of(createList(Point.of(0, 5), Point.of(10, 5), Point.of(20, 5))));
+		curves.add(Bezier.of(createList(Point.of(10, 5), Point.of(30, 5), Point.of(40, 5))));
+		BezierMultiCurvePlotter cut = BezierMultiCurvePlotter.of(curves, 100, 100);
+		BufferedImage image = cut.plot();
+		for (int x = 10; x <= 90; x++) {
+			assertEquals(Color.BLACK.getRGB(), image.getRGB(x, 50));
+		}
+	}
+
+	@Test
+	void testNoCurves() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierMultiCurvePlotter.of(new ArrayList<Bezier>(), 100, 100);
+		});
+	}
+
+}
@@ -0,0 +1,172 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierPathTest {
+
+	/**
+	 * A chain of cubic segments, each 1 wide in x, alternating up and down.
+	 */
+	private static BezierPath wave(int count) {
+		List<Bezier> segments = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			double y0 = (i % 2 == 0) ? 0 : 1;
+			double y1 = 1 - y0;
+			segments.add(Bezier.of(PointBuffer.of(new double[] { i, i + 0.4, i + 0.6, i + 1 },
+			    new double[] { y0, y0, y1, y1 })));
+		}
+		return BezierPath.of(segments);
+	}
+
+	@Test
+	void testEvaluate() {
+		BezierPath cut = wave(10);
+		assertEquals(10, cut.segmentCount());
+		for (double t = 0; t <= 10; t += 0.125) {
+			int i = Math.min((int) t, 9);
+			assertEquals(cut.segment(i).x(t - i), cut.x(t), 1e-12);
+			assertEquals(cut.segment(i).y(t - i), cut.y(t), 1e-12);
+			assertEquals(cut.x(t), cut.point(t).x());
+		}
+		assertEquals(10, cut.x(10), 1e-12);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.x(10.5);
+		});
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 7, 1000 })
+	void testYFromX(int count) throws MathException {
+		BezierPath cut = wave(count);
+		assertTrue(cut.isIncreasingInX());
+		for (int k = 0; k <= 100; k++) {
+			double x = k * count / 100.0;
+			int i = Math.min((int) x, count - 1);
+			Bezier segment = cut.segment(i);
+			assertEquals(segment.y(segment.solveTFromX(x)), cut.yFromX(x), 1e-9);
+		}
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.yFromX(-0.1);
+		});
+	}
+
+	@Test
+	void testYFromXNotIncreasing() {
+		Bezier forth = Bezier.of(PointBuffer.of(new double[] { 0, 1 }, new double[] { 0, 1 }));
+		Bezier back = Bezier.of(PointBuffer.of(new double[] { 1, 0 }, new double[] { 1, 2 }));
+		BezierPath cut = BezierPath.of(forth, back);
+		assertFalse(cut.isIncreasingInX());
+		assertThrows(IllegalStateException.class, () -> {
+			cut.yFromX(0.5);
+		});
+	}
+
+	@Test
+	void testSShapedSegment() {
+		// Starts and ends increasing in x, but runs back in the middle.
+		Bezier sShaped = Bezier.of(PointBuffer.of(new double[] { 0, 15, -5, 10 }, new double[] { 0, 1, 2, 3 }));
+		Bezier line = Bezier.of(PointBuffer.of(new double[] { 10, 20 }, new double[] { 3, 3 }));
+		BezierPath cut = BezierPath.of(sShaped, line);
+		assertFalse(cut.isIncreasingInX());
+		assertThrows(IllegalStateException.class, () -> {
+			cut.yFromX(5);
+		});
+	}
+
+	@Test
+	void testLength() {
+		BezierPath cut = wave(20);
+		double expected = 0;
+		for (int i = 0; i < 20; i++) {
+			assertEquals(expected, cut.length(i), 1e-9);
+			expected += cut.segment(i).length();
+		}
+		assertEquals(expected, cut.length(), 1e-9);
+		for (double length = 0; length <= cut.length(); length += 0.37) {
+			assertEquals(length, cut.length(cut.tAtLength(length)), 1e-9);
+		}
+		assertEquals(20, cut.tAtLength(cut.length()), 1e-12);
+	}
+
+	@Test
+	void testSampleByLength() {
+		BezierPath cut = wave(5);
+		double[] xs = new double[50];
+		double[] ys = new double[50];
+		cut.sampleByLength(50, xs, ys);
+		assertEquals(0, xs[0], 1e-12);
+		assertEquals(5, xs[49], 1e-9);
+		for (int k = 0; k < 50; k++) {
+			double t = cut.tAtLength(cut.length() * k / 49);
+			assertEquals(cut.x(t), xs[k], 1e-9);
+			assertEquals(cut.y(t), ys[k], 1e-9);
+		}
+	}
+
+	@Test
+	void testBounds() {
+		BoundingBox bounds = wave(3).bounds();
+		assertEquals(0, bounds.minX(), 1e-12);
+		assertEquals(3, bounds.maxX(), 1e-12);
+		assertEquals(0, bounds.minY(), 1e-12);
+		assertEquals(1, bounds.maxY(), 1e-12);
+		BoundingBox second = wave(3).segmentBounds(1);
+		assertEquals(1, second.minX(), 1e-12);
+		assertEquals(2, second.maxX(), 1e-12);
+		assertEquals(0, second.minY(), 1e-12);
+		assertEquals(1, second.maxY(), 1e-12);
+	}
+
+	/**
+	 * The projection onto the path must be as close as the closest projection
+	 * onto its segments.
+	 */
+	@Test
+	void testProject() {
+		BezierPath cut = wave(20);
+		double[] out = new double[2];
+		double[] segmentOut = new double[2];
+		for (int k = 0; k < 50; k++) {
+			double px = -1 + k * 0.45;
+			double py = (k % 7) * 0.5 - 1;
+			double expected = Double.MAX_VALUE;
+			for (int i = 0; i < cut.segmentCount(); i++) {
+				cut.segment(i).project(px, py, segmentOut);
+				expected = Math.min(expected, segmentOut[1]);
+			}
+			cut.project(px, py, out);
+			assertEquals(expected, out[1], 1e-9);
+			assertEquals(out[1], Math.hypot(cut.x(out[0]) - px, cut.y(out[0]) - py), 1e-9);
+		}
+	}
+
+	@Test
+	void testNotContinuous() {
+		Bezier first = Bezier.of(PointBuffer.of(new double[] { 0, 1 }, new double[] { 0, 1 }));
+		Bezier second = Bezier.of(PointBuffer.of(new double[] { 1, 2 }, new double[] { 1.1, 2 }));
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierPath.of(first, second);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierPath.of();
+		});
+	}
+
+}
@@ -0,0 +1,77 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark, comparing the different ways to get t from x in
+ * {@link Bezier} and {@link BezierLookupTable}.
+ * <p>
+ * Not part of the unit tests. Run the main method (f.ex. from the IDE) after
+ * the test classes have been compiled.
+ * 
+ * @author nierax
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BezierSolverBenchmark {
+
+	@Param({ "0.05", "2.1", "5.3", "9.9" })
+	private double x;
+
+	private Bezier bezier;
+
+	@Setup
+	public void setUp() {
+		List<Point> controlPoints = new ArrayList<>();
+		controlPoints.add(Point.of(0, 0));
+		controlPoints.add(Point.of(5, 0));
+		controlPoints.add(Point.of(5, 10));
+		controlPoints.add(Point.of(10, 10));
+		bezier = Bezier.of(controlPoints);
+	}
+
+	@Benchmark
+	public double tFromX2() throws MathException {
+		return bezier.tFromX2(x);
+	}
+
+	@Benchmark
+	public double solveTFromX() throws MathException {
+		return bezier.solveTFromX(x);
+	}
+
+	@Benchmark
+	public double lookupTable() {
+		return bezier.lookupTable().tFromX(x);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(BezierSolverBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,105 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierSolverConfigTest {
+
+	private static Bezier easeInOut() {
+		return Bezier.of(PointBuffer.of(new double[] { 0, 0.42, 0.58, 1 }, new double[] { 0, 0, 1, 1 }));
+	}
+
+	private static Stream<BezierSolverConfig> presets() {
+		return Stream.of(BezierSolverConfig.FAST, BezierSolverConfig.BALANCED, BezierSolverConfig.PRECISE);
+	}
+
+	/**
+	 * Each preset must reach its accuracy with all solvers.
+	 */
+	@ParameterizedTest
+	@MethodSource("presets")
+	void testSolvers(BezierSolverConfig config) throws MathException {
+		Bezier bezier = easeInOut();
+		Bezier general = Bezier.of(PointBuffer.of(new double[] { 0, 0.2, 0.4, 0.6, 1 }, new double[] { 0, 1, 0, 1, 1 }));
+		double[] out = new double[2];
+		for (double x = 0.05; x < 1; x += 0.1) {
+			assertEquals(x, bezier.x(bezier.solveTFromX(x, config)), config.accuracy());
+			assertEquals(x, general.x(general.solveTFromX(x, config)), config.accuracy());
+			assertEquals(x, bezier.x(bezier.tFromX2(x, config)), config.accuracy());
+			general.project(x, 0.5, config, out);
+			double[] precise = new double[2];
+			general.project(x, 0.5, BezierSolverConfig.PRECISE, precise);
+			assertTrue(out[1] <= precise[1] + config.accuracy());
+		}
+	}
+
+	/**
+	 * The default methods must still work like the balanced preset.
+	 */
+	@Test
+	void testBalancedMatchesDefaults() throws MathException {
+		Bezier bezier = Bezier.of(PointBuffer.of(new double[] { 0, 5, 5, 10 }, new double[] { 0, 0, 10, 10 }));
+		for (double x = 0.5; x < 10; x += 1) {
+			assertEquals(bezier.tFromX2(x), bezier.tFromX2(x, BezierSolverConfig.BALANCED));
+			assertEquals(bezier.solveTFromX(x), bezier.solveTFromX(x, BezierSolverConfig.BALANCED));
+		}
+	}
+
+	/**
+	 * An x outside of the curve must be given up quickly, even with the high
+	 * accuracy of {@link BezierSolverConfig#PRECISE}.
+	 */
+	@ParameterizedTest
+	@MethodSource("presets")
+	void testTFromX2OutOfRange(BezierSolverConfig config) {
+		Bezier bezier = easeInOut();
+		assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+			assertThrows(MathException.class, () -> {
+				bezier.tFromX2(1.5, config);
+			});
+		});
+	}
+
+	private static Stream<Arguments> testInvalid() {
+		return Stream.of(Arguments.of(0, 1e-6, 0.1, 10), //
+		    Arguments.of(1e-5, -1, 0.1, 10), //
+		    Arguments.of(1e-5, 1e-6, Double.NaN, 10), //
+		    Arguments.of(1e-5, 1e-6, 0.1, 0));
+	}
+
+	@ParameterizedTest
+	@MethodSource
+	void testInvalid(double accuracy, double threshold, double startDT, int maxIterations) {
+		assertThrows(IllegalArgumentException.class, () -> {
+			BezierSolverConfig.of(accuracy, threshold, startDT, maxIterations);
+		});
+	}
+
+	@Test
+	void testWithAndEquals() {
+		BezierSolverConfig config = BezierSolverConfig.BALANCED.withAccuracy(1e-3).withMaxIterations(10);
+		assertEquals(BezierSolverConfig.of(1e-3, 1e-6, 0.1, 10), config);
+		assertEquals(BezierSolverConfig.of(1e-3, 1e-6, 0.1, 10).hashCode(), config.hashCode());
+		assertNotEquals(BezierSolverConfig.BALANCED, config);
+		assertEquals(1e-5, BezierSolverConfig.BALANCED.accuracy());
+	}
+
+}
@@ -5,13 +5,17 @@ package de.lexasoft.common.math;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -103,4 +107,403 @@ class BezierTest {
 		assertNotNull(t);
 		assertEquals(value, cut.bezier(t).x(), 0.001);
 	}
+
+	/**
+	 * Control points, distributed equally on a line, result in a linear curve.
+	 * With more than 20 control points the former factorial based calculation
+	 * overflowed.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 21, 25, 60, 200, 1500 })
+	void testBezierHighDegree(int numberOfPoints) {
+		List<Point> list = new ArrayList<>();
+		for (int i = 0; i < numberOfPoints; i++) {
+			list.add(Point.of(i, 2 * i));
+		}
+		Bezier cut = Bezier.of(list);
+		assertEquals(numberOfPoints - 1, cut.degree());
+		for (double t = 0; t <= 1; t += 0.05) {
+			assertEquals(t * (numberOfPoints - 1), cut.x(t), 1e-6 * numberOfPoints);
+			assertEquals(2 * t * (numberOfPoints - 1), cut.y(t), 1e-6 * numberOfPoints);
+		}
+	}
+
+	private static Stream<Arguments> testSample() {
+		return Stream.of(Arguments.of(createLoP(Point.of(0, 0), Point.of(5, 0), Point.of(5, 10), Point.of(10, 10)), 0, 1, 1001),
+		    Arguments.of(createLoP(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100)), 0.2, 0.7, 333),
+		    Arguments.of(createLoP(Point.of(0, 0), Point.of(1, 5), Point.of(3, -2), Point.of(4, 8), Point.of(7, 1),
+		        Point.of(8, 3), Point.of(9, 9), Point.of(10, 0)), 0, 1, 100),
+		    Arguments.of(createLoP(Point.of(3, 4)), 0, 1, 10),
+		    Arguments.of(createLoP(Point.of(0, 0), Point.of(29, 0), Point.of(29, 58), Point.of(58, 58)), 0.5, 0.5, 1));
+	}
+
+	/**
+	 * The sampled points must be the same as the points, calculated one by one.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void testSample(List<Point> control, double from, double to, int count) {
+		Bezier cut = Bezier.of(control);
+		double[] xs = new double[count];
+		double[] ys = new double[count];
+		double[] xy = new double[2 * count];
+		cut.sample(from, to, count, xs, ys);
+		cut.sample(from, to, count, xy);
+		for (int i = 0; i < count; i++) {
+			double t = (count > 1) ? from + i * (to - from) / (count - 1) : from;
+			Point expected = cut.bezier(t);
+			assertEquals(expected.x(), xs[i], 1e-9);
+			assertEquals(expected.y(), ys[i], 1e-9);
+			assertEquals(expected.x(), xy[2 * i], 1e-9);
+			assertEquals(expected.y(), xy[2 * i + 1], 1e-9);
+		}
+	}
+
+	@Test
+	void testNoControlPoints() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			Bezier.of(new ArrayList<Point>());
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			Bezier.of(PointBuffer.of(new double[0], new double[0]));
+		});
+	}
+
+	@Test
+	void testSampleArrayTooSmall() {
+		Bezier cut = Bezier.of(controlPoints);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.sample(0, 1, 10, new double[10], new double[9]);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.sample(0, 1, 10, new double[19]);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.sample(0, 1.1, 10, new double[10], new double[10]);
+		});
+	}
+
+	/**
+	 * Test for solveTFromX, where x is a value, which exists in the bezier
+	 * formula.
+	 * 
+	 * @param x The x parameter to search for.
+	 * @throws MathException
+	 */
+	@ParameterizedTest
+	@ValueSource(doubles = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 0.2, 0.05, 5.3, 2.1, 0.5, 0.9, 1e-7, 10 - 1e-7 })
+	void testSolveTFromX(double x) throws MathException {
+		Bezier cut = Bezier.of(controlPoints);
+		double t = cut.solveTFromX(x, 1e-9);
+		assertEquals(x, cut.x(t), 1e-9);
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0, 1, 2, 3, 4, 10, 22, 29, 40, 48, 57, 58 })
+	void testSolveTFromX_58(double value) throws MathException {
+		Bezier cut = Bezier.of(createLoP(Point.of(0, 0), Point.of(29, 0), Point.of(29, 58), Point.of(58, 58)));
+		double t = cut.solveTFromX(value);
+		assertEquals(value, cut.x(t), BezierSolverConfig.BALANCED.accuracy());
+	}
+
+	/**
+	 * The derivative is 0 at t = 0.5, where Newton's method alone would fail.
+	 */
+	@ParameterizedTest
+	@ValueSource(doubles = { 0.3, 0.5, 0.5 + 1e-8, 0.7 })
+	void testSolveTFromXFlatDerivative(double value) throws MathException {
+		Bezier cut = Bezier.of(createLoP(Point.of(0, 0), Point.of(1, 0), Point.of(0, 1), Point.of(1, 1)));
+		double t = cut.solveTFromX(value, 1e-12);
+		assertEquals(value, cut.x(t), 1e-12);
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { -0.1, -1, 10.1, 11 })
+	void testSolveTFromXOutOfRange(double x) {
+		Bezier cut = Bezier.of(controlPoints);
+		assertThrows(MathException.class, () -> {
+			cut.solveTFromX(x);
+		});
+	}
+
+	private static double polylineLength(Bezier bezier, double to) {
+		double length = 0;
+		int steps = 100000;
+		for (int i = 1; i <= steps; i++) {
+			double t0 = to * (i - 1) / steps;
+			double t1 = to * i / steps;
+			length += Math.hypot(bezier.x(t1) - bezier.x(t0), bezier.y(t1) - bezier.y(t0));
+		}
+		return length;
+	}
+
+	private static Stream<Arguments> testLength() {
+		return Stream.of(Arguments.of(createLoP(Point.of(0, 0), Point.of(5, 0), Point.of(5, 10), Point.of(10, 10))),
+		    Arguments.of(createLoP(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100))),
+		    Arguments.of(createLoP(Point.of(0, 0), Point.of(100, 100), Point.of(0, 100), Point.of(100, 0))),
+		    Arguments.of(createLoP(Point.of(0, 0), Point.of(1, 5), Point.of(3, -2), Point.of(4, 8), Point.of(7, 1),
+		        Point.of(8, 3), Point.of(9, 9), Point.of(10, 0))));
+	}
+
+	/**
+	 * Compares the length with the length of a fine polyline.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void testLength(List<Point> control) {
+		Bezier cut = Bezier.of(control);
+		assertEquals(polylineLength(cut, 1), cut.length(), 1e-5 * cut.length());
+		assertEquals(polylineLength(cut, 0.37), cut.length(0.37), 1e-5 * cut.length());
+		assertEquals(0, cut.length(0));
+		assertEquals(cut.length(), cut.length(1), 1e-12);
+		for (int i = 0; i <= 20; i++) {
+			double length = cut.length() * i / 20;
+			assertEquals(length, cut.length(cut.tAtLength(length)), 1e-9 * cut.length());
+		}
+	}
+
+	/**
+	 * A straight line with unequally distributed control points has a varying
+	 * speed in t, but must have a constant speed in the length.
+	 */
+	@Test
+	void testSampleByLength() {
+		Bezier cut = Bezier.of(createLoP(Point.of(0, 0), Point.of(1, 0), Point.of(2, 0), Point.of(10, 0)));
+		assertEquals(10, cut.length(), 1e-9);
+		double[] xs = new double[11];
+		double[] ys = new double[11];
+		cut.sampleByLength(11, xs, ys);
+		for (int i = 0; i <= 10; i++) {
+			assertEquals(i, xs[i], 1e-9);
+			assertEquals(0, ys[i], 1e-9);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { -0.1, 10.1 })
+	void testTAtLengthOutOfRange(double length) {
+		Bezier cut = Bezier.of(createLoP(Point.of(0, 0), Point.of(1, 0), Point.of(2, 0), Point.of(10, 0)));
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.tAtLength(length);
+		});
+	}
+
+	/**
+	 * Compares the derivatives with central differences for the general and the
+	 * specialized curves.
+	 */
+	@ParameterizedTest
+	@MethodSource("testLength")
+	void testDerivatives(List<Point> control) {
+		Bezier cut = Bezier.of(control);
+		double[] first = new double[2];
+		double[] second = new double[2];
+		double[] hodographFirst = new double[2];
+		double h = 1e-5;
+		for (double t = 0.01; t < 1; t += 0.049) {
+			cut.derivative(t, first);
+			cut.secondDerivative(t, second);
+			assertEquals((cut.x(t + h) - cut.x(t - h)) / (2 * h), first[0], 1e-4 * Math.max(1, Math.abs(first[0])));
+			assertEquals((cut.y(t + h) - cut.y(t - h)) / (2 * h), first[1], 1e-4 * Math.max(1, Math.abs(first[1])));
+			assertEquals(first[0], cut.hodograph().x(t), 1e-9 * Math.max(1, Math.abs(first[0])));
+			assertEquals(first[1], cut.hodograph().y(t), 1e-9 * Math.max(1, Math.abs(first[1])));
+			cut.hodograph().derivative(t, hodographFirst);
+			assertEquals(hodographFirst[0], second[0], 1e-9 * Math.max(1, Math.abs(second[0])));
+			assertEquals(hodographFirst[1], second[1], 1e-9 * Math.max(1, Math.abs(second[1])));
+		}
+		assertEquals(cut.degree() - 1, cut.hodograph().degree());
+	}
+
+	/**
+	 * The usual cubic approximation of a quarter circle with radius 10.
+	 */
+	@Test
+	void testTangentNormalCurvature() {
+		double k = 10 * 0.5522847498;
+		Bezier cut = Bezier.of(createLoP(Point.of(10, 0), Point.of(10, k), Point.of(k, 10), Point.of(0, 10)));
+		double[] tangent = new double[2];
+		double[] normal = new double[2];
+		for (double t = 0; t <= 1; t += 0.1) {
+			cut.tangent(t, tangent);
+			cut.normal(t, normal);
+			assertEquals(1, Math.hypot(tangent[0], tangent[1]), 1e-12);
+			assertEquals(0, tangent[0] * normal[0] + tangent[1] * normal[1], 1e-12);
+			// Counterclockwise: The normal points to the center.
+			Point p = cut.bezier(t);
+			double radius = Math.hypot(p.x(), p.y());
+			assertEquals(-p.x() / radius, normal[0], 2e-3);
+			assertEquals(-p.y() / radius, normal[1], 2e-3);
+			assertEquals(0.1, cut.curvature(t), 3e-3);
+		}
+		cut.tangent(0, tangent);
+		assertEquals(0, tangent[0], 1e-12);
+		assertEquals(1, tangent[1], 1e-12);
+	}
+
+	@Test
+	void testDegenerateDerivative() {
+		Bezier cut = Bezier.of(createLoP(Point.of(3, 3), Point.of(3, 3)));
+		double[] tangent = new double[2];
+		cut.tangent(0.5, tangent);
+		assertEquals(0, tangent[0]);
+		assertEquals(0, tangent[1]);
+		assertTrue(Double.isNaN(cut.curvature(0.5)));
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.derivative(0.5, new double[1]);
+		});
+	}
+
+	/**
+	 * The analytic box must contain all sampled points and must be touched by
+	 * them.
+	 */
+	@ParameterizedTest
+	@MethodSource("testLength")
+	void testBounds(List<Point> control) {
+		Bezier cut = Bezier.of(control);
+		assertBoundsOfSamples(cut, 1e-6);
+		assertSame(cut.bounds(), cut.bounds());
+	}
+
+	/**
+	 * The derivatives of high degrees must not overflow.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = { 200, 1000 })
+	void testBoundsHighDegree(int count) {
+		Random random = new Random(count);
+		double[] xs = new double[count];
+		double[] ys = new double[count];
+		for (int i = 0; i < count; i++) {
+			xs[i] = random.nextDouble() * 100;
+			ys[i] = random.nextDouble() * 100;
+		}
+		// The samples miss the sharp extrema of high degrees by up to 1e-3.
+		assertBoundsOfSamples(Bezier.of(PointBuffer.of(xs, ys)), 1e-3);
+	}
+
+	private static void assertBoundsOfSamples(Bezier cut, double tolerance) {
+		BoundingBox bounds = cut.bounds();
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for (int i = 0; i <= 100000; i++) {
+			Point p = cut.bezier(i / 100000.0);
+			assertTrue(p.x() >= bounds.minX() - 1e-9 && p.x() <= bounds.maxX() + 1e-9);
+			assertTrue(p.y() >= bounds.minY() - 1e-9 && p.y() <= bounds.maxY() + 1e-9);
+			minX = Math.min(minX, p.x());
+			minY = Math.min(minY, p.y());
+			maxX = Math.max(maxX, p.x());
+			maxY = Math.max(maxY, p.y());
+		}
+		assertEquals(minX, bounds.minX(), tolerance);
+		assertEquals(minY, bounds.minY(), tolerance);
+		assertEquals(maxX, bounds.maxX(), tolerance);
+		assertEquals(maxY, bounds.maxY(), tolerance);
+	}
+
+	@ParameterizedTest
+	@MethodSource("testLength")
+	void testSplit(List<Point> control) {
+		Bezier cut = Bezier.of(control);
+		Bezier[] parts = cut.split(0.3);
+		assertEquals(cut.degree(), parts[0].degree());
+		assertEquals(cut.degree(), parts[1].degree());
+		for (double u = 0; u <= 1; u += 0.05) {
+			assertEquals(cut.x(0.3 * u), parts[0].x(u), 1e-9);
+			assertEquals(cut.y(0.3 * u), parts[0].y(u), 1e-9);
+			assertEquals(cut.x(0.3 + 0.7 * u), parts[1].x(u), 1e-9);
+			assertEquals(cut.y(0.3 + 0.7 * u), parts[1].y(u), 1e-9);
+		}
+	}
+
+	@ParameterizedTest
+	@MethodSource("testLength")
+	void testSubCurve(List<Point> control) {
+		Bezier cut = Bezier.of(control);
+		Bezier part = cut.subCurve(0.2, 0.65);
+		for (double u = 0; u <= 1; u += 0.05) {
+			assertEquals(cut.x(0.2 + 0.45 * u), part.x(u), 1e-9);
+			assertEquals(cut.y(0.2 + 0.45 * u), part.y(u), 1e-9);
+		}
+		Bezier point = cut.subCurve(0, 0);
+		assertEquals(cut.x(0), point.x(0.5), 1e-12);
+		assertEquals(cut.y(0), point.y(0.5), 1e-12);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.subCurve(0.5, 0.4);
+		});
+	}
+
+	@ParameterizedTest
+	@MethodSource("testLength")
+	void testElevateAndReduce(List<Point> control) {
+		Bezier cut = Bezier.of(control);
+		Bezier elevated = cut.elevate();
+		assertEquals(cut.degree() + 1, elevated.degree());
+		for (double t = 0; t <= 1; t += 0.05) {
+			assertEquals(cut.x(t), elevated.x(t), 1e-9);
+			assertEquals(cut.y(t), elevated.y(t), 1e-9);
+		}
+		PointBuffer reduced = elevated.reduce().controlPoints();
+		for (int i = 0; i < control.size(); i++) {
+			assertEquals(control.get(i).x(), reduced.x(i), 1e-9);
+			assertEquals(control.get(i).y(), reduced.y(i), 1e-9);
+		}
+	}
+
+	@Test
+	void testReduceKeepsEndPoints() {
+		Bezier reduced = Bezier.of(controlPoints).reduce();
+		assertEquals(2, reduced.degree());
+		assertEquals(0, reduced.x(0));
+		assertEquals(0, reduced.y(0));
+		assertEquals(10, reduced.x(1));
+		assertEquals(10, reduced.y(1));
+		assertThrows(IllegalStateException.class, () -> {
+			Bezier.of(createLoP(Point.of(1, 1))).reduce();
+		});
+	}
+
+	/**
+	 * The projection must not be farther away than the closest of many samples
+	 * and must find points on the curve exactly.
+	 */
+	@ParameterizedTest
+	@MethodSource("testLength")
+	void testProject(List<Point> control) {
+		Bezier cut = Bezier.of(control);
+		double[] out = new double[2];
+		for (double px = -2; px <= 12; px += 0.7) {
+			for (double py = -2; py <= 12; py += 0.7) {
+				double sampled = Double.MAX_VALUE;
+				for (int i = 0; i <= 10000; i++) {
+					double t = i / 10000.0;
+					sampled = Math.min(sampled, Math.hypot(cut.x(t) - px, cut.y(t) - py));
+				}
+				cut.project(px, py, out);
+				assertTrue(out[1] <= sampled + 1e-9);
+				assertEquals(Math.hypot(cut.x(out[0]) - px, cut.y(out[0]) - py), out[1], 1e-12);
+			}
+		}
+		for (double t = 0; t <= 1; t += 0.1) {
+			cut.project(cut.x(t), cut.y(t), out);
+			assertEquals(0, out[1], 1e-9);
+		}
+	}
+
+	@Test
+	void testProjectLine() {
+		Bezier cut = Bezier.of(createLoP(Point.of(0, 0), Point.of(10, 0)));
+		double[] out = new double[2];
+		cut.project(3, 4, 1e-3, 2, out);
+		assertEquals(0.3, out[0], 1e-12);
+		assertEquals(4, out[1], 1e-12);
+		cut.project(-3, 4, out);
+		assertEquals(0, out[0]);
+		assertEquals(5, out[1], 1e-12);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.project(0, 0, new double[1]);
+		});
+	}
 }
@@ -0,0 +1,81 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmark, comparing the evaluation of a cubic curve at 1M values of t
+ * point by point with {@link BezierVectorEvaluator}.
+ * <p>
+ * Not part of the unit tests. Run the main method (f.ex. from the IDE) after
+ * the test classes have been compiled.
+ * 
+ * @author nierax
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BezierVectorBenchmark {
+
+	private static final int SAMPLES = 1_000_000;
+
+	private Bezier bezier;
+	private BezierVectorEvaluator evaluator;
+	private double[] ts;
+	private double[] xs;
+	private double[] ys;
+
+	@Setup
+	public void setUp() {
+		bezier = Bezier.of(PointBuffer.of(Point.of(0, 0), Point.of(5, 0), Point.of(5, 10), Point.of(10, 10)));
+		evaluator = BezierVectorEvaluator.of(bezier);
+		Random random = new Random(4711);
+		ts = new double[SAMPLES];
+		for (int i = 0; i < SAMPLES; i++) {
+			ts[i] = random.nextDouble();
+		}
+		xs = new double[SAMPLES];
+		ys = new double[SAMPLES];
+	}
+
+	@Benchmark
+	public double[] scalar() {
+		for (int i = 0; i < SAMPLES; i++) {
+			xs[i] = bezier.x(ts[i]);
+			ys[i] = bezier.y(ts[i]);
+		}
+		return xs;
+	}
+
+	@Benchmark
+	public double[] vectorized() {
+		evaluator.evaluate(ts, xs, ys);
+		return xs;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(BezierVectorBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,89 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * @author nierax
+ *
+ */
+class BezierVectorEvaluatorTest {
+
+	private static Bezier ofDegree(int degree) {
+		Random random = new Random(degree);
+		double[] x = new double[degree + 1];
+		double[] y = new double[degree + 1];
+		for (int i = 0; i <= degree; i++) {
+			x[i] = random.nextDouble() * 100;
+			y[i] = random.nextDouble() * 100;
+		}
+		return Bezier.of(PointBuffer.of(x, y));
+	}
+
+	private static Stream<Arguments> testEvaluate() {
+		return Stream.of(Arguments.of(ofDegree(0), 10), Arguments.of(ofDegree(1), 1000), Arguments.of(ofDegree(2), 1),
+		    Arguments.of(ofDegree(3), 10000), Arguments.of(ofDegree(6), 777), Arguments.of(ofDegree(7), 100),
+		    Arguments.of(ofDegree(3), 0));
+	}
+
+	/**
+	 * The vectorized evaluation must deliver the same points as the evaluation
+	 * one by one.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void testEvaluate(Bezier bezier, int count) {
+		Random random = new Random(count);
+		double[] ts = new double[count + 5];
+		for (int i = 0; i < ts.length; i++) {
+			ts[i] = random.nextDouble();
+		}
+		double[] xs = new double[count + 5];
+		double[] ys = new double[count + 5];
+		BezierVectorEvaluator cut = BezierVectorEvaluator.of(bezier);
+		cut.evaluate(ts, count, xs, ys);
+		for (int i = 0; i < count; i++) {
+			assertEquals(bezier.x(ts[i]), xs[i], 1e-9);
+			assertEquals(bezier.y(ts[i]), ys[i], 1e-9);
+		}
+		// Nothing written beyond count
+		for (int i = count; i < xs.length; i++) {
+			assertEquals(0, xs[i]);
+			assertEquals(0, ys[i]);
+		}
+	}
+
+	@Test
+	void testIsVectorized() {
+		assertTrue(BezierVectorEvaluator.of(ofDegree(3)).isVectorized());
+		assertFalse(BezierVectorEvaluator.of(ofDegree(12)).isVectorized());
+	}
+
+	@Test
+	void testTOutOfRange() {
+		BezierVectorEvaluator cut = BezierVectorEvaluator.of(ofDegree(3));
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.evaluate(new double[] { 0.5, 1.1 }, new double[2], new double[2]);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.evaluate(new double[] { 0.5, Double.NaN }, new double[2], new double[2]);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			cut.evaluate(new double[] { 0.5, 0.6 }, 3, new double[3], new double[3]);
+		});
+	}
+
+}
@@ -0,0 +1,56 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author nierax
+ *
+ */
+class BoundingBoxTest {
+
+	@Test
+	void testContainsAndIntersects() {
+		BoundingBox cut = BoundingBox.of(0, 0, 10, 5);
+		assertEquals(10, cut.width());
+		assertEquals(5, cut.height());
+		assertTrue(cut.contains(10, 5));
+		assertFalse(cut.contains(10.1, 5));
+		assertTrue(cut.contains(BoundingBox.of(1, 1, 2, 2)));
+		assertFalse(cut.contains(BoundingBox.of(1, 1, 11, 2)));
+		assertTrue(cut.intersects(BoundingBox.of(10, 5, 12, 12)));
+		assertFalse(cut.intersects(BoundingBox.of(10.1, 0, 12, 12)));
+	}
+
+	@Test
+	void testUnion() {
+		BoundingBox cut = BoundingBox.of(0, 0, 10, 5).union(BoundingBox.of(-1, 2, 3, 7));
+		assertEquals(-1, cut.minX());
+		assertEquals(0, cut.minY());
+		assertEquals(10, cut.maxX());
+		assertEquals(7, cut.maxY());
+	}
+
+	@Test
+	void testDistanceSquare() {
+		BoundingBox cut = BoundingBox.of(0, 0, 10, 5);
+		assertEquals(0, cut.distanceSquare(5, 2));
+		assertEquals(25, cut.distanceSquare(13, 9));
+		assertEquals(4, cut.distanceSquare(-2, 3));
+	}
+
+	@Test
+	void testMinGreaterMax() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			BoundingBox.of(1, 0, 0, 1);
+		});
+	}
+
+}
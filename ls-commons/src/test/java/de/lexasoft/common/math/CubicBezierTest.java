@@ -0,0 +1,99 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class CubicBezierTest {
+
+	private static List<Point> createLoP(Point... points) {
+		List<Point> lop = new ArrayList<>();
+		for (Point point : points) {
+			lop.add(point);
+		}
+		return lop;
+	}
+
+	/**
+	 * Same curve as the cubic one, but with the general implementation (degree
+	 * elevation of a cubic curve doesn't change the curve).
+	 */
+	private static Bezier elevated(Point p0, Point p1, Point p2, Point p3) {
+		return Bezier.of(createLoP(p0, //
+		    Point.of((p0.x() + 3 * p1.x()) / 4, (p0.y() + 3 * p1.y()) / 4), //
+		    Point.of((2 * p1.x() + 2 * p2.x()) / 4, (2 * p1.y() + 2 * p2.y()) / 4), //
+		    Point.of((3 * p2.x() + p3.x()) / 4, (3 * p2.y() + p3.y()) / 4), //
+		    p3));
+	}
+
+	private static Stream<Arguments> testEvaluation() {
+		return Stream.of(Arguments.of(Point.of(0, 0), Point.of(5, 0), Point.of(5, 10), Point.of(10, 10)),
+		    Arguments.of(Point.of(0, 0), Point.of(0.42, 0), Point.of(0.58, 1), Point.of(1, 1)),
+		    Arguments.of(Point.of(-3, 7), Point.of(12, -4), Point.of(-8, 2), Point.of(5, 5)));
+	}
+
+	/**
+	 * The closed form must deliver the same values as the general calculation.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void testEvaluation(Point p0, Point p1, Point p2, Point p3) {
+		CubicBezier cut = CubicBezier.of(p0, p1, p2, p3);
+		Bezier general = elevated(p0, p1, p2, p3);
+		assertEquals(3, cut.degree());
+		for (double t = 0; t <= 1; t += 0.01) {
+			assertEquals(general.x(t), cut.x(t), 1e-9);
+			assertEquals(general.y(t), cut.y(t), 1e-9);
+			assertEquals(general.dxAt(t), cut.dxAt(t), 1e-9);
+			assertEquals(general.dyAt(t), cut.dyAt(t), 1e-9);
+		}
+	}
+
+	@Test
+	void testOfCreatesSpecializedTypes() {
+		assertTrue(Bezier.of(createLoP(Point.of(0, 0), Point.of(1, 1), Point.of(2, 0))) instanceof QuadraticBezier);
+		assertTrue(
+		    Bezier.of(createLoP(Point.of(0, 0), Point.of(1, 1), Point.of(2, 0), Point.of(3, 3))) instanceof CubicBezier);
+		assertEquals(Bezier.class, Bezier.of(createLoP(Point.of(0, 0), Point.of(1, 1))).getClass());
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0, 1e-9, 0.05, 0.3, 0.5, 0.5 + 1e-8, 0.7, 1 - 1e-9, 1 })
+	void testSolveTFromX(double x) throws MathException {
+		CubicBezier[] curves = { CubicBezier.of(Point.of(0, 0), Point.of(1, 0), Point.of(0, 1), Point.of(1, 1)),
+		    CubicBezier.of(Point.of(0, 0), Point.of(0.42, 0), Point.of(0.58, 1), Point.of(1, 1)),
+		    CubicBezier.of(Point.of(0, 0), Point.of(0.1, 0.6), Point.of(0.7, 0.1), Point.of(1, 1)),
+		    CubicBezier.of(Point.of(0, 0), Point.of(1.0 / 3, 0), Point.of(2.0 / 3, 1), Point.of(1, 1)) };
+		for (CubicBezier cut : curves) {
+			double t = cut.solveTFromX(x, 1e-12);
+			assertEquals(x, cut.x(t), 1e-12);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { -0.1, 1.1 })
+	void testSolveTFromXOutOfRange(double x) {
+		CubicBezier cut = CubicBezier.of(Point.of(0, 0), Point.of(0.42, 0), Point.of(0.58, 1), Point.of(1, 1));
+		assertThrows(MathException.class, () -> {
+			cut.solveTFromX(x);
+		});
+	}
+
+}
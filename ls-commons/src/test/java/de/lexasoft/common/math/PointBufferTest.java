@@ -0,0 +1,87 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author nierax
+ *
+ */
+class PointBufferTest {
+
+	@Test
+	void testOfList() {
+		List<Point> points = new ArrayList<>();
+		points.add(Point.of(1, 2));
+		points.add(Point.of(3, 4));
+		PointBuffer cut = PointBuffer.of(points);
+		assertEquals(2, cut.size());
+		assertEquals(3, cut.x(1));
+		assertEquals(4, cut.y(1));
+		assertEquals(ImmutablePoint.of(1, 2), cut.point(0));
+		// Changing the points afterwards doesn't change the buffer.
+		points.get(0).x(10);
+		assertEquals(1, cut.x(0));
+	}
+
+	@Test
+	void testOfArraysCopies() {
+		double[] x = { 1, 2, 3 };
+		double[] y = { 4, 5, 6 };
+		PointBuffer cut = PointBuffer.of(x, y);
+		x[0] = 10;
+		assertEquals(1, cut.x(0));
+		assertEquals(cut, PointBuffer.of(Point.of(1, 4), Point.of(2, 5), Point.of(3, 6)));
+		assertEquals(cut.hashCode(), PointBuffer.of(Point.of(1, 4), Point.of(2, 5), Point.of(3, 6)).hashCode());
+		assertNotEquals(cut, PointBuffer.of(Point.of(1, 4), Point.of(2, 5)));
+	}
+
+	@Test
+	void testDifferentLength() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			PointBuffer.of(new double[2], new double[3]);
+		});
+	}
+
+	@Test
+	void testToListCopies() {
+		PointBuffer cut = PointBuffer.of(Point.of(1, 4), Point.of(2, 5));
+		List<Point> list = cut.toList();
+		assertEquals(2, list.get(1).x());
+		assertEquals(5, list.get(1).y());
+		list.get(0).x(3);
+		list.add(Point.of(3, 3));
+		assertEquals(1, cut.x(0));
+		assertEquals(2, cut.size());
+	}
+
+	@Test
+	void testImmutablePoint() {
+		ImmutablePoint cut = ImmutablePoint.of(Point.of(1, 2));
+		assertEquals(ImmutablePoint.of(1, 2), cut);
+		assertEquals(ImmutablePoint.of(1, 2).hashCode(), cut.hashCode());
+		assertNotEquals(ImmutablePoint.of(1, 3), cut);
+		Point point = cut.toPoint();
+		point.x(5);
+		assertEquals(1, cut.x());
+	}
+
+	@Test
+	void testBezierFromBuffer() {
+		PointBuffer controlPoints = PointBuffer.of(Point.of(0, 0), Point.of(5, 0), Point.of(5, 10), Point.of(10, 10));
+		Bezier cut = Bezier.of(controlPoints);
+		assertEquals(controlPoints, cut.controlPoints());
+		assertEquals(Bezier.of(controlPoints.toList()).bezier(0.3).x(), cut.bezier(0.3).x());
+		assertEquals(3.42, cut.bezier(0.3).x(), 0.001);
+	}
+
+}
@@ -0,0 +1,69 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class QuadraticBezierTest {
+
+	private static Stream<Arguments> testEvaluation() {
+		return Stream.of(Arguments.of(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100)),
+		    Arguments.of(Point.of(-3, 7), Point.of(12, -4), Point.of(5, 5)));
+	}
+
+	/**
+	 * The closed form must deliver the same values as the cubic curve, created
+	 * by degree elevation.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void testEvaluation(Point p0, Point p1, Point p2) {
+		QuadraticBezier cut = QuadraticBezier.of(p0, p1, p2);
+		CubicBezier cubic = CubicBezier.of(p0, //
+		    Point.of((p0.x() + 2 * p1.x()) / 3, (p0.y() + 2 * p1.y()) / 3), //
+		    Point.of((2 * p1.x() + p2.x()) / 3, (2 * p1.y() + p2.y()) / 3), //
+		    p2);
+		assertEquals(2, cut.degree());
+		for (double t = 0; t <= 1; t += 0.01) {
+			assertEquals(cubic.x(t), cut.x(t), 1e-9);
+			assertEquals(cubic.y(t), cut.y(t), 1e-9);
+			assertEquals(cubic.dxAt(t), cut.dxAt(t), 1e-9);
+			assertEquals(cubic.dyAt(t), cut.dyAt(t), 1e-9);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0, 1e-9, 0.05, 33.3, 50, 99, 100 })
+	void testSolveTFromX(double x) throws MathException {
+		QuadraticBezier[] curves = { QuadraticBezier.of(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100)),
+		    QuadraticBezier.of(Point.of(0, 0), Point.of(0, 100), Point.of(100, 100)),
+		    QuadraticBezier.of(Point.of(0, 0), Point.of(100, 0), Point.of(100, 100)) };
+		for (QuadraticBezier cut : curves) {
+			double t = cut.solveTFromX(x, 1e-10);
+			assertEquals(x, cut.x(t), 1e-10);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { -0.1, 100.1 })
+	void testSolveTFromXOutOfRange(double x) {
+		QuadraticBezier cut = QuadraticBezier.of(Point.of(0, 0), Point.of(50, 75), Point.of(100, 100));
+		assertThrows(MathException.class, () -> {
+			cut.solveTFromX(x);
+		});
+	}
+
+}
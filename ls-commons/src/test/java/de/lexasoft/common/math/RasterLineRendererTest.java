@@ -0,0 +1,154 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class RasterLineRendererTest {
+
+	private static final int WIDTH = 300;
+	private static final int HEIGHT = 200;
+
+	private static BufferedImage createImage(int type) {
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+		Graphics2D g2d = image.createGraphics();
+		g2d.setBackground(Color.WHITE);
+		g2d.clearRect(0, 0, WIDTH, HEIGHT);
+		return image;
+	}
+
+	private static int[] pixels(BufferedImage image) {
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
+	/**
+	 * Random lines, partly outside of the image, must set the same pixels as
+	 * {@link java.awt.Graphics#drawLine(int, int, int, int)}.
+	 */
+	@ParameterizedTest
+	@ValueSource(ints = { BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB })
+	void testDrawLine(int type) {
+		Random random = new Random(4711);
+		BufferedImage expected = createImage(type);
+		Graphics2D graphics = expected.createGraphics();
+		graphics.setColor(Color.BLUE);
+		BufferedImage actual = createImage(type);
+		RasterLineRenderer cut = RasterLineRenderer.of(actual);
+		for (int line = 0; line < 500; line++) {
+			int range = line % 5 == 0 ? 100000 : 200;
+			int x0 = random.nextInt(WIDTH + 2 * range) - range;
+			int y0 = random.nextInt(HEIGHT + 2 * range) - range;
+			int x1 = random.nextInt(WIDTH + 2 * range) - range;
+			int y1 = random.nextInt(HEIGHT + 2 * range) - range;
+			graphics.drawLine(x0, y0, x1, y1);
+			cut.drawLine(x0, y0, x1, y1, Color.BLUE.getRGB());
+		}
+		assertArrayEquals(pixels(expected), pixels(actual));
+	}
+
+	@Test
+	void testDrawPolylineInSubimage() {
+		int[] xs = { -10, 20, 50, 120, 60 };
+		int[] ys = { 5, 90, 30, 70, -20 };
+		BufferedImage expected = createImage(BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = expected.getSubimage(50, 40, 100, 80).createGraphics();
+		graphics.setColor(Color.RED);
+		graphics.drawPolyline(xs, ys, xs.length);
+		BufferedImage actual = createImage(BufferedImage.TYPE_INT_RGB);
+		RasterLineRenderer cut = RasterLineRenderer.of(actual.getSubimage(50, 40, 100, 80));
+		assertEquals(100, cut.width());
+		assertEquals(80, cut.height());
+		cut.drawPolyline(xs, ys, xs.length, Color.RED.getRGB());
+		assertArrayEquals(pixels(expected), pixels(actual));
+	}
+
+	/**
+	 * Each column of a flat anti-aliased line must be covered by one pixel in
+	 * total.
+	 */
+	@Test
+	void testDrawLineAntiAliased() {
+		BufferedImage image = createImage(BufferedImage.TYPE_INT_RGB);
+		RasterLineRenderer cut = RasterLineRenderer.of(image);
+		cut.drawLineAntiAliased(10.5, 20.25, 250.5, 97.75, Color.BLACK.getRGB());
+		for (int x = 11; x <= 250; x++) {
+			assertEquals(255, columnCoverage(image, x), 2);
+		}
+	}
+
+	private static int columnCoverage(BufferedImage image, int x) {
+		int coverage = 0;
+		for (int y = 0; y < image.getHeight(); y++) {
+			coverage += 255 - (image.getRGB(x, y) & 0xff);
+		}
+		return coverage;
+	}
+
+	/**
+	 * The lines of a polyline must join without gaps, even if they are shorter
+	 * than a pixel.
+	 */
+	@Test
+	void testDrawPolylineAntiAliased() {
+		int count = 1001;
+		double[] xs = new double[count];
+		double[] ys = new double[count];
+		for (int i = 0; i < count; i++) {
+			xs[i] = 20 + i * 0.25;
+			ys[i] = 100 + 30 * Math.sin(i * 0.003);
+		}
+		BufferedImage image = createImage(BufferedImage.TYPE_INT_RGB);
+		RasterLineRenderer.of(image).drawPolylineAntiAliased(xs, ys, count, Color.BLACK.getRGB());
+		for (int x = 21; x < 270; x++) {
+			assertEquals(255, columnCoverage(image, x), 8);
+		}
+	}
+
+	@Test
+	void testDrawLineAntiAliasedStraight() {
+		BufferedImage image = createImage(BufferedImage.TYPE_INT_ARGB);
+		RasterLineRenderer.of(image).drawLineAntiAliased(10, 10, 200, 10, Color.GREEN.getRGB());
+		for (int x = 11; x < 200; x++) {
+			assertEquals(Color.GREEN.getRGB(), image.getRGB(x, 10));
+			assertEquals(Color.WHITE.getRGB(), image.getRGB(x, 11));
+		}
+		// The end points cover only half of their pixels.
+		assertEquals(0xff80ff80, image.getRGB(10, 10));
+		assertEquals(0xff80ff80, image.getRGB(200, 10));
+	}
+
+	@Test
+	void testTranslucentColor() {
+		int halfBlack = 128 << 24;
+		BufferedImage rgb = createImage(BufferedImage.TYPE_INT_RGB);
+		RasterLineRenderer.of(rgb).drawLine(0, 0, 10, 0, halfBlack);
+		assertEquals(0xff7f7f7f, rgb.getRGB(5, 0));
+		BufferedImage argb = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		RasterLineRenderer.of(argb).drawLine(0, 0, 10, 0, halfBlack);
+		assertEquals(halfBlack, argb.getRGB(5, 0));
+	}
+
+	@Test
+	void testWrongImageType() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			RasterLineRenderer.of(new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_3BYTE_BGR));
+		});
+	}
+
+}
@@ -0,0 +1,77 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * @author nierax
+ *
+ */
+class RationalBezierTest {
+
+	private static RationalBezier quarterCircle() {
+		return RationalBezier.of(PointBuffer.of(new double[] { 1, 1, 0 }, new double[] { 0, 1, 1 }),
+		    new double[] { 1, Math.sqrt(0.5), 1 });
+	}
+
+	/**
+	 * A quadratic rational curve with the middle weight sqrt(2) / 2 is an exact
+	 * quarter circle.
+	 */
+	@Test
+	void testQuarterCircle() {
+		RationalBezier cut = quarterCircle();
+		assertEquals(2, cut.degree());
+		for (double t = 0; t <= 1; t += 0.01) {
+			assertEquals(1, Math.hypot(cut.x(t), cut.y(t)), 1e-12);
+			assertEquals(cut.x(t), cut.point(t).x());
+		}
+		double[] xs = new double[101];
+		double[] ys = new double[101];
+		cut.sample(0, 1, 101, xs, ys);
+		for (int i = 0; i <= 100; i++) {
+			assertEquals(1, Math.hypot(xs[i], ys[i]), 1e-12);
+			assertEquals(cut.x(i / 100.0), xs[i], 1e-12);
+		}
+	}
+
+	/**
+	 * With equal weights the curve is an ordinary Bezier curve.
+	 */
+	@ParameterizedTest
+	@ValueSource(doubles = { 1, 0.5, 7 })
+	void testEqualWeights(double w) {
+		PointBuffer points = PointBuffer.of(new double[] { 0, 1, 3, 4, 6 }, new double[] { 0, 4, -2, 3, 1 });
+		RationalBezier cut = RationalBezier.of(points, new double[] { w, w, w, w, w });
+		Bezier bezier = Bezier.of(points);
+		for (double t = 0; t <= 1; t += 0.05) {
+			assertEquals(bezier.x(t), cut.x(t), 1e-12);
+			assertEquals(bezier.y(t), cut.y(t), 1e-12);
+		}
+	}
+
+	@Test
+	void testInvalid() {
+		PointBuffer points = PointBuffer.of(new double[] { 0, 1 }, new double[] { 0, 1 });
+		assertThrows(IllegalArgumentException.class, () -> {
+			RationalBezier.of(points, new double[] { 1 });
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			RationalBezier.of(points, new double[] { 1, 0 });
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			quarterCircle().x(1.5);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			quarterCircle().y(Double.NaN);
+		});
+	}
+
+}
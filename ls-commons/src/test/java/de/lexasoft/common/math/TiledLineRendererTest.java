@@ -0,0 +1,109 @@
+/**
+ * 
+ */
+package de.lexasoft.common.math;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * @author nierax
+ *
+ */
+class TiledLineRendererTest {
+
+	private static final int WIDTH = 300;
+	private static final int HEIGHT = 200;
+
+	private static BufferedImage createImage() {
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2d = image.createGraphics();
+		g2d.setBackground(Color.WHITE);
+		g2d.clearRect(0, 0, WIDTH, HEIGHT);
+		g2d.setColor(Color.BLUE);
+		return image;
+	}
+
+	private static int[] pixels(BufferedImage image) {
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
+	private static Stream<Arguments> testRender() {
+		return Stream.of(Arguments.of(1, true), //
+		    Arguments.of(16, true), //
+		    Arguments.of(16, false), //
+		    Arguments.of(64, true), //
+		    Arguments.of(1000, true));
+	}
+
+	/**
+	 * Random polylines, partly outside of the image, must give the same pixels as
+	 * drawing every segment into the whole image.
+	 */
+	@ParameterizedTest
+	@MethodSource
+	void testRender(int tileSize, boolean parallel) {
+		Random random = new Random(4711);
+		BufferedImage expected = createImage();
+		Graphics2D expectedGraphics = expected.createGraphics();
+		expectedGraphics.setColor(Color.BLUE);
+		BufferedImage actual = createImage();
+		Graphics2D actualGraphics = actual.createGraphics();
+		actualGraphics.setColor(Color.BLUE);
+		TiledLineRenderer cut = TiledLineRenderer.of(WIDTH, HEIGHT, tileSize);
+		for (int line = 0; line < 50; line++) {
+			int count = 1 + random.nextInt(20);
+			int[] xs = new int[count];
+			int[] ys = new int[count];
+			for (int i = 0; i < count; i++) {
+				xs[i] = random.nextInt(WIDTH + 200) - 100;
+				ys[i] = random.nextInt(HEIGHT + 200) - 100;
+			}
+			expectedGraphics.drawLine(xs[0], ys[0], xs[0], ys[0]);
+			for (int i = 1; i < count; i++) {
+				expectedGraphics.drawLine(xs[i - 1], ys[i - 1], xs[i], ys[i]);
+			}
+			cut.addPolyline(xs, ys, count);
+		}
+		cut.render(actualGraphics, parallel);
+		assertArrayEquals(pixels(expected), pixels(actual));
+	}
+
+	@Test
+	void testClear() {
+		TiledLineRenderer cut = TiledLineRenderer.of(WIDTH, HEIGHT, 64);
+		assertEquals(20, cut.tileCount());
+		cut.addPolyline(new int[] { 0, 100, 1000 }, new int[] { 0, 100, 1000 }, 3);
+		cut.addPolyline(new int[] { -10, -5 }, new int[] { 0, 100 }, 2);
+		assertEquals(2, cut.segmentCount());
+		cut.clear();
+		assertEquals(0, cut.segmentCount());
+		BufferedImage image = createImage();
+		int[] before = pixels(image);
+		cut.render(image.createGraphics(), true);
+		assertArrayEquals(before, pixels(image));
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			TiledLineRenderer.of(0, HEIGHT, 64);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			TiledLineRenderer.of(WIDTH, HEIGHT, 0);
+		});
+	}
+
+}